@@ -47,7 +47,6 @@ import static io.trino.tempto.query.QueryResult.fromSqlIndex;
 import static io.trino.tempto.query.QueryResult.toSqlIndex;
 import static java.lang.String.format;
 import static java.sql.JDBCType.INTEGER;
-import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
@@ -61,13 +60,15 @@ public class QueryAssert
 
     private static final NumberFormat DECIMAL_FORMAT = new DecimalFormat("#0.00000000000");
 
-    private final List<ValueComparator> columnComparators;
+    private static final int MAX_REPORTED_ROWS = 100;
+
+    private final RowMatcher rowMatcher;
     private final List<JDBCType> columnTypes;
 
     private QueryAssert(QueryResult actual)
     {
         super(actual, QueryAssert.class);
-        this.columnComparators = getComparators(actual);
+        this.rowMatcher = new RowMatcher(getComparators(actual));
         this.columnTypes = actual.getColumnTypes();
     }
 
@@ -193,11 +194,12 @@ public class QueryAssert
      */
     public QueryAssert contains(List<Row> rows)
     {
+        QueryRowsIndex actualRowsIndex = new QueryRowsIndex(actual, rowMatcher);
         List<List<?>> missingRows = newArrayList();
         for (Row row : rows) {
             List<?> expectedRow = row.getValues();
 
-            if (!containsRow(expectedRow)) {
+            if (actualRowsIndex.findMatch(expectedRow) < 0) {
                 missingRows.add(expectedRow);
             }
         }
@@ -220,15 +222,21 @@ public class QueryAssert
     }
 
     /**
-     * Verifies that the actual result set consist of only {@code rows} in any order
+     * Verifies that the actual result set consist of only {@code rows} in any order.
+     * Duplicated rows have to occur the same number of times in the actual result set.
      *
      * @param rows Rows to be matched
      * @return this
      */
     public QueryAssert containsOnly(List<Row> rows)
     {
-        hasRowsCount(rows.size());
-        contains(rows);
+        List<List<?>> expectedRows = rows.stream()
+                .map(Row::getValues)
+                .collect(Collectors.toList());
+        QueryRowsDiff diff = QueryRowsDiff.compare(actual, expectedRows, rowMatcher);
+        if (!diff.isEmpty()) {
+            failWithMessage("%s", diff.describe(MAX_REPORTED_ROWS));
+        }
 
         return this;
     }
@@ -267,7 +275,7 @@ public class QueryAssert
             List<?> expectedRow = rows.get(rowIndex).getValues();
             List<?> actualRow = actual.row(rowIndex);
 
-            if (!rowsEqual(expectedRow, actualRow)) {
+            if (!rowMatcher.rowsEqual(expectedRow, actualRow)) {
                 unequalRowsIndexes.add(rowIndex);
             }
         }
@@ -313,7 +321,7 @@ public class QueryAssert
         return this;
     }
 
-    private static List<ValueComparator> getComparators(QueryResult queryResult)
+    private static List<QueryResultValueComparator> getComparators(QueryResult queryResult)
     {
         Configuration configuration = testConfiguration();
         return queryResult.getColumnTypes().stream()
@@ -333,11 +341,15 @@ public class QueryAssert
     private void appendRows(StringBuilder msg, List<List<?>> rows)
     {
         rows.stream()
+                .limit(MAX_REPORTED_ROWS)
                 .map(QueryAssert::rowToString)
                 .forEach(row -> msg.append('\n').append(row));
+        if (rows.size() > MAX_REPORTED_ROWS) {
+            msg.append("\n... ").append(rows.size() - MAX_REPORTED_ROWS).append(" more");
+        }
     }
 
-    private static String rowToString(List<?> row)
+    static String rowToString(List<?> row)
     {
         return row.stream()
                 .map(Row::valueToString)
@@ -361,44 +373,6 @@ public class QueryAssert
         return msg.toString();
     }
 
-    private boolean containsRow(List<?> expectedRow)
-    {
-        for (int i = 0; i < actual.getRowsCount(); i++) {
-            if (rowsEqual(expectedRow, actual.row(i))) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean rowsEqual(List<?> expectedRow, List<?> actualRow)
-    {
-        if (expectedRow.size() != actualRow.size()) {
-            return false;
-        }
-        for (int i = 0; i < expectedRow.size(); ++i) {
-            List<?> acceptableValues = expectedRow.get(i) instanceof AcceptableValues ?
-                    ((AcceptableValues) expectedRow.get(i)).getValues()
-                    : singletonList(expectedRow.get(i));
-            Object actualValue = actualRow.get(i);
-
-            if (!isAnyValueEqual(i, acceptableValues, actualValue)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    private boolean isAnyValueEqual(int column, List<?> expectedValues, Object actualValue)
-    {
-        for (Object expectedValue : expectedValues) {
-            if (columnComparators.get(column).test(actualValue, expectedValue)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     public <T> QueryAssert column(int columnIndex, JDBCType type, ColumnValuesAssert<T> columnValuesAssert)
     {
         if (fromSqlIndex(columnIndex) > actual.getColumnsCount()) {
@@ -569,5 +543,23 @@ public class QueryAssert
                     .join(values);
             return "anyOf(" + jointValues + ")";
         }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return values.equals(((AcceptableValues) o).values);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return values.hashCode();
+        }
     }
 }
@@ -18,6 +18,7 @@ import com.google.common.math.DoubleMath;
 import io.trino.tempto.configuration.Configuration;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.sql.Array;
 import java.sql.Date;
 import java.sql.JDBCType;
@@ -42,6 +43,8 @@ class QueryResultValueComparator
 {
     public static final String FLOAT_TOLERANCE_CONFIGURATION_KEY = "tests.assert.float_tolerance";
 
+    private static final Object NULL_KEY = new Object();
+
     private final JDBCType type;
     private final Configuration configuration;
 
@@ -109,6 +112,97 @@ class QueryResultValueComparator
         }
     }
 
+    /**
+     * Tells whether {@link #hashKey(Object)} can be used for this column, that is whether values
+     * considered equal by {@link #test(Object, Object)} always have equal hash keys.
+     */
+    public boolean isHashable()
+    {
+        switch (type) {
+            case CHAR:
+            case VARCHAR:
+            case NVARCHAR:
+            case LONGVARCHAR:
+            case LONGNVARCHAR:
+            case BINARY:
+            case VARBINARY:
+            case LONGVARBINARY:
+            case BIT:
+            case BOOLEAN:
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+            case DECIMAL:
+            case NUMERIC:
+            case DATE:
+            case TIME:
+            case TIME_WITH_TIMEZONE:
+            case TIMESTAMP:
+            case TIMESTAMP_WITH_TIMEZONE:
+                return true;
+            case REAL:
+            case FLOAT:
+            case DOUBLE:
+                // values compared with a relative tolerance cannot be mapped to fixed buckets
+                return !configuration.getDouble(FLOAT_TOLERANCE_CONFIGURATION_KEY).isPresent();
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns normalized value, such that two values are equal according to {@link #test(Object, Object)}
+     * only if their hash keys are equal. Values which are never equal to anything have a unique hash key.
+     * Must be called only if {@link #isHashable()} returns true.
+     */
+    public Object hashKey(Object value)
+    {
+        if (isNull(value)) {
+            return NULL_KEY;
+        }
+        switch (type) {
+            case CHAR:
+            case VARCHAR:
+            case NVARCHAR:
+            case LONGVARCHAR:
+            case LONGNVARCHAR:
+                return value instanceof String ? value : new Object();
+            case BINARY:
+            case VARBINARY:
+            case LONGVARBINARY:
+                return value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : new Object();
+            case BIT:
+            case BOOLEAN:
+                return value instanceof Boolean ? value : new Object();
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+                return isIntegerOrNarrower(value) ? ((Number) value).longValue() : new Object();
+            case BIGINT:
+                return isLongOrNarrower(value) ? ((Number) value).longValue() : new Object();
+            case REAL:
+            case FLOAT:
+            case DOUBLE:
+                // adding 0.0 turns -0.0 into 0.0, which is fuzzy equal to it
+                return isFloatingPointValue(value) ? getDoubleValue(value) + 0.0 : new Object();
+            case DECIMAL:
+            case NUMERIC:
+                return value instanceof BigDecimal ? ((BigDecimal) value).stripTrailingZeros() : new Object();
+            case DATE:
+                return value instanceof Date ? ((Date) value).getTime() : new Object();
+            case TIME:
+            case TIME_WITH_TIMEZONE:
+                return value instanceof Time ? ((Time) value).getTime() : new Object();
+            case TIMESTAMP:
+                return value instanceof Timestamp ? value : new Object();
+            case TIMESTAMP_WITH_TIMEZONE:
+                return value instanceof Timestamp || value instanceof ZonedDateTime ? value : new Object();
+            default:
+                throw new IllegalStateException("Values of type " + type + " can not be hashed");
+        }
+    }
+
     private boolean arrayEqual(Object actual, Object expected)
     {
         if (!(actual instanceof Array && expected instanceof List)) {
@@ -0,0 +1,284 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.assertions;
+
+import io.trino.tempto.query.QueryResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.trino.tempto.assertions.QueryAssert.rowToString;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Multiset comparison of expected rows and rows of a {@link QueryResult}.
+ * <p>
+ * Every expected row is matched with a distinct actual row, so duplicates are counted. Rows without
+ * {@link QueryAssert.AcceptableValues} are matched first, as they leave no choice of the actual row.
+ * Rows with acceptable values may match several actual rows, so they are matched with remaining actual rows
+ * by maximum bipartite matching, using augmenting paths. Identical expected rows are matched together, so that
+ * their candidate actual rows are looked up once. The result lists expected rows which were not found at all,
+ * expected rows which were found fewer times than expected and actual rows which were not matched by any
+ * expected row.
+ */
+class QueryRowsDiff
+{
+    private final QueryResult actual;
+    private final List<List<?>> missingRows = new ArrayList<>();
+    private final Map<String, Integer> missingDuplicates = new LinkedHashMap<>();
+    private final BitSet matchedActualRows = new BitSet();
+
+    private QueryRowsDiff(QueryResult actual)
+    {
+        this.actual = requireNonNull(actual, "actual is null");
+    }
+
+    static QueryRowsDiff compare(QueryResult actual, List<? extends List<?>> expectedRows, RowMatcher rowMatcher)
+    {
+        QueryRowsDiff diff = new QueryRowsDiff(actual);
+        QueryRowsIndex actualRowsIndex = new QueryRowsIndex(actual, rowMatcher);
+        List<List<?>> rowsWithAcceptableValues = new ArrayList<>();
+        for (List<?> expectedRow : expectedRows) {
+            if (hasAcceptableValues(expectedRow)) {
+                rowsWithAcceptableValues.add(expectedRow);
+            }
+            else {
+                diff.match(actualRowsIndex, expectedRow);
+            }
+        }
+        diff.matchAll(actualRowsIndex, rowsWithAcceptableValues);
+        return diff;
+    }
+
+    boolean isEmpty()
+    {
+        return missingRows.isEmpty()
+                && missingDuplicates.isEmpty()
+                && matchedActualRows.cardinality() == actual.getRowsCount();
+    }
+
+    /**
+     * @param maxRowsPerSection maximum number of rows listed in each section of the report
+     */
+    String describe(int maxRowsPerSection)
+    {
+        StringBuilder msg = new StringBuilder("Actual rows do not match expected rows");
+
+        if (!missingRows.isEmpty()) {
+            msg.append("\n\nmissing rows (").append(missingRows.size()).append("):");
+            for (int i = 0; i < Math.min(missingRows.size(), maxRowsPerSection); i++) {
+                msg.append('\n').append(rowToString(missingRows.get(i)));
+            }
+            appendOmitted(msg, missingRows.size(), maxRowsPerSection);
+        }
+
+        if (!missingDuplicates.isEmpty()) {
+            msg.append("\n\nrows found fewer times than expected (").append(missingDuplicates.size()).append("):");
+            missingDuplicates.entrySet().stream()
+                    .limit(maxRowsPerSection)
+                    .forEach(entry -> msg.append('\n').append(entry.getKey()).append(" - missing ").append(entry.getValue()).append(" occurrence(s)"));
+            appendOmitted(msg, missingDuplicates.size(), maxRowsPerSection);
+        }
+
+        int extraRowsCount = actual.getRowsCount() - matchedActualRows.cardinality();
+        if (extraRowsCount > 0) {
+            msg.append("\n\nextra rows (").append(extraRowsCount).append("):");
+            int listed = 0;
+            for (int rowIndex = matchedActualRows.nextClearBit(0); rowIndex < actual.getRowsCount() && listed < maxRowsPerSection; rowIndex = matchedActualRows.nextClearBit(rowIndex + 1)) {
+                msg.append('\n').append(rowToString(actual.row(rowIndex)));
+                listed++;
+            }
+            appendOmitted(msg, extraRowsCount, maxRowsPerSection);
+        }
+
+        return msg.toString();
+    }
+
+    private void match(QueryRowsIndex actualRowsIndex, List<?> expectedRow)
+    {
+        int rowIndex = actualRowsIndex.removeMatch(expectedRow);
+        if (rowIndex >= 0) {
+            matchedActualRows.set(rowIndex);
+        }
+        else if (actualRowsIndex.findMatch(expectedRow) >= 0) {
+            missingDuplicates.merge(rowToString(expectedRow), 1, Integer::sum);
+        }
+        else {
+            missingRows.add(expectedRow);
+        }
+    }
+
+    private void matchAll(QueryRowsIndex actualRowsIndex, List<List<?>> expectedRows)
+    {
+        Map<List<?>, Integer> counts = new LinkedHashMap<>();
+        for (List<?> expectedRow : expectedRows) {
+            counts.merge(expectedRow, 1, Integer::sum);
+        }
+
+        List<ExpectedRows> groups = new ArrayList<>();
+        for (Map.Entry<List<?>, Integer> entry : counts.entrySet()) {
+            int[] candidates = actualRowsIndex.findMatches(entry.getKey());
+            if (candidates.length == 0) {
+                for (int i = 0; i < entry.getValue(); i++) {
+                    missingRows.add(entry.getKey());
+                }
+            }
+            else {
+                groups.add(new ExpectedRows(entry.getKey(), entry.getValue(), candidates));
+            }
+        }
+
+        int[] groupByActualRow = new int[actual.getRowsCount()];
+        Arrays.fill(groupByActualRow, -1);
+        for (int group = 0; group < groups.size(); group++) {
+            ExpectedRows expected = groups.get(group);
+            int unmatched = 0;
+            for (int i = 0; i < expected.count; i++) {
+                if (!augment(group, groups, groupByActualRow)) {
+                    // matching did not change, so remaining rows of the group would not be matched either
+                    unmatched = expected.count - i;
+                    break;
+                }
+            }
+            if (unmatched > 0) {
+                missingDuplicates.merge(rowToString(expected.row), unmatched, Integer::sum);
+            }
+        }
+        for (int actualRow = 0; actualRow < groupByActualRow.length; actualRow++) {
+            if (groupByActualRow[actualRow] >= 0) {
+                matchedActualRows.set(actualRow);
+            }
+        }
+    }
+
+    /**
+     * Looks for an actual row for one more row of {@code startGroup}. A free candidate is taken if there is one,
+     * otherwise actual rows of previously matched groups are reassigned, if those groups have other candidates.
+     * The augmenting path is searched depth first with an explicit stack, each group and actual row is visited once.
+     *
+     * @return whether a row of {@code startGroup} was matched
+     */
+    private boolean augment(int startGroup, List<ExpectedRows> groups, int[] groupByActualRow)
+    {
+        int freeActualRow = nextFreeCandidate(groups.get(startGroup), groupByActualRow);
+        if (freeActualRow >= 0) {
+            groupByActualRow[freeActualRow] = startGroup;
+            return true;
+        }
+
+        BitSet visitedGroups = new BitSet();
+        BitSet visitedActualRows = new BitSet();
+        Deque<SearchFrame> path = new ArrayDeque<>();
+        visitedGroups.set(startGroup);
+        path.push(new SearchFrame(startGroup, -1));
+        while (!path.isEmpty()) {
+            SearchFrame frame = path.peek();
+            ExpectedRows expected = groups.get(frame.group);
+            freeActualRow = nextFreeCandidate(expected, groupByActualRow);
+            if (freeActualRow >= 0) {
+                // each group on the path takes the actual row of the group it was reached from, which
+                // keeps number of matched rows of all groups on the path except the first one
+                groupByActualRow[freeActualRow] = frame.group;
+                Iterator<SearchFrame> frames = path.iterator();
+                SearchFrame reached = frames.next();
+                while (frames.hasNext()) {
+                    SearchFrame reachedFrom = frames.next();
+                    groupByActualRow[reached.enteredWith] = reachedFrom.group;
+                    reached = reachedFrom;
+                }
+                return true;
+            }
+            if (frame.position == expected.candidates.length) {
+                path.pop();
+                continue;
+            }
+            int actualRow = expected.candidates[frame.position++];
+            if (matchedActualRows.get(actualRow) || visitedActualRows.get(actualRow)) {
+                continue;
+            }
+            visitedActualRows.set(actualRow);
+            int owner = groupByActualRow[actualRow];
+            if (owner >= 0 && !visitedGroups.get(owner)) {
+                visitedGroups.set(owner);
+                path.push(new SearchFrame(owner, actualRow));
+            }
+        }
+        return false;
+    }
+
+    private int nextFreeCandidate(ExpectedRows expected, int[] groupByActualRow)
+    {
+        // actual rows are never released, so candidates taken once can be skipped for good
+        while (expected.nextFreeCandidate < expected.candidates.length) {
+            int actualRow = expected.candidates[expected.nextFreeCandidate];
+            if (!matchedActualRows.get(actualRow) && groupByActualRow[actualRow] < 0) {
+                return actualRow;
+            }
+            expected.nextFreeCandidate++;
+        }
+        return -1;
+    }
+
+    private static boolean hasAcceptableValues(List<?> expectedRow)
+    {
+        return expectedRow.stream().anyMatch(value -> value instanceof QueryAssert.AcceptableValues);
+    }
+
+    private static void appendOmitted(StringBuilder msg, int count, int maxRowsPerSection)
+    {
+        if (count > maxRowsPerSection) {
+            msg.append("\n... ").append(count - maxRowsPerSection).append(" more");
+        }
+    }
+
+    /**
+     * Identical expected rows with acceptable values and actual rows they match.
+     */
+    private static class ExpectedRows
+    {
+        private final List<?> row;
+        private final int count;
+        private final int[] candidates;
+        private int nextFreeCandidate;
+
+        private ExpectedRows(List<?> row, int count, int[] candidates)
+        {
+            this.row = row;
+            this.count = count;
+            this.candidates = candidates;
+        }
+    }
+
+    private static class SearchFrame
+    {
+        private final int group;
+        // actual row of the group through which the search reached it, -1 for the group the search started from
+        private final int enteredWith;
+        private int position;
+
+        private SearchFrame(int group, int enteredWith)
+        {
+            this.group = group;
+            this.enteredWith = enteredWith;
+        }
+    }
+}
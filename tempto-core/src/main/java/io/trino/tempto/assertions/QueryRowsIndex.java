@@ -0,0 +1,273 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.assertions;
+
+import io.trino.tempto.query.QueryResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hash index over rows of a {@link QueryResult}.
+ * <p>
+ * Rows are keyed by normalized values (see {@link QueryResultValueComparator#hashKey(Object)}) of all
+ * hashable columns. Looking up an expected row probes the index with every combination of its acceptable
+ * values and verifies the candidates with {@link RowMatcher}. If no column is hashable, or an expected row
+ * expands into too many probes, all rows are scanned instead.
+ * <p>
+ * Rows can be removed from the index with {@link #removeMatch(List)}. Removed rows are skipped in constant
+ * amortized time, so matching rows in the order they were returned does not rescan already matched rows.
+ */
+class QueryRowsIndex
+{
+    private static final int MAX_PROBES_PER_ROW = 1024;
+
+    private final QueryResult actual;
+    private final RowMatcher rowMatcher;
+    private final int[] hashedColumns;
+    private final Map<List<Object>, RowBucket> rowsByKey = new HashMap<>();
+    private final RowBucket allRows;
+
+    QueryRowsIndex(QueryResult actual, RowMatcher rowMatcher)
+    {
+        this.actual = requireNonNull(actual, "actual is null");
+        this.rowMatcher = requireNonNull(rowMatcher, "rowMatcher is null");
+        List<QueryResultValueComparator> comparators = rowMatcher.getColumnComparators();
+        this.hashedColumns = IntStream.range(0, comparators.size())
+                .filter(column -> comparators.get(column).isHashable())
+                .toArray();
+
+        if (hashedColumns.length > 0) {
+            for (int rowIndex = 0; rowIndex < actual.getRowsCount(); rowIndex++) {
+                rowsByKey.computeIfAbsent(rowKey(actual.row(rowIndex)), key -> new RowBucket(new IntList()))
+                        .rows.add(rowIndex);
+            }
+            allRows = null;
+        }
+        else {
+            allRows = new RowBucket(new IntList(IntStream.range(0, actual.getRowsCount()).toArray()));
+        }
+    }
+
+    /**
+     * @return index of the first actual row which matches {@code expectedRow}, including removed rows,
+     * or -1 if there is no such row
+     */
+    int findMatch(List<?> expectedRow)
+    {
+        int[] matches = findMatches(expectedRow, 1);
+        return matches.length == 0 ? -1 : matches[0];
+    }
+
+    /**
+     * @return sorted indexes of all actual rows which match {@code expectedRow}, including removed rows
+     */
+    int[] findMatches(List<?> expectedRow)
+    {
+        return findMatches(expectedRow, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the first actual row, which matches {@code expectedRow} and was not removed yet, and removes it.
+     * Expected row must not contain {@link QueryAssert.AcceptableValues}.
+     *
+     * @return index of the removed row, or -1 if there is no such row
+     */
+    int removeMatch(List<?> expectedRow)
+    {
+        if (expectedRow.size() != actual.getColumnsCount()) {
+            return -1;
+        }
+        RowBucket bucket = allRows;
+        if (bucket == null) {
+            bucket = rowsByKey.get(rowKey(expectedRow));
+            if (bucket == null) {
+                return -1;
+            }
+        }
+        return bucket.removeFirst(rowIndex -> rowMatcher.rowsEqual(expectedRow, actual.row(rowIndex)));
+    }
+
+    private int[] findMatches(List<?> expectedRow, int limit)
+    {
+        if (expectedRow.size() != actual.getColumnsCount()) {
+            return new int[0];
+        }
+        IntStream candidates = candidateRows(expectedRow)
+                .map(IntList::stream)
+                .orElseGet(() -> IntStream.range(0, actual.getRowsCount()));
+        return candidates
+                .filter(rowIndex -> rowMatcher.rowsEqual(expectedRow, actual.row(rowIndex)))
+                .limit(limit)
+                .toArray();
+    }
+
+    /**
+     * @return sorted indexes of actual rows which may match {@code expectedRow}, or empty if all rows have to be scanned
+     */
+    private Optional<IntList> candidateRows(List<?> expectedRow)
+    {
+        if (hashedColumns.length == 0) {
+            return Optional.empty();
+        }
+
+        Optional<Set<List<Object>>> probes = probeKeys(expectedRow);
+        if (!probes.isPresent()) {
+            return Optional.empty();
+        }
+
+        if (probes.get().size() == 1) {
+            RowBucket bucket = rowsByKey.get(probes.get().iterator().next());
+            return Optional.of(bucket == null ? new IntList() : bucket.rows);
+        }
+
+        int[] rows = probes.get().stream()
+                .map(rowsByKey::get)
+                .filter(Objects::nonNull)
+                .flatMapToInt(bucket -> bucket.rows.stream())
+                .sorted()
+                .distinct()
+                .toArray();
+        return Optional.of(new IntList(rows));
+    }
+
+    private List<Object> rowKey(List<?> row)
+    {
+        List<QueryResultValueComparator> comparators = rowMatcher.getColumnComparators();
+        Object[] key = new Object[hashedColumns.length];
+        for (int i = 0; i < hashedColumns.length; i++) {
+            key[i] = comparators.get(hashedColumns[i]).hashKey(row.get(hashedColumns[i]));
+        }
+        return Arrays.asList(key);
+    }
+
+    private Optional<Set<List<Object>>> probeKeys(List<?> expectedRow)
+    {
+        List<QueryResultValueComparator> comparators = rowMatcher.getColumnComparators();
+        Set<List<Object>> probes = new LinkedHashSet<>();
+        probes.add(new ArrayList<>());
+        for (int column : hashedColumns) {
+            List<?> acceptableValues = RowMatcher.acceptableValues(expectedRow.get(column));
+            if (probes.size() * acceptableValues.size() > MAX_PROBES_PER_ROW) {
+                return Optional.empty();
+            }
+            Set<List<Object>> extendedProbes = new LinkedHashSet<>();
+            for (List<Object> probe : probes) {
+                for (Object value : acceptableValues) {
+                    List<Object> extendedProbe = new ArrayList<>(probe);
+                    extendedProbe.add(comparators.get(column).hashKey(value));
+                    extendedProbes.add(extendedProbe);
+                }
+            }
+            probes = extendedProbes;
+        }
+        return Optional.of(probes);
+    }
+
+    /**
+     * Rows with the same key. Removed rows are skipped with path compressed links to the next row which
+     * was not removed, as in a disjoint-set forest.
+     */
+    private static class RowBucket
+    {
+        private final IntList rows;
+        private int[] nextPresent;
+
+        RowBucket(IntList rows)
+        {
+            this.rows = rows;
+        }
+
+        int removeFirst(IntPredicate matches)
+        {
+            if (nextPresent == null) {
+                nextPresent = IntStream.rangeClosed(0, rows.size()).toArray();
+            }
+            for (int position = nextPresent(0); position < rows.size(); position = nextPresent(position + 1)) {
+                int rowIndex = rows.get(position);
+                if (matches.test(rowIndex)) {
+                    nextPresent[position] = position + 1;
+                    return rowIndex;
+                }
+            }
+            return -1;
+        }
+
+        private int nextPresent(int position)
+        {
+            int present = position;
+            while (nextPresent[present] != present) {
+                present = nextPresent[present];
+            }
+            while (nextPresent[position] != present) {
+                int next = nextPresent[position];
+                nextPresent[position] = present;
+                position = next;
+            }
+            return present;
+        }
+    }
+
+    private static class IntList
+    {
+        private int[] values;
+        private int size;
+
+        IntList()
+        {
+            this(new int[0]);
+        }
+
+        IntList(int[] values)
+        {
+            this.values = values;
+            this.size = values.length;
+        }
+
+        void add(int value)
+        {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(1, size * 2));
+            }
+            values[size++] = value;
+        }
+
+        int get(int index)
+        {
+            return values[index];
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        IntStream stream()
+        {
+            return Arrays.stream(values, 0, size);
+        }
+    }
+}
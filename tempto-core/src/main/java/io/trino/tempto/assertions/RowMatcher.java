@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.assertions;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.tempto.assertions.QueryAssert.AcceptableValues;
+
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Matches expected rows, which may contain {@link AcceptableValues}, against actual query result rows
+ * using per column {@link QueryResultValueComparator}s.
+ */
+class RowMatcher
+{
+    private final List<QueryResultValueComparator> columnComparators;
+
+    RowMatcher(List<QueryResultValueComparator> columnComparators)
+    {
+        this.columnComparators = ImmutableList.copyOf(requireNonNull(columnComparators, "columnComparators is null"));
+    }
+
+    List<QueryResultValueComparator> getColumnComparators()
+    {
+        return columnComparators;
+    }
+
+    boolean rowsEqual(List<?> expectedRow, List<?> actualRow)
+    {
+        if (expectedRow.size() != actualRow.size()) {
+            return false;
+        }
+        for (int i = 0; i < expectedRow.size(); ++i) {
+            List<?> acceptableValues = acceptableValues(expectedRow.get(i));
+            Object actualValue = actualRow.get(i);
+
+            if (!isAnyValueEqual(i, acceptableValues, actualValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<?> acceptableValues(Object expectedValue)
+    {
+        return expectedValue instanceof AcceptableValues ?
+                ((AcceptableValues) expectedValue).getValues()
+                : singletonList(expectedValue);
+    }
+
+    private boolean isAnyValueEqual(int column, List<?> expectedValues, Object actualValue)
+    {
+        for (Object expectedValue : expectedValues) {
+            if (columnComparators.get(column).test(actualValue, expectedValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -21,6 +21,8 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.List;
+import java.util.Optional;
 
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.LOADED;
 import static io.trino.tempto.fulfillment.table.TableManagerDispatcher.getTableManagerDispatcher;
@@ -47,6 +49,14 @@ public interface TableManager<T extends TableDefinition>
 
     TableInstance<T> createImmutable(T tableDefinition, TableHandle tableHandle);
 
+    /**
+     * Called once with definitions of all immutable tables of a suite, before they are created with
+     * {@link #createImmutable(TableDefinition)}. Allows table managers to provision them in bulk.
+     */
+    default void prepareImmutableTables(List<T> tableDefinitions)
+    {
+    }
+
     default TableInstance<T> createMutable(T tableDefinition)
     {
         return createMutable(tableDefinition, LOADED);
@@ -63,6 +73,16 @@ public interface TableManager<T extends TableDefinition>
 
     void dropStaleMutableTables();
 
+    /**
+     * Returns a table manager that creates tables of this table manager from another thread, concurrently
+     * with this table manager and its other forks. The fork does not share connections with them and is closed
+     * by the caller once it is done. Table managers that do not support creating tables concurrently return empty.
+     */
+    default Optional<TableManager<T>> fork()
+    {
+        return Optional.empty();
+    }
+
     static <T extends TableDefinition> TableInstance<T> createImmutableTable(T tableDefinition)
     {
         return getTableManagerDispatcher().getTableManagerFor(tableDefinition).createImmutable(tableDefinition);
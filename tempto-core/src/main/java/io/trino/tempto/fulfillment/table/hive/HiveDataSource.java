@@ -36,6 +36,16 @@ public interface HiveDataSource
      */
     Collection<RepeatableContentProducer> data();
 
+    /**
+     * @return marker identifying content returned by {@link #data()}. If present, data which is already
+     * stored on HDFS with the same marker is reused instead of being uploaded again, so the marker
+     * has to change whenever the content changes. If absent, data is always uploaded.
+     */
+    default Optional<String> getRevisionMarker()
+    {
+        return Optional.empty();
+    }
+
     default Optional<TableStatistics> getStatistics()
     {
         return Optional.empty();
@@ -14,12 +14,17 @@
 
 package io.trino.tempto.fulfillment.table.hive;
 
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
+import com.google.common.io.Resources;
 import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Optional;
 
 import static com.google.common.collect.Iterators.cycle;
 import static com.google.common.collect.Iterators.limit;
@@ -27,6 +32,7 @@ import static com.google.common.io.ByteSource.concat;
 import static com.google.common.io.ByteSource.wrap;
 import static com.google.common.io.Resources.getResource;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.singleton;
 
 public abstract class InlineDataSource
@@ -48,6 +54,12 @@ public abstract class InlineDataSource
             {
                 return singleton(() -> getResource(dataResource).openStream());
             }
+
+            @Override
+            public Optional<String> getRevisionMarker()
+            {
+                return Optional.of(revisionMarker(Resources.asByteSource(getResource(dataResource))));
+            }
         };
     }
 
@@ -60,6 +72,12 @@ public abstract class InlineDataSource
             {
                 return singleton(() -> wrap(data.getBytes()).openStream());
             }
+
+            @Override
+            public Optional<String> getRevisionMarker()
+            {
+                return Optional.of(revisionMarker(wrap(data.getBytes())));
+            }
         };
     }
 
@@ -87,9 +105,26 @@ public abstract class InlineDataSource
                     }
                 };
             }
+
+            @Override
+            public Optional<String> getRevisionMarker()
+            {
+                String parameters = format("%d|%d|%s", splitCount, rowsInEachSplit, rowData);
+                return Optional.of(revisionMarker(wrap(parameters.getBytes(UTF_8))));
+            }
         };
     }
 
+    private static String revisionMarker(ByteSource data)
+    {
+        try {
+            return "sha256-" + data.hash(Hashing.sha256());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not compute checksum of data", e);
+        }
+    }
+
     @Override
     public String getPathSuffix()
     {
@@ -13,76 +13,100 @@
  */
 package io.trino.tempto.fulfillment.table.hive.tpcds;
 
-import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
 import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
 import io.trino.tempto.fulfillment.table.hive.statistics.TableStatistics;
 import io.trino.tempto.fulfillment.table.hive.statistics.TableStatisticsRepository;
 import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+import io.trino.tempto.internal.fulfillment.table.hive.RowEncodingInputStream;
 import io.trino.tpcds.Results;
 import io.trino.tpcds.Session;
 
-import java.io.InputStream;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.trino.tpcds.Results.constructResults;
 import static java.lang.String.format;
-import static java.util.Collections.singleton;
 import static java.util.Objects.requireNonNull;
 
 public class TpcdsDataSource
         implements HiveDataSource
 {
+    // bump when format of generated files changes
+    private static final int DATA_FORMAT_VERSION = 1;
+
     private final TpcdsTable table;
     private final int scaleFactor;
+    private final int partCount;
 
     public TpcdsDataSource(TpcdsTable table, int scaleFactor)
+    {
+        this(table, scaleFactor, 1);
+    }
+
+    /**
+     * @param partCount number of files table data is split into, files are generated independently of each other
+     */
+    public TpcdsDataSource(TpcdsTable table, int scaleFactor, int partCount)
     {
         checkArgument(scaleFactor > 0, "Scale factor should be greater than 0: %s", scaleFactor);
+        checkArgument(partCount > 0, "Part count should be greater than 0: %s", partCount);
         this.table = table;
         this.scaleFactor = scaleFactor;
+        this.partCount = partCount;
+    }
+
+    /**
+     * @return data source of the same table and scale factor, which splits data into given number of files
+     */
+    public TpcdsDataSource withPartCount(int partCount)
+    {
+        return new TpcdsDataSource(table, scaleFactor, partCount);
     }
 
     @Override
     public String getPathSuffix()
     {
-        return format("tpcds/sf-%d/%s", scaleFactor, table.name()).replaceAll("\\.", "_");
+        // {TESTS_PATH}/tpcds/sf-{scaleFactor}/{tableName}[-{partCount}parts]
+        String partsSuffix = partCount == 1 ? "" : format("-%dparts", partCount);
+        return format("tpcds/sf-%d/%s%s", scaleFactor, table.name(), partsSuffix).replaceAll("\\.", "_");
     }
 
     @Override
     public Collection<RepeatableContentProducer> data()
     {
-        return singleton(() -> new StringIteratorInputStream(generate()));
+        ImmutableList.Builder<RepeatableContentProducer> parts = ImmutableList.builder();
+        for (int part = 1; part <= partCount; part++) {
+            int chunkNumber = part;
+            parts.add(() -> new TpcdsRowsInputStream(generate(chunkNumber)));
+        }
+        return parts.build();
     }
 
-    private Iterator<String> generate()
+    private Iterator<List<String>> generate(int chunkNumber)
     {
         Session session = Session.getDefaultSession()
                 .withScale(scaleFactor)
-                .withParallelism(1)
+                .withParallelism(partCount)
+                .withChunkNumber(chunkNumber)
                 .withTable(table.getTable())
                 .withNoSexism(false);
         Results results = constructResults(table.getTable(), session);
 
         return StreamSupport.stream(results.spliterator(), false)
                 .flatMap(rowBatch -> rowBatch.stream())
-                .map(this::formatRow)
-                .flatMap(row -> Stream.of(row, "\n"))
                 .iterator();
     }
 
-    private String formatRow(List<String> row)
+    @Override
+    public Optional<String> getRevisionMarker()
     {
-        return row.stream()
-                .map(column -> column == null ? "\\N" : column)
-                .collect(Collectors.joining("|")) + "|";
+        return Optional.of(format("tpcds-%s-%d-%dparts-v%d", table.name(), scaleFactor, partCount, DATA_FORMAT_VERSION));
     }
 
     @Override
@@ -103,47 +127,38 @@ public class TpcdsDataSource
         }
         TpcdsDataSource that = (TpcdsDataSource) o;
         return scaleFactor == that.scaleFactor &&
+                partCount == that.partCount &&
                 table == that.table;
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(table, scaleFactor);
+        return Objects.hash(table, scaleFactor, partCount);
     }
 
-    private static class StringIteratorInputStream
-            extends InputStream
+    private static class TpcdsRowsInputStream
+            extends RowEncodingInputStream
     {
-        private final Iterator<String> data;
-        public int position;
-        public byte[] value;
+        private final Iterator<List<String>> rows;
 
-        public StringIteratorInputStream(Iterator<String> data)
+        public TpcdsRowsInputStream(Iterator<List<String>> rows)
         {
-            this.data = requireNonNull(data, "data is null");
+            this.rows = requireNonNull(rows, "rows is null");
         }
 
         @Override
-        public int read()
+        protected boolean writeNextRow()
         {
-            if (value == null) {
-                if (data.hasNext()) {
-                    position = 0;
-                    value = data.next().getBytes(Charsets.UTF_8);
-                }
-                else {
-                    return -1;
-                }
+            if (!rows.hasNext()) {
+                return false;
             }
-
-            if (position < value.length) {
-                return value[position++];
-            }
-            else {
-                value = null;
-                return read();
+            for (String column : rows.next()) {
+                write(column == null ? "\\N" : column);
+                write('|');
             }
+            write('\n');
+            return true;
         }
     }
 }
@@ -14,8 +14,11 @@
 
 package io.trino.tempto.fulfillment.table.hive.tpcds;
 
+import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
 import io.trino.tempto.fulfillment.table.hive.HiveTableDefinition;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 // Table definitions according to: tpc.org/tpc_documents_current_versions/pdf/tpc-ds_v2.3.0.pdf
 // TODO: move to separate module
 public class TpcdsTableDefinitions
@@ -661,6 +664,19 @@ public class TpcdsTableDefinitions
                     .inSchema("tpcds")
                     .build();
 
+    /**
+     * Returns given table definition with data split into {@code partCount} files, which are generated
+     * and uploaded concurrently, e.g. {@code withPartCount(STORE_SALES, 8)}.
+     */
+    public static HiveTableDefinition withPartCount(HiveTableDefinition tableDefinition, int partCount)
+    {
+        HiveDataSource dataSource = tableDefinition.getDataSource();
+        checkArgument(dataSource instanceof TpcdsDataSource, "Not a TPC-DS table definition: %s", tableDefinition.getName());
+        return HiveTableDefinition.from(tableDefinition)
+                .setDataSource(((TpcdsDataSource) dataSource).withPartCount(partCount))
+                .build();
+    }
+
     private TpcdsTableDefinitions()
     {
     }
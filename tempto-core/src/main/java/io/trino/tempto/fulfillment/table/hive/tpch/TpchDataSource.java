@@ -14,6 +14,7 @@
 
 package io.trino.tempto.fulfillment.table.hive.tpch;
 
+import com.google.common.collect.ImmutableList;
 import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
 import io.trino.tempto.fulfillment.table.hive.statistics.TableStatistics;
 import io.trino.tempto.fulfillment.table.hive.statistics.TableStatisticsRepository;
@@ -24,35 +25,68 @@ import io.trino.tpch.TpchEntity;
 import java.util.Collection;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
-import static java.util.Collections.singleton;
 import static org.apache.commons.lang3.builder.EqualsBuilder.reflectionEquals;
 import static org.apache.commons.lang3.builder.HashCodeBuilder.reflectionHashCode;
 
 public class TpchDataSource
         implements HiveDataSource
 {
+    // bump when format of generated files changes
+    private static final int DATA_FORMAT_VERSION = 1;
+
     private final TpchTable table;
     private final double scaleFactor;
+    private final int partCount;
 
     public TpchDataSource(TpchTable table, double scaleFactor)
     {
+        this(table, scaleFactor, 1);
+    }
+
+    /**
+     * @param partCount number of files table data is split into, files are generated independently of each other
+     */
+    public TpchDataSource(TpchTable table, double scaleFactor, int partCount)
+    {
+        checkArgument(partCount > 0, "Part count should be greater than 0: %s", partCount);
         this.table = table;
         this.scaleFactor = scaleFactor;
+        this.partCount = partCount;
+    }
+
+    /**
+     * @return data source of the same table and scale factor, which splits data into given number of files
+     */
+    public TpchDataSource withPartCount(int partCount)
+    {
+        return new TpchDataSource(table, scaleFactor, partCount);
     }
 
     @Override
     public String getPathSuffix()
     {
-        // {TESTS_PATH}/tpch/sf-{scaleFactor}/{tableName}
-        return format("tpch/sf-%.2f/%s", scaleFactor, table.name()).replaceAll("\\.", "_");
+        // {TESTS_PATH}/tpch/sf-{scaleFactor}/{tableName}[-{partCount}parts]
+        String partsSuffix = partCount == 1 ? "" : format("-%dparts", partCount);
+        return format("tpch/sf-%.2f/%s%s", scaleFactor, table.name(), partsSuffix).replaceAll("\\.", "_");
     }
 
     @Override
     public Collection<RepeatableContentProducer> data()
     {
-        Iterable<? extends TpchEntity> tableDataGenerator = table.entity().createGenerator(scaleFactor, 1, 1);
-        return singleton(() -> new TpchEntityByteSource<>(tableDataGenerator).openStream());
+        ImmutableList.Builder<RepeatableContentProducer> parts = ImmutableList.builder();
+        for (int part = 1; part <= partCount; part++) {
+            Iterable<? extends TpchEntity> tableDataGenerator = table.entity().createGenerator(scaleFactor, part, partCount);
+            parts.add(() -> new TpchEntityByteSource<>(tableDataGenerator).openStream());
+        }
+        return parts.build();
+    }
+
+    @Override
+    public Optional<String> getRevisionMarker()
+    {
+        return Optional.of(format("tpch-%s-%s-%dparts-v%d", table.name(), scaleFactor, partCount, DATA_FORMAT_VERSION));
     }
 
     @Override
@@ -14,8 +14,11 @@
 
 package io.trino.tempto.fulfillment.table.hive.tpch;
 
+import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
 import io.trino.tempto.fulfillment.table.hive.HiveTableDefinition;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 // Table definitions according to: http://www.tpc.org/tpc_documents_current_versions/pdf/tpc-h_v2.17.1.pdf
 // TODO: support for CHAR
 // TODO: move to separate module
@@ -148,5 +151,18 @@ public class TpchTableDefinitions
                     .setDataSource(new TpchDataSource(TpchTable.LINE_ITEM, DEFAULT_SCALE_FACTOR))
                     .build();
 
+    /**
+     * Returns given table definition with data split into {@code partCount} files, which are generated
+     * and uploaded concurrently, e.g. {@code withPartCount(LINE_ITEM, 8)}.
+     */
+    public static HiveTableDefinition withPartCount(HiveTableDefinition tableDefinition, int partCount)
+    {
+        HiveDataSource dataSource = tableDefinition.getDataSource();
+        checkArgument(dataSource instanceof TpchDataSource, "Not a TPC-H table definition: %s", tableDefinition.getName());
+        return HiveTableDefinition.from(tableDefinition)
+                .setDataSource(((TpchDataSource) dataSource).withPartCount(partCount))
+                .build();
+    }
+
     private TpchTableDefinitions() {}
 }
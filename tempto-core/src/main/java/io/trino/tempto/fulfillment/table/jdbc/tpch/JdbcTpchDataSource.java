@@ -15,20 +15,31 @@ package io.trino.tempto.fulfillment.table.jdbc.tpch;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import io.trino.tempto.fulfillment.table.hive.tpch.TpchTable;
 import io.trino.tempto.fulfillment.table.jdbc.RelationalDataSource;
 import io.trino.tempto.internal.query.QueryRowMapper;
+import io.trino.tpch.TpchColumn;
 import io.trino.tpch.TpchEntity;
 
+import java.math.BigDecimal;
+import java.sql.Date;
 import java.sql.JDBCType;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.collect.Streams.stream;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Generates rows of a TPC-H table. Values are read directly from typed accessors of generated entities,
+ * unless some of the column types cannot be mapped from TPC-H column type, in which case each entity
+ * is rendered to a line and its values are parsed from strings.
+ */
 public class JdbcTpchDataSource
         implements RelationalDataSource
 {
@@ -50,16 +61,119 @@ public class JdbcTpchDataSource
     @Override
     public Iterator<List<Object>> getDataRows()
     {
-        return stream(table.entity().createGenerator(scaleFactor, 1, 1))
-                .map(this::tpchEntityToObjects)
-                .iterator();
+        return getDataRows(table.entity());
+    }
+
+    private <E extends TpchEntity> Iterator<List<Object>> getDataRows(io.trino.tpch.TpchTable<E> tpchTable)
+    {
+        Iterator<E> entities = tpchTable.createGenerator(scaleFactor, 1, 1).iterator();
+        Optional<List<ValueReader<E>>> valueReaders = createValueReaders(tpchTable.getColumns());
+        if (!valueReaders.isPresent()) {
+            QueryRowMapper queryRowMapper = new QueryRowMapper(columnTypes);
+            return Iterators.transform(entities, entity -> tpchEntityToObjects(entity, queryRowMapper));
+        }
+
+        List<ValueReader<E>> readers = valueReaders.get();
+        int columnsCount = readers.size();
+        return Iterators.transform(entities, entity -> {
+            // rows are retained by loaders until a batch is loaded, so each row needs its own buffer
+            Object[] values = new Object[columnsCount];
+            for (int column = 0; column < columnsCount; column++) {
+                values[column] = readers.get(column).read(entity);
+            }
+            return Arrays.asList(values);
+        });
+    }
+
+    private <E extends TpchEntity> Optional<List<ValueReader<E>>> createValueReaders(List<TpchColumn<E>> columns)
+    {
+        if (columns.size() != columnTypes.size()) {
+            return Optional.empty();
+        }
+        ImmutableList.Builder<ValueReader<E>> readers = ImmutableList.builder();
+        for (int i = 0; i < columns.size(); i++) {
+            Optional<ValueReader<E>> reader = createValueReader(columns.get(i), columnTypes.get(i));
+            if (!reader.isPresent()) {
+                return Optional.empty();
+            }
+            readers.add(reader.get());
+        }
+        return Optional.of(readers.build());
+    }
+
+    private static <E extends TpchEntity> Optional<ValueReader<E>> createValueReader(TpchColumn<E> column, JDBCType type)
+    {
+        switch (column.getType().getBase()) {
+            case IDENTIFIER:
+                switch (type) {
+                    case BIGINT:
+                        return Optional.of(column::getIdentifier);
+                    case TINYINT:
+                    case SMALLINT:
+                    case INTEGER:
+                        return Optional.of(entity -> Math.toIntExact(column.getIdentifier(entity)));
+                    case DECIMAL:
+                    case NUMERIC:
+                        return Optional.of(entity -> BigDecimal.valueOf(column.getIdentifier(entity)));
+                    default:
+                        return Optional.empty();
+                }
+            case INTEGER:
+                switch (type) {
+                    case TINYINT:
+                    case SMALLINT:
+                    case INTEGER:
+                        return Optional.of(column::getInteger);
+                    case BIGINT:
+                        return Optional.of(entity -> (long) column.getInteger(entity));
+                    case DECIMAL:
+                    case NUMERIC:
+                        return Optional.of(entity -> BigDecimal.valueOf(column.getInteger(entity)));
+                    default:
+                        return Optional.empty();
+                }
+            case DOUBLE:
+                switch (type) {
+                    case REAL:
+                    case FLOAT:
+                    case DOUBLE:
+                        return Optional.of(column::getDouble);
+                    case DECIMAL:
+                    case NUMERIC:
+                        return Optional.of(entity -> BigDecimal.valueOf(column.getDouble(entity)));
+                    default:
+                        return Optional.empty();
+                }
+            case VARCHAR:
+                switch (type) {
+                    case CHAR:
+                    case VARCHAR:
+                    case NVARCHAR:
+                    case LONGVARCHAR:
+                    case LONGNVARCHAR:
+                        return Optional.of(column::getString);
+                    default:
+                        return Optional.empty();
+                }
+            case DATE:
+                if (type == JDBCType.DATE) {
+                    return Optional.of(entity -> Date.valueOf(LocalDate.ofEpochDay(column.getDate(entity))));
+                }
+                return Optional.empty();
+            default:
+                return Optional.empty();
+        }
     }
 
-    private List<Object> tpchEntityToObjects(TpchEntity entity)
+    private static List<Object> tpchEntityToObjects(TpchEntity entity, QueryRowMapper queryRowMapper)
     {
         List<String> columnValues = SPLITTER.splitToList(entity.toLine());
-        QueryRowMapper queryRowMapper = new QueryRowMapper(columnTypes);
         List<String> valuesWithoutFinalBlank = columnValues.subList(0, columnValues.size() - 1);
         return new ArrayList<>(queryRowMapper.mapToRow(valuesWithoutFinalBlank).getValues());
     }
+
+    private interface ValueReader<E extends TpchEntity>
+    {
+        Object read(E entity);
+    }
 }
@@ -15,12 +15,17 @@
 package io.trino.tempto.internal.convention.tabledefinitions;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
 import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
 import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Optional;
 
+import static com.google.common.io.Files.asByteSource;
 import static java.lang.String.format;
 import static java.nio.file.Files.newInputStream;
 
@@ -51,6 +56,28 @@ public class FileBasedHiveDataSource
                 .orElse(ImmutableSet.of());
     }
 
+    @Override
+    public synchronized Optional<String> getRevisionMarker()
+    {
+        if (!tableDefinitionDescriptor.getDataFile().isPresent()) {
+            return Optional.empty();
+        }
+        if (revisionMarker == null) {
+            revisionMarker = computeRevisionMarker(tableDefinitionDescriptor.getDataFile().get());
+        }
+        return Optional.of(revisionMarker);
+    }
+
+    private static String computeRevisionMarker(Path dataFile)
+    {
+        try {
+            return "sha256-" + asByteSource(dataFile.toFile()).hash(Hashing.sha256());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not compute checksum of " + dataFile, e);
+        }
+    }
+
     private RepeatableContentProducer asRepeatableContentProducer(Path dataFile)
     {
         return () -> newInputStream(dataFile);
@@ -15,6 +15,7 @@
 package io.trino.tempto.internal.fulfillment.table;
 
 import com.google.inject.Inject;
+import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.fulfillment.RequirementFulfiller;
 import io.trino.tempto.fulfillment.TestStatus;
 import io.trino.tempto.fulfillment.table.ImmutableTableRequirement;
@@ -26,22 +27,37 @@ import io.trino.tempto.fulfillment.table.TablesState;
 
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
+
 @RequirementFulfiller.SuiteLevelFulfiller
 public class ImmutableTablesFulfiller
         extends TableRequirementFulfiller<ImmutableTableRequirement>
 {
-    @Inject
     public ImmutableTablesFulfiller(TableManagerDispatcher tableManagerDispatcher)
     {
         super(tableManagerDispatcher, ImmutableTableRequirement.class);
     }
 
+    @Inject
+    public ImmutableTablesFulfiller(TableManagerDispatcher tableManagerDispatcher, Configuration configuration)
+    {
+        super(tableManagerDispatcher, configuration, ImmutableTableRequirement.class);
+    }
+
     @Override
     protected TablesState createState(List<TableInstance> tables)
     {
         return new ImmutableTablesState(tables);
     }
 
+    @Override
+    protected void prepareTables(TableManager tableManager, List<ImmutableTableRequirement> tableRequirements)
+    {
+        tableManager.prepareImmutableTables(tableRequirements.stream()
+                .map(ImmutableTableRequirement::getTableDefinition)
+                .collect(toList()));
+    }
+
     @Override
     protected TableInstance createTable(TableManager tableManager, ImmutableTableRequirement tableRequirement)
     {
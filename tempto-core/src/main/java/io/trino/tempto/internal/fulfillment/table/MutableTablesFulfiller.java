@@ -15,6 +15,7 @@
 package io.trino.tempto.internal.fulfillment.table;
 
 import com.google.inject.Inject;
+import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.fulfillment.RequirementFulfiller;
 import io.trino.tempto.fulfillment.TestStatus;
 import io.trino.tempto.fulfillment.table.MutableTableRequirement;
@@ -35,12 +36,17 @@ public class MutableTablesFulfiller
 {
     private MutableTablesState mutableTablesState;
 
-    @Inject
     public MutableTablesFulfiller(TableManagerDispatcher tableManagerDispatcher)
     {
         super(tableManagerDispatcher, MutableTableRequirement.class);
     }
 
+    @Inject
+    public MutableTablesFulfiller(TableManagerDispatcher tableManagerDispatcher, Configuration configuration)
+    {
+        super(tableManagerDispatcher, configuration, MutableTableRequirement.class);
+    }
+
     @Override
     protected TablesState createState(List<TableInstance> tables)
     {
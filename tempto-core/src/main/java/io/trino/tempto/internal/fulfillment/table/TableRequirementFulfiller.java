@@ -14,9 +14,13 @@
 
 package io.trino.tempto.internal.fulfillment.table;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.trino.tempto.Requirement;
+import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.context.State;
+import io.trino.tempto.context.TestContext;
 import io.trino.tempto.fulfillment.RequirementFulfiller;
 import io.trino.tempto.fulfillment.table.TableInstance;
 import io.trino.tempto.fulfillment.table.TableManager;
@@ -25,23 +29,64 @@ import io.trino.tempto.fulfillment.table.TableRequirement;
 import io.trino.tempto.fulfillment.table.TablesState;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.popTestContext;
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.pushTestContext;
+import static io.trino.tempto.context.ThreadLocalTestContextHolder.testContextIfSet;
+import static io.trino.tempto.internal.configuration.EmptyConfiguration.emptyConfiguration;
+import static java.util.Collections.synchronizedMap;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * Creates tables for requirements of given type.
+ * <p>
+ * By default tables are created one after another. Tables of a {@link TableManager} type can be created
+ * concurrently by setting {@code tests.table_managers.<type>.parallelism} for the type, e.g.
+ * {@code tests.table_managers.hive.parallelism: 8}, when its table managers support it with {@link TableManager#fork()}.
+ * Each worker then creates tables with its own fork of the table manager. Tables of different table managers
+ * are created concurrently too.
+ * Stale mutable tables are dropped (and immutable tables are prepared, see {@link TableManager#prepareImmutableTables(List)})
+ * once per table manager before any table is created. If creation of some tables fails,
+ * the failure of the first such table (in requirements order) is thrown, with other failures suppressed.
+ */
 public abstract class TableRequirementFulfiller<T extends TableRequirement>
         implements RequirementFulfiller
 {
     private static final Logger LOGGER = getLogger(TableRequirementFulfiller.class);
 
+    public static final String TABLE_MANAGER_PARALLELISM_KEY = "tests.table_managers.<type>.parallelism";
+
     protected final TableManagerDispatcher tableManagerDispatcher;
+    private final Configuration configuration;
     private final Class<T> requirementClass;
 
     public TableRequirementFulfiller(TableManagerDispatcher tableManagerDispatcher, Class<T> requirementClass)
+    {
+        this(tableManagerDispatcher, emptyConfiguration(), requirementClass);
+    }
+
+    public TableRequirementFulfiller(TableManagerDispatcher tableManagerDispatcher, Configuration configuration, Class<T> requirementClass)
     {
         this.tableManagerDispatcher = tableManagerDispatcher;
+        this.configuration = requireNonNull(configuration, "configuration is null");
         this.requirementClass = requirementClass;
     }
 
@@ -50,16 +95,157 @@ public abstract class TableRequirementFulfiller<T extends TableRequirement>
     {
         LOGGER.debug("fulfilling tables for: " + requirementClass);
 
-        List<TableInstance> tables = requirements.stream()
+        List<T> tableRequirements = requirements.stream()
                 .filter(requirement -> requirement.getClass().isAssignableFrom(requirementClass))
                 .map(requirement -> (T) requirement)
                 .map(requirement -> requirement.copyWithDatabase(getDatabaseName(requirement)))
                 .map(requirement -> (T) requirement)
                 .distinct()
-                .map(this::createTable)
                 .collect(toList());
 
-        return ImmutableSet.of(createState(tables));
+        return ImmutableSet.of(createState(createTables(tableRequirements)));
+    }
+
+    private List<TableInstance> createTables(List<T> tableRequirements)
+    {
+        Map<TableManager, List<T>> requirementsByTableManager = tableRequirements.stream()
+                .collect(groupingBy(this::getTableManager, LinkedHashMap::new, toList()));
+        requirementsByTableManager.keySet().forEach(TableManager::dropStaleMutableTables);
+        requirementsByTableManager.forEach(this::prepareTables);
+
+        Set<TableManager> parallelTableManagers = new HashSet<>();
+        List<Future<?>> workers = new ArrayList<>();
+        Map<T, TableInstance> tables = synchronizedMap(new HashMap<>());
+        Map<T, Throwable> failures = synchronizedMap(new HashMap<>());
+        List<ExecutorService> executors = new ArrayList<>();
+        try {
+            Optional<TestContext> testContext = testContextIfSet();
+            requirementsByTableManager.forEach((tableManager, managerRequirements) -> {
+                int parallelism = Math.min(getParallelism(tableManager), managerRequirements.size());
+                if (parallelism <= 1) {
+                    return;
+                }
+                List<TableManager> forks = fork(tableManager, parallelism);
+                if (forks.isEmpty()) {
+                    LOGGER.warn("Table manager for database {} does not support creating tables concurrently, creating them one after another",
+                            tableManager.getDatabaseName());
+                    return;
+                }
+                ExecutorService executor = newFixedThreadPool(
+                        parallelism,
+                        new ThreadFactoryBuilder()
+                                .setNameFormat("table-fulfiller-" + tableManager.getDatabaseName() + "-%s")
+                                .setDaemon(true)
+                                .build());
+                executors.add(executor);
+                parallelTableManagers.add(tableManager);
+                Queue<T> pendingRequirements = new ConcurrentLinkedQueue<>(managerRequirements);
+                for (TableManager fork : forks) {
+                    workers.add(executor.submit(() -> createTables(fork, pendingRequirements, tables, failures, testContext)));
+                }
+            });
+
+            for (Map.Entry<TableManager, List<T>> entry : requirementsByTableManager.entrySet()) {
+                if (parallelTableManagers.contains(entry.getKey())) {
+                    continue;
+                }
+                for (T requirement : entry.getValue()) {
+                    try {
+                        tables.put(requirement, createTable(entry.getKey(), requirement));
+                    }
+                    catch (RuntimeException | Error e) {
+                        failures.put(requirement, e);
+                        break;
+                    }
+                }
+            }
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while creating tables", e);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException("Failed to create tables", e.getCause());
+        }
+        finally {
+            executors.forEach(ExecutorService::shutdownNow);
+        }
+
+        List<Throwable> orderedFailures = tableRequirements.stream()
+                .filter(failures::containsKey)
+                .map(failures::get)
+                .collect(toList());
+        if (!orderedFailures.isEmpty()) {
+            Throwable failure = orderedFailures.get(0);
+            orderedFailures.subList(1, orderedFailures.size()).forEach(failure::addSuppressed);
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new RuntimeException(failure);
+        }
+
+        return tableRequirements.stream()
+                .map(tables::get)
+                .collect(toList());
+    }
+
+    private static List<TableManager> fork(TableManager tableManager, int count)
+    {
+        List<TableManager> forks = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                Optional<TableManager> fork = tableManager.fork();
+                if (!fork.isPresent()) {
+                    forks.forEach(TableManager::close);
+                    return ImmutableList.of();
+                }
+                forks.add(fork.get());
+            }
+        }
+        catch (RuntimeException | Error e) {
+            forks.forEach(TableManager::close);
+            throw e;
+        }
+        return forks;
+    }
+
+    /**
+     * Creates tables with given fork until there are no pending requirements left, then closes the fork.
+     */
+    private void createTables(TableManager fork, Queue<T> pendingRequirements, Map<T, TableInstance> tables, Map<T, Throwable> failures, Optional<TestContext> testContext)
+    {
+        testContext.ifPresent(context -> pushTestContext(context));
+        try (TableManager tableManager = fork) {
+            T requirement;
+            while ((requirement = pendingRequirements.poll()) != null) {
+                try {
+                    tables.put(requirement, createTable(tableManager, requirement));
+                }
+                catch (RuntimeException | Error e) {
+                    failures.put(requirement, e);
+                }
+            }
+        }
+        finally {
+            testContext.ifPresent(context -> popTestContext());
+        }
+    }
+
+    private int getParallelism(TableManager tableManager)
+    {
+        TableManager.Descriptor descriptor = tableManager.getClass().getAnnotation(TableManager.Descriptor.class);
+        if (descriptor == null) {
+            return 1;
+        }
+        String key = TABLE_MANAGER_PARALLELISM_KEY.replace("<type>", descriptor.type().toLowerCase(ENGLISH));
+        return configuration.getInt(key).orElse(1);
     }
 
     private String getDatabaseName(T requirement)
@@ -69,16 +255,16 @@ public abstract class TableRequirementFulfiller<T extends TableRequirement>
 
     protected abstract TablesState createState(List<TableInstance> tables);
 
-    private TableInstance createTable(T tableRequirement)
+    private TableManager getTableManager(T tableRequirement)
     {
-        TableManager tableManager = getTableManager(tableRequirement);
-        tableManager.dropStaleMutableTables();
-        return createTable(tableManager, tableRequirement);
+        return tableManagerDispatcher.getTableManagerFor(tableRequirement.getTableDefinition(), tableRequirement.getTableHandle());
     }
 
-    private TableManager getTableManager(T tableRequirement)
+    /**
+     * Called once per table manager with all its requirements, before any of the tables is created.
+     */
+    protected void prepareTables(TableManager tableManager, List<T> tableRequirements)
     {
-        return tableManagerDispatcher.getTableManagerFor(tableRequirement.getTableDefinition(), tableRequirement.getTableHandle());
     }
 
     protected abstract TableInstance createTable(TableManager tableManager, T tableRequirement);
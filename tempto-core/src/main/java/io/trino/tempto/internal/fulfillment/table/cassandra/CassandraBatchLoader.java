@@ -14,38 +14,71 @@
 package io.trino.tempto.internal.fulfillment.table.cassandra;
 
 import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 
+import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 
+/**
+ * Inserts rows with asynchronous requests, keeping at most {@code maxInFlightRequests} of them running.
+ * Rows are grouped by replicas owning their partition key, so a batch never spans token ranges
+ * owned by different nodes and can be routed by token aware load balancing policy.
+ */
 public class CassandraBatchLoader
 {
+    private static final Set<Host> UNKNOWN_REPLICAS = ImmutableSet.of();
+
     private final Session session;
-    private final String insertQuery;
+    private final PreparedStatement statement;
     private final int columnsCount;
     private final int batchRowsCount;
+    private final int maxInFlightRequests;
 
     public CassandraBatchLoader(Session session, String tableName, List<String> columnNames, int batchRowsCount)
+    {
+        this(session, session.prepare(createInsertQuery(tableName, columnNames)), columnNames.size(), batchRowsCount, 1);
+    }
+
+    public CassandraBatchLoader(Session session, PreparedStatement statement, int columnsCount, int batchRowsCount, int maxInFlightRequests)
     {
         this.session = requireNonNull(session, "session is null");
-        requireNonNull(tableName, "tableName is null");
-        requireNonNull(columnNames, "columnNames is null");
-        this.insertQuery = createInsertQuery(tableName, columnNames);
-        this.columnsCount = columnNames.size();
+        this.statement = requireNonNull(statement, "statement is null");
+        this.columnsCount = columnsCount;
         checkArgument(batchRowsCount > 0, "batchRowsCount must be greater then zero");
         this.batchRowsCount = batchRowsCount;
+        checkArgument(maxInFlightRequests > 0, "maxInFlightRequests must be greater then zero");
+        this.maxInFlightRequests = maxInFlightRequests;
     }
 
-    private static String createInsertQuery(String tableName, List<String> columnNames)
+    public static String createInsertQuery(String tableName, List<String> columnNames)
     {
+        requireNonNull(tableName, "tableName is null");
+        requireNonNull(columnNames, "columnNames is null");
         return format("INSERT INTO %s (%s) VALUES(%s)",
                 tableName,
                 columnNames.stream().collect(joining(",")),
@@ -65,24 +98,89 @@ public class CassandraBatchLoader
 
     public void load(Iterator<List<Object>> rows)
     {
-        PreparedStatement statement = session.prepare(insertQuery);
+        Metadata metadata = session.getCluster().getMetadata();
+        ProtocolVersion protocolVersion = session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion();
+        CodecRegistry codecRegistry = session.getCluster().getConfiguration().getCodecRegistry();
 
-        BatchStatement batch = createBatchStatement();
-        while (rows.hasNext()) {
-            if (batch.size() >= batchRowsCount) {
-                session.execute(batch);
-                batch = createBatchStatement();
+        Semaphore inFlightRequests = new Semaphore(maxInFlightRequests);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Map<Set<Host>, BatchStatement> batches = new HashMap<>();
+        try {
+            while (rows.hasNext() && failure.get() == null) {
+                List<Object> row = rows.next();
+                checkState(row.size() == columnsCount, "values count in a row is expected to be %d, but found: %d", columnsCount, row.size());
+                BoundStatement boundStatement = statement.bind(row.toArray());
+
+                Set<Host> replicas = UNKNOWN_REPLICAS;
+                ByteBuffer routingKey = boundStatement.getRoutingKey(protocolVersion, codecRegistry);
+                // keyspace of the bound columns; the query keyspace is only set when the session is connected to a keyspace
+                String keyspace = boundStatement.getKeyspace();
+                if (routingKey != null && keyspace != null) {
+                    replicas = metadata.getReplicas(Metadata.quote(keyspace), routingKey);
+                }
+
+                BatchStatement batch = batches.computeIfAbsent(replicas, key -> createBatchStatement());
+                batch.add(boundStatement);
+                if (batch.size() >= batchRowsCount) {
+                    batches.remove(replicas);
+                    executeAsync(batch, inFlightRequests, failure);
+                }
+            }
+            for (BatchStatement batch : batches.values()) {
+                if (failure.get() != null) {
+                    break;
+                }
+                executeAsync(batch, inFlightRequests, failure);
             }
-            List<Object> row = rows.next();
-            checkState(row.size() == columnsCount, "values count in a row is expected to be %d, but found: %d", columnsCount, row.size());
-            batch.add(statement.bind(row.toArray()));
+            // wait for all running requests
+            inFlightRequests.acquire(maxInFlightRequests);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading data", e);
         }
 
-        if (batch.size() > 0) {
-            session.execute(batch);
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause != null) {
+            throw new RuntimeException(cause);
         }
     }
 
+    private void executeAsync(BatchStatement batch, Semaphore inFlightRequests, AtomicReference<Throwable> failure)
+            throws InterruptedException
+    {
+        // single row batches are sent as plain statements, there is no point in batch overhead
+        Statement request = batch.size() == 1 ? batch.getStatements().iterator().next() : batch;
+
+        inFlightRequests.acquire();
+        ResultSetFuture future;
+        try {
+            future = session.executeAsync(request);
+        }
+        catch (RuntimeException e) {
+            inFlightRequests.release();
+            throw e;
+        }
+        Futures.addCallback(future, new FutureCallback<ResultSet>()
+        {
+            @Override
+            public void onSuccess(ResultSet result)
+            {
+                inFlightRequests.release();
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                failure.compareAndSet(null, t);
+                inFlightRequests.release();
+            }
+        }, directExecutor());
+    }
+
     private static BatchStatement createBatchStatement()
     {
         return new BatchStatement(BatchStatement.Type.UNLOGGED);
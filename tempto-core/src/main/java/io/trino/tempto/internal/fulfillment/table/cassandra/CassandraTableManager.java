@@ -13,6 +13,8 @@
  */
 package io.trino.tempto.internal.fulfillment.table.cassandra;
 
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
 import com.google.inject.Inject;
 import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.fulfillment.table.MutableTableRequirement;
@@ -31,7 +33,9 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.google.common.base.Preconditions.checkState;
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.CREATED;
@@ -55,6 +59,8 @@ public class CassandraTableManager
     private final String defaultKeySpace;
     private final boolean skipCreateSchema;
     private final int insertBatchRowsCount;
+    private final int insertMaxInFlightRequests;
+    private final Map<String, PreparedStatement> insertStatements = new ConcurrentHashMap<>();
 
     @Inject
     public CassandraTableManager(
@@ -68,6 +74,7 @@ public class CassandraTableManager
         this.defaultKeySpace = configuration.getStringMandatory("databases." + databaseName + ".default_schema");
         this.skipCreateSchema = configuration.getBoolean("databases." + databaseName + ".skip_create_schema").orElse(false);
         this.insertBatchRowsCount = configuration.getInt("databases." + databaseName + ".insert_batch_rows_count").orElse(10);
+        this.insertMaxInFlightRequests = configuration.getInt("databases." + databaseName + ".insert_max_in_flight_requests").orElse(32);
     }
 
     @Override
@@ -99,7 +106,11 @@ public class CassandraTableManager
 
         List<String> columnNames = queryExecutor.get().getColumnNames(tableName.getSchema().get(), tableName.getSchemalessNameInDatabase());
 
-        CassandraBatchLoader loader = new CassandraBatchLoader(queryExecutor.get().getSession(), tableName.getNameInDatabase(), columnNames, insertBatchRowsCount);
+        Session session = queryExecutor.get().getSession();
+        PreparedStatement insertStatement = insertStatements.computeIfAbsent(
+                tableName.getNameInDatabase(),
+                table -> session.prepare(CassandraBatchLoader.createInsertQuery(table, columnNames)));
+        CassandraBatchLoader loader = new CassandraBatchLoader(session, insertStatement, columnNames.size(), insertBatchRowsCount, insertMaxInFlightRequests);
         loader.load(dataSource.getDataRows());
     }
 
@@ -136,11 +147,12 @@ public class CassandraTableManager
     @Override
     public void dropTable(TableName tableName)
     {
-        executeQueryIgnoreTypeError("DROP TABLE " + tableName.getNameInDatabase());
+        dropTable(tableName.getNameInDatabase());
     }
 
     public void dropTable(String tableName)
     {
+        insertStatements.remove(tableName);
         executeQueryIgnoreTypeError("DROP TABLE " + tableName);
     }
 
@@ -202,6 +214,7 @@ public class CassandraTableManager
 
     public void close()
     {
+        insertStatements.clear();
         queryExecutor.lazyGet().ifPresent(CassandraQueryExecutor::close);
     }
 }
@@ -13,6 +13,7 @@
  */
 package io.trino.tempto.internal.fulfillment.table.hive;
 
+import com.google.common.util.concurrent.Striped;
 import com.google.inject.Inject;
 import io.trino.tempto.fulfillment.table.MutableTableRequirement.State;
 import io.trino.tempto.fulfillment.table.TableDefinition;
@@ -24,6 +25,7 @@ import io.trino.tempto.internal.fulfillment.table.AbstractTableManager;
 import io.trino.tempto.internal.fulfillment.table.TableName;
 import io.trino.tempto.internal.fulfillment.table.TableNameGenerator;
 import io.trino.tempto.internal.hadoop.hdfs.HdfsDataSourceWriter;
+import io.trino.tempto.query.JdbcQueryExecutor;
 import io.trino.tempto.query.QueryExecutor;
 import io.trino.tempto.query.QueryResult;
 import org.slf4j.Logger;
@@ -35,6 +37,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -56,13 +59,18 @@ public class HiveTableManager
 {
     private static final Logger LOGGER = getLogger(HiveTableManager.class);
 
+    private static final int TABLE_DATA_PATH_LOCK_STRIPES = 64;
+
     private final QueryExecutor queryExecutor;
     private final HdfsDataSourceWriter hdfsDataSourceWriter;
+    private final TableNameGenerator tableNameGenerator;
     private final String testDataBasePath;
     private final HiveThriftClient hiveThriftClient;
     private final String databaseName;
     private final boolean injectStatsForImmutableTables;
     private final boolean injectStatsForMutableTables;
+    // shared with forks, so data of tables with the same data source is not written concurrently
+    private final Striped<Lock> tableDataPathLocks;
 
     @Inject
     public HiveTableManager(
@@ -96,15 +104,62 @@ public class HiveTableManager
             String databaseName,
             boolean injectStatsForImmutableTables,
             boolean injectStatsForMutableTables)
+    {
+        this(
+                queryExecutor,
+                hdfsDataSourceWriter,
+                tableNameGenerator,
+                hiveThriftClient,
+                testDataBasePath,
+                databaseName,
+                injectStatsForImmutableTables,
+                injectStatsForMutableTables,
+                Striped.lock(TABLE_DATA_PATH_LOCK_STRIPES));
+    }
+
+    private HiveTableManager(
+            QueryExecutor queryExecutor,
+            HdfsDataSourceWriter hdfsDataSourceWriter,
+            TableNameGenerator tableNameGenerator,
+            HiveThriftClient hiveThriftClient,
+            String testDataBasePath,
+            String databaseName,
+            boolean injectStatsForImmutableTables,
+            boolean injectStatsForMutableTables,
+            Striped<Lock> tableDataPathLocks)
     {
         super(queryExecutor, tableNameGenerator);
         this.hiveThriftClient = hiveThriftClient;
         this.databaseName = databaseName;
         this.queryExecutor = checkNotNull(queryExecutor, "queryExecutor is null");
         this.hdfsDataSourceWriter = checkNotNull(hdfsDataSourceWriter, "hdfsDataSourceWriter is null");
+        this.tableNameGenerator = checkNotNull(tableNameGenerator, "tableNameGenerator is null");
         this.testDataBasePath = checkNotNull(testDataBasePath, "testDataBasePath is null");
         this.injectStatsForImmutableTables = injectStatsForImmutableTables;
         this.injectStatsForMutableTables = injectStatsForMutableTables;
+        this.tableDataPathLocks = checkNotNull(tableDataPathLocks, "tableDataPathLocks is null");
+    }
+
+    /**
+     * Returns a table manager with its own JDBC connection and metastore client. Writing data of tables
+     * stored in the same HDFS path is serialized between this table manager and its forks.
+     */
+    @Override
+    public Optional<TableManager<HiveTableDefinition>> fork()
+    {
+        if (!(queryExecutor instanceof JdbcQueryExecutor)) {
+            return Optional.empty();
+        }
+        return Optional.of(new HiveTableManager(
+                ((JdbcQueryExecutor) queryExecutor).fork(),
+                hdfsDataSourceWriter,
+                tableNameGenerator,
+                hiveThriftClient.newClient(),
+                testDataBasePath,
+                databaseName,
+                injectStatsForImmutableTables,
+                injectStatsForMutableTables,
+                tableDataPathLocks));
     }
 
     @Override
@@ -196,7 +251,14 @@ public class HiveTableManager
 
     private void uploadTableData(String tableDataPath, HiveDataSource dataSource)
     {
-        hdfsDataSourceWriter.ensureDataOnHdfs(tableDataPath, dataSource);
+        Lock lock = tableDataPathLocks.get(tableDataPath);
+        lock.lock();
+        try {
+            hdfsDataSourceWriter.ensureDataOnHdfs(tableDataPath, dataSource);
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     private String getImmutableTableHdfsPath(HiveDataSource dataSource)
@@ -218,6 +218,14 @@ public class HiveThriftClient
         return hiveColumnStatistics;
     }
 
+    /**
+     * Returns a client of the same metastore with its own connection.
+     */
+    HiveThriftClient newClient()
+    {
+        return new HiveThriftClient(thriftHost, thriftPort);
+    }
+
     @Override
     public void close()
     {
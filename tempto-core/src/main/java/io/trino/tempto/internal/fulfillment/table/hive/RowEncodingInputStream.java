@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.fulfillment.table.hive;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Input stream serving bytes of rows which are encoded on demand, block by block,
+ * into a reusable buffer.
+ */
+public abstract class RowEncodingInputStream
+        extends InputStream
+{
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private byte[] buffer = new byte[BLOCK_SIZE];
+    private int position;
+    private int size;
+    private boolean finished;
+
+    /**
+     * Encodes next row with {@link #write(int)} and {@link #write(CharSequence)}.
+     *
+     * @return false if there are no more rows
+     */
+    protected abstract boolean writeNextRow();
+
+    protected final void write(int value)
+    {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    protected final void write(CharSequence chars)
+    {
+        int length = chars.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c >= 0x80) {
+                writeUtf8(chars.subSequence(i, length));
+                return;
+            }
+            buffer[size++] = (byte) c;
+        }
+    }
+
+    private void writeUtf8(CharSequence chars)
+    {
+        byte[] bytes = chars.toString().getBytes(UTF_8);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    @Override
+    public int read()
+    {
+        if (!ensureData()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length)
+    {
+        checkPositionIndexes(offset, offset + length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureData()) {
+            return -1;
+        }
+        int count = Math.min(length, size - position);
+        System.arraycopy(buffer, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available()
+    {
+        return size - position;
+    }
+
+    private boolean ensureData()
+    {
+        if (position < size) {
+            return true;
+        }
+        position = 0;
+        size = 0;
+        while (!finished && size < BLOCK_SIZE) {
+            finished = !writeNextRow();
+        }
+        return size > 0;
+    }
+
+    private void ensureCapacity(int length)
+    {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(size + length, buffer.length * 2));
+        }
+    }
+}
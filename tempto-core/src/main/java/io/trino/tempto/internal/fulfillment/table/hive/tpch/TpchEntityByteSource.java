@@ -15,6 +15,7 @@
 package io.trino.tempto.internal.fulfillment.table.hive.tpch;
 
 import com.google.common.io.ByteSource;
+import io.trino.tempto.internal.fulfillment.table.hive.RowEncodingInputStream;
 import io.trino.tpch.TpchEntity;
 
 import java.io.InputStream;
@@ -44,37 +45,28 @@ public class TpchEntityByteSource<T extends TpchEntity>
     }
 
     private static class IterableTpchEntityInputStream<T extends TpchEntity>
-            extends InputStream
+            extends RowEncodingInputStream
     {
         private final Iterator<T> rowIterator;
-        private CharSequence currentLine;
-        private int currentReadLineIndex;
-        private boolean newLinePrinted = true;
+        private boolean firstRow = true;
 
         public IterableTpchEntityInputStream(Iterable<T> iterable)
         {
             this.rowIterator = iterable.iterator();
         }
 
-        // TODO: implement read(byte[]) if this is slow
         @Override
-        public int read()
+        protected boolean writeNextRow()
         {
-            if (currentLine == null || currentReadLineIndex >= currentLine.length()) {
-                if (rowIterator.hasNext()) {
-                    newLinePrinted = currentLine == null;
-                    currentReadLineIndex = 0;
-                    currentLine = rowIterator.next().toLine();
-                }
-                else {
-                    return -1;
-                }
+            if (!rowIterator.hasNext()) {
+                return false;
             }
-            if (!newLinePrinted) {
-                newLinePrinted = true;
-                return '\n';
+            if (!firstRow) {
+                write('\n');
             }
-            return currentLine.charAt(currentReadLineIndex++);
+            firstRow = false;
+            write(rowIterator.next().toLine());
+            return true;
         }
     }
 }
@@ -40,14 +40,18 @@ class BatchLoader
         String sql = String.format("INSERT INTO %s VALUES (%s)", tableName, questionMarks);
 
         // Test whether driver supports PreparedStatement and PreparedStatement#addBatch
-        try (PreparedStatement prepareStatement = queryExecutor.getConnection().prepareStatement(sql)) {
+        preparedStatement = queryExecutor.getConnection().prepareStatement(sql);
+        try {
             for (int i = 0; i < columnsCount; i++) {
-                prepareStatement.setNull(i + 1, Types.NULL);
+                preparedStatement.setNull(i + 1, Types.NULL);
             }
-            prepareStatement.addBatch();
+            preparedStatement.addBatch();
+            preparedStatement.clearBatch();
+        }
+        catch (SQLException | RuntimeException e) {
+            preparedStatement.close();
+            throw e;
         }
-
-        preparedStatement = queryExecutor.getConnection().prepareStatement(sql);
         this.columnsCount = columnsCount;
     }
 
@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.fulfillment.table.jdbc;
+
+import com.google.common.io.BaseEncoding;
+import io.trino.tempto.query.QueryExecutor;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import static io.trino.tempto.internal.fulfillment.table.jdbc.LoaderFactory.findDriverClass;
+import static io.trino.tempto.internal.fulfillment.table.jdbc.LoaderFactory.getDatabaseProductName;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Loads rows with PostgreSQL {@code COPY FROM STDIN}. The driver's copy API is accessed
+ * through reflection, as the PostgreSQL driver is not a dependency of tempto.
+ */
+class CopyLoader
+        implements Loader
+{
+    private static final String PG_CONNECTION_CLASS = "org.postgresql.PGConnection";
+
+    private final Object copyManager;
+    private final Method copyIn;
+    private final String copySql;
+    private final int columnsCount;
+
+    static Optional<Loader> create(QueryExecutor queryExecutor, String tableName, List<JDBCType> columnTypes)
+            throws SQLException
+    {
+        if (!getDatabaseProductName(queryExecutor).equals("PostgreSQL")) {
+            return Optional.empty();
+        }
+        Connection connection = queryExecutor.getConnection();
+        Optional<Class<?>> pgConnectionClass = findDriverClass(connection, PG_CONNECTION_CLASS);
+        if (!pgConnectionClass.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            Method getCopyApi = pgConnectionClass.get().getMethod("getCopyAPI");
+            Object copyManager = getCopyApi.invoke(connection.unwrap(pgConnectionClass.get()));
+            Method copyIn = getCopyApi.getReturnType().getMethod("copyIn", String.class, Reader.class);
+            return Optional.of(new CopyLoader(copyManager, copyIn, tableName, columnTypes.size()));
+        }
+        catch (ReflectiveOperationException e) {
+            throw new SQLException("Unable to access PostgreSQL copy API", e);
+        }
+    }
+
+    private CopyLoader(Object copyManager, Method copyIn, String tableName, int columnsCount)
+    {
+        this.copyManager = requireNonNull(copyManager, "copyManager is null");
+        this.copyIn = requireNonNull(copyIn, "copyIn is null");
+        this.copySql = format("COPY %s FROM STDIN", requireNonNull(tableName, "tableName is null"));
+        this.columnsCount = columnsCount;
+    }
+
+    @Override
+    public void load(List<List<Object>> batch)
+            throws SQLException
+    {
+        if (batch.isEmpty()) {
+            return;
+        }
+        String rows = DelimitedTextRows.encode(batch, columnsCount, CopyLoader::formatValue);
+        long copiedRows;
+        try {
+            copiedRows = (long) copyIn.invoke(copyManager, copySql, new StringReader(rows));
+        }
+        catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("COPY failed", e.getCause());
+        }
+        catch (IllegalAccessException e) {
+            throw new SQLException("Unable to access PostgreSQL copy API", e);
+        }
+        if (copiedRows != batch.size()) {
+            throw new SQLException(format("Expected to copy %s rows, but copied %s", batch.size(), copiedRows));
+        }
+    }
+
+    private static String formatValue(Object value)
+    {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "t" : "f";
+        }
+        if (value instanceof byte[]) {
+            return "\\x" + BaseEncoding.base16().lowerCase().encode((byte[]) value);
+        }
+        return value.toString();
+    }
+
+    @Override
+    public void close()
+    {}
+}
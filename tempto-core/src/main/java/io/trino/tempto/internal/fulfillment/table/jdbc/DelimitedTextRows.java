@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table.jdbc;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Encodes rows in the tab separated text format understood by PostgreSQL {@code COPY}
+ * and MySQL {@code LOAD DATA} with default options.
+ */
+final class DelimitedTextRows
+{
+    private static final String NULL = "\\N";
+
+    private DelimitedTextRows() {}
+
+    static String encode(List<List<Object>> rows, int columnsCount, Function<Object, String> formatter)
+    {
+        StringBuilder text = new StringBuilder(rows.size() * columnsCount * 8);
+        for (List<Object> row : rows) {
+            checkArgument(row.size() == columnsCount, "Unexpected columns count: %s vs %s", row.size(), columnsCount);
+            for (int column = 0; column < columnsCount; column++) {
+                if (column > 0) {
+                    text.append('\t');
+                }
+                Object value = row.get(column);
+                if (value == null) {
+                    text.append(NULL);
+                }
+                else {
+                    appendEscaped(text, formatter.apply(value));
+                }
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void appendEscaped(StringBuilder text, String value)
+    {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    text.append("\\\\");
+                    break;
+                case '\t':
+                    text.append("\\t");
+                    break;
+                case '\n':
+                    text.append("\\n");
+                    break;
+                case '\r':
+                    text.append("\\r");
+                    break;
+                default:
+                    text.append(c);
+            }
+        }
+    }
+}
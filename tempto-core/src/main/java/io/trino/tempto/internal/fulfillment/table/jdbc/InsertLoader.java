@@ -81,8 +81,19 @@ class InsertLoader
         switch (jdbcType) {
             case VARCHAR:
             case CHAR:
+            case LONGVARCHAR:
+            case NVARCHAR:
+            case NCHAR:
             case LONGNVARCHAR:
-                return "'" + o.toString() + "'";
+                return "'" + o.toString().replace("'", "''") + "'";
+            case BOOLEAN:
+                return o.toString();
+            case DATE:
+                return "DATE '" + o + "'";
+            case TIME:
+                return "TIME '" + o + "'";
+            case TIMESTAMP:
+                return "TIMESTAMP '" + o + "'";
             case TINYINT:
             case SMALLINT:
             case INTEGER:
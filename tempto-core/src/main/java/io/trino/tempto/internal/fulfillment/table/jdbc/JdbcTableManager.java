@@ -26,6 +26,7 @@ import io.trino.tempto.fulfillment.table.jdbc.RelationalTableDefinition;
 import io.trino.tempto.internal.fulfillment.table.AbstractTableManager;
 import io.trino.tempto.internal.fulfillment.table.TableName;
 import io.trino.tempto.internal.fulfillment.table.TableNameGenerator;
+import io.trino.tempto.query.JdbcQueryExecutor;
 import io.trino.tempto.query.QueryExecutionException;
 import io.trino.tempto.query.QueryExecutor;
 import io.trino.tempto.query.QueryResult;
@@ -40,6 +41,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -187,8 +189,20 @@ public class JdbcTableManager
         if (!dataRows.hasNext()) {
             return;
         }
-        try (Loader loader = new LoaderFactory().create(queryExecutor, tableName.getNameInDatabase())) {
-            for (List<List<Object>> batch : partitionBy(dataRows, BATCH_SIZE)) {
+        String tableLoader = configuration.getString("databases." + databaseName + ".table_loader").orElse(LoaderFactory.AUTO);
+        LoaderFactory loaderFactory = new LoaderFactory(tableLoader);
+        int workers = getTableLoadProperty(tableName, "table_load_workers").orElse(1);
+        int batchSize = getTableLoadProperty(tableName, "table_load_batch_size").orElse(BATCH_SIZE);
+
+        if (workers > 1 && queryExecutor instanceof JdbcQueryExecutor) {
+            LOGGER.debug("loading table {} with {} workers", tableName, workers);
+            new ParallelLoader((JdbcQueryExecutor) queryExecutor, loaderFactory, tableName.getNameInDatabase(), workers, batchSize)
+                    .load(dataRows);
+            return;
+        }
+
+        try (Loader loader = loaderFactory.create(queryExecutor, tableName.getNameInDatabase())) {
+            for (List<List<Object>> batch : partitionBy(dataRows, batchSize)) {
                 loader.load(batch);
             }
         }
@@ -197,6 +211,21 @@ public class JdbcTableManager
         }
     }
 
+    /**
+     * Returns property set for the table in {@code databases.<database>.tables.<table>} or,
+     * if not set, for all tables of the database in {@code databases.<database>}.
+     */
+    private Optional<Integer> getTableLoadProperty(TableName tableName, String property)
+    {
+        String databasePrefix = "databases." + databaseName + ".";
+        Optional<Integer> value = configuration.getInt(databasePrefix + "tables." + tableName.getName() + "." + property);
+        if (!value.isPresent()) {
+            value = configuration.getInt(databasePrefix + property);
+        }
+        value.ifPresent(v -> checkArgument(v > 0, "%s must be greater than 0 for table %s: %s", property, tableName.getName(), v));
+        return value;
+    }
+
     public static Iterable<List<List<Object>>> partitionBy(Iterator<List<Object>> dataRows, int partitionSize)
     {
         return () -> new Iterator<List<List<Object>>>()
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.fulfillment.table.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import io.trino.tempto.query.QueryExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.JDBCType;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.trino.tempto.internal.fulfillment.table.jdbc.LoaderFactory.findDriverClass;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.sql.JDBCType.BINARY;
+import static java.sql.JDBCType.BLOB;
+import static java.sql.JDBCType.LONGVARBINARY;
+import static java.sql.JDBCType.VARBINARY;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Loads rows with MySQL {@code LOAD DATA LOCAL INFILE}, streaming them from memory. It requires
+ * {@code allowLoadLocalInfile=true} in the MySQL connection url, or {@code allowLocalInfile=true} in the MariaDB one.
+ */
+class LoadDataLoader
+        implements Loader
+{
+    // statement classes of MySQL Connector/J 8.x, 5.x and MariaDB Connector/J, which allow to set the input stream
+    private static final List<String> LOCAL_INFILE_STATEMENT_CLASSES = ImmutableList.of(
+            "com.mysql.cj.jdbc.JdbcStatement",
+            "com.mysql.jdbc.Statement",
+            "org.mariadb.jdbc.MariaDbStatement");
+    private static final Set<JDBCType> BINARY_TYPES = EnumSet.of(BINARY, VARBINARY, LONGVARBINARY, BLOB);
+
+    private final Connection connection;
+    private final String loadDataSql;
+    private final int columnsCount;
+
+    static Optional<Loader> create(QueryExecutor queryExecutor, String tableName, List<JDBCType> columnTypes)
+            throws SQLException
+    {
+        DatabaseMetaData metaData = queryExecutor.getConnection().getMetaData();
+        String url = metaData.getURL().toLowerCase(ENGLISH);
+        boolean localInfileAllowed;
+        switch (metaData.getDatabaseProductName()) {
+            case "MySQL":
+                localInfileAllowed = url.contains("allowloadlocalinfile=true");
+                break;
+            case "MariaDB":
+                localInfileAllowed = url.contains("allowlocalinfile=true");
+                break;
+            default:
+                localInfileAllowed = false;
+        }
+        if (!localInfileAllowed || columnTypes.stream().anyMatch(BINARY_TYPES::contains)) {
+            return Optional.empty();
+        }
+        return Optional.of(new LoadDataLoader(queryExecutor.getConnection(), tableName, columnTypes.size()));
+    }
+
+    private LoadDataLoader(Connection connection, String tableName, int columnsCount)
+    {
+        this.connection = requireNonNull(connection, "connection is null");
+        this.loadDataSql = format("LOAD DATA LOCAL INFILE 'tempto' INTO TABLE %s CHARACTER SET utf8mb4", requireNonNull(tableName, "tableName is null"));
+        this.columnsCount = columnsCount;
+    }
+
+    @Override
+    public void load(List<List<Object>> batch)
+            throws SQLException
+    {
+        if (batch.isEmpty()) {
+            return;
+        }
+        byte[] rows = DelimitedTextRows.encode(batch, columnsCount, LoadDataLoader::formatValue).getBytes(UTF_8);
+        try (Statement statement = connection.createStatement()) {
+            setLocalInfileInputStream(statement, new ByteArrayInputStream(rows));
+            int loadedRows = statement.executeUpdate(loadDataSql);
+            if (loadedRows != batch.size()) {
+                throw new SQLException(format("Expected to load %s rows, but loaded %s", batch.size(), loadedRows));
+            }
+        }
+    }
+
+    private static void setLocalInfileInputStream(Statement statement, InputStream inputStream)
+            throws SQLException
+    {
+        for (String className : LOCAL_INFILE_STATEMENT_CLASSES) {
+            Optional<Class<?>> statementClass = findDriverClass(statement, className);
+            if (statementClass.isPresent()) {
+                try {
+                    statementClass.get().getMethod("setLocalInfileInputStream", InputStream.class)
+                            .invoke(statement.unwrap(statementClass.get()), inputStream);
+                    return;
+                }
+                catch (InvocationTargetException e) {
+                    throw new SQLException("Unable to set LOAD DATA input stream", e.getCause());
+                }
+                catch (ReflectiveOperationException e) {
+                    throw new SQLException("Unable to set LOAD DATA input stream", e);
+                }
+            }
+        }
+        throw new SQLException("Driver does not support LOAD DATA from input stream: " + statement.getClass().getName());
+    }
+
+    private static String formatValue(Object value)
+    {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "1" : "0";
+        }
+        return value.toString();
+    }
+
+    @Override
+    public void close()
+    {}
+}
@@ -11,33 +11,131 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package io.trino.tempto.internal.fulfillment.table.jdbc;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.trino.tempto.query.QueryExecutor;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.apache.commons.dbcp2.DelegatingStatement;
 import org.slf4j.Logger;
 
 import java.sql.JDBCType;
 import java.sql.SQLException;
+import java.sql.Wrapper;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * Creates {@link Loader}s using strategy configured for a database. The {@value #AUTO} strategy uses batched
+ * inserts, falling back to single inserts. Bulk loaders ({@code copy}, {@code load_data} and {@code multi_row_insert})
+ * are used only when they are configured explicitly.
+ */
 class LoaderFactory
 {
+    static final String AUTO = "auto";
+
     private static final Logger LOGGER = getLogger(LoaderFactory.class);
 
+    private static final Map<String, LoaderProvider> LOADER_PROVIDERS = ImmutableMap.<String, LoaderProvider>builder()
+            .put("copy", CopyLoader::create)
+            .put("load_data", LoadDataLoader::create)
+            .put("multi_row_insert", MultiRowInsertLoader::create)
+            .put("batch", (queryExecutor, tableName, columnTypes) -> Optional.of(new BatchLoader(queryExecutor, tableName, columnTypes.size())))
+            .put("insert", (queryExecutor, tableName, columnTypes) -> Optional.of(new InsertLoader(queryExecutor, tableName, columnTypes)))
+            .build();
+    private static final List<String> AUTO_LOADERS = ImmutableList.of("batch", "insert");
+
+    private final String loaderName;
+
+    LoaderFactory()
+    {
+        this(AUTO);
+    }
+
+    LoaderFactory(String loaderName)
+    {
+        this.loaderName = requireNonNull(loaderName, "loaderName is null");
+        checkArgument(loaderName.equals(AUTO) || LOADER_PROVIDERS.containsKey(loaderName),
+                "Unknown table loader: %s, supported loaders: %s, %s", loaderName, AUTO, LOADER_PROVIDERS.keySet());
+    }
+
     Loader create(QueryExecutor queryExecutor, String tableName)
             throws SQLException
     {
         List<JDBCType> columnTypes = queryExecutor.executeQuery("SELECT * FROM " + tableName + " WHERE 1=2").getColumnTypes();
 
+        if (!loaderName.equals(AUTO)) {
+            Optional<Loader> loader = LOADER_PROVIDERS.get(loaderName).create(queryExecutor, tableName, columnTypes);
+            if (!loader.isPresent()) {
+                throw new IllegalStateException(format("Table loader %s is not supported by %s", loaderName, getDatabaseProductName(queryExecutor)));
+            }
+            return loader.get();
+        }
+
+        for (String autoLoaderName : AUTO_LOADERS) {
+            try {
+                Optional<Loader> loader = LOADER_PROVIDERS.get(autoLoaderName).create(queryExecutor, tableName, columnTypes);
+                if (loader.isPresent()) {
+                    LOGGER.debug("Loading data into {} with {} loader", tableName, autoLoaderName);
+                    return loader.get();
+                }
+            }
+            catch (SQLException e) {
+                LOGGER.warn("Unable to insert data with {} loader", autoLoaderName, e);
+            }
+        }
+        throw new IllegalStateException("No table loader available for " + tableName);
+    }
+
+    static String getDatabaseProductName(QueryExecutor queryExecutor)
+            throws SQLException
+    {
+        return queryExecutor.getConnection().getMetaData().getDatabaseProductName();
+    }
+
+    /**
+     * Loads driver specific class using class loader of the driver, which may be different
+     * from the class loader of tempto, when the driver is loaded from {@code jdbc_jar}.
+     *
+     * @return the class, if connection or statement can be unwrapped to it
+     */
+    static Optional<Class<?>> findDriverClass(Wrapper wrapper, String className)
+            throws SQLException
+    {
+        Object innermost = wrapper;
+        if (wrapper instanceof DelegatingConnection && ((DelegatingConnection<?>) wrapper).getInnermostDelegate() != null) {
+            innermost = ((DelegatingConnection<?>) wrapper).getInnermostDelegate();
+        }
+        else if (wrapper instanceof DelegatingStatement && ((DelegatingStatement) wrapper).getInnermostDelegate() != null) {
+            innermost = ((DelegatingStatement) wrapper).getInnermostDelegate();
+        }
+
+        Class<?> driverClass;
         try {
-            return new BatchLoader(queryExecutor, tableName, columnTypes.size());
+            driverClass = Class.forName(className, false, innermost.getClass().getClassLoader());
+        }
+        catch (ClassNotFoundException e) {
+            return Optional.empty();
         }
-        catch (SQLException sqlException) {
-            LOGGER.warn("Unable to insert data with PreparedStatement", sqlException);
-            return new InsertLoader(queryExecutor, tableName, columnTypes);
+        if (!wrapper.isWrapperFor(driverClass)) {
+            return Optional.empty();
         }
+        return Optional.of(driverClass);
+    }
+
+    interface LoaderProvider
+    {
+        /**
+         * @return loader, if it is supported by the database
+         */
+        Optional<Loader> create(QueryExecutor queryExecutor, String tableName, List<JDBCType> columnTypes)
+                throws SQLException;
     }
 }
@@ -0,0 +1,166 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.fulfillment.table.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.trino.tempto.query.QueryExecutor;
+
+import java.sql.Connection;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.trino.tempto.internal.fulfillment.table.jdbc.LoaderFactory.getDatabaseProductName;
+import static java.lang.String.format;
+import static java.sql.Statement.SUCCESS_NO_INFO;
+import static java.util.Collections.nCopies;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Inserts many rows with a single parameterized {@code INSERT INTO ... VALUES (...), (...)} statement.
+ * Number of rows per statement is limited by maximum number of bind parameters supported by the driver.
+ */
+class MultiRowInsertLoader
+        implements Loader
+{
+    private static final int DEFAULT_MAX_PARAMETERS = 2000;
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    // databases known to support multi-row VALUES, with maximum number of bind parameters in a statement
+    private static final Map<String, Integer> MAX_PARAMETERS = ImmutableMap.<String, Integer>builder()
+            .put("PostgreSQL", 32767)
+            .put("MySQL", 65535)
+            .put("MariaDB", 65535)
+            .put("Microsoft SQL Server", 2000)
+            .put("HSQL Database Engine", DEFAULT_MAX_PARAMETERS)
+            .put("H2", DEFAULT_MAX_PARAMETERS)
+            .put("Trino", DEFAULT_MAX_PARAMETERS)
+            .build();
+
+    private final Connection connection;
+    private final String tableName;
+    private final List<JDBCType> columnTypes;
+    private final int rowsPerStatement;
+
+    private PreparedStatement fullStatement;
+    private PreparedStatement tailStatement;
+    private int tailStatementRows;
+
+    static Optional<Loader> create(QueryExecutor queryExecutor, String tableName, List<JDBCType> columnTypes)
+            throws SQLException
+    {
+        Integer maxParameters = MAX_PARAMETERS.get(getDatabaseProductName(queryExecutor));
+        if (maxParameters == null || columnTypes.isEmpty()) {
+            return Optional.empty();
+        }
+        int rowsPerStatement = Math.max(1, Math.min(MAX_ROWS_PER_STATEMENT, maxParameters / columnTypes.size()));
+        return Optional.of(new MultiRowInsertLoader(queryExecutor.getConnection(), tableName, columnTypes, rowsPerStatement));
+    }
+
+    MultiRowInsertLoader(Connection connection, String tableName, List<JDBCType> columnTypes, int rowsPerStatement)
+    {
+        checkArgument(rowsPerStatement > 0, "rowsPerStatement must be greater than 0: %s", rowsPerStatement);
+        this.connection = requireNonNull(connection, "connection is null");
+        this.tableName = requireNonNull(tableName, "tableName is null");
+        this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        this.rowsPerStatement = rowsPerStatement;
+    }
+
+    @Override
+    public void load(List<List<Object>> batch)
+            throws SQLException
+    {
+        int fullStatements = batch.size() / rowsPerStatement;
+        if (fullStatements > 0) {
+            if (fullStatement == null) {
+                fullStatement = connection.prepareStatement(insertSql(rowsPerStatement));
+            }
+            for (int i = 0; i < fullStatements; i++) {
+                bindRows(fullStatement, batch.subList(i * rowsPerStatement, (i + 1) * rowsPerStatement));
+                fullStatement.addBatch();
+            }
+            for (int insertCount : fullStatement.executeBatch()) {
+                checkInsertCount(insertCount, rowsPerStatement);
+            }
+        }
+
+        int tailRows = batch.size() % rowsPerStatement;
+        if (tailRows > 0) {
+            if (tailStatement == null || tailStatementRows != tailRows) {
+                if (tailStatement != null) {
+                    tailStatement.close();
+                }
+                tailStatement = connection.prepareStatement(insertSql(tailRows));
+                tailStatementRows = tailRows;
+            }
+            bindRows(tailStatement, batch.subList(batch.size() - tailRows, batch.size()));
+            checkInsertCount(tailStatement.executeUpdate(), tailRows);
+        }
+    }
+
+    private void bindRows(PreparedStatement statement, List<List<Object>> rows)
+            throws SQLException
+    {
+        int parameterIndex = 1;
+        for (List<Object> row : rows) {
+            checkArgument(row.size() == columnTypes.size(), "Unexpected columns count: %s vs %s", row.size(), columnTypes.size());
+            for (int column = 0; column < row.size(); column++) {
+                Object value = row.get(column);
+                if (value == null) {
+                    statement.setNull(parameterIndex, columnTypes.get(column).getVendorTypeNumber());
+                }
+                else {
+                    statement.setObject(parameterIndex, value);
+                }
+                parameterIndex++;
+            }
+        }
+    }
+
+    private String insertSql(int rows)
+    {
+        String rowParameters = "(" + String.join(",", nCopies(columnTypes.size(), "?")) + ")";
+        return format("INSERT INTO %s VALUES %s", tableName, String.join(",", nCopies(rows, rowParameters)));
+    }
+
+    private static void checkInsertCount(int insertCount, int expectedCount)
+            throws SQLException
+    {
+        if (insertCount != expectedCount && insertCount != SUCCESS_NO_INFO) {
+            throw new SQLException(format("Expected to insert %s rows, but inserted %s", expectedCount, insertCount));
+        }
+    }
+
+    @Override
+    public void close()
+            throws SQLException
+    {
+        try {
+            if (fullStatement != null) {
+                fullStatement.close();
+            }
+        }
+        finally {
+            if (tailStatement != null) {
+                tailStatement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.fulfillment.table.jdbc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.tempto.query.JdbcQueryExecutor;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.trino.tempto.internal.fulfillment.table.jdbc.JdbcTableManager.partitionBy;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Loads rows into a table with several {@link Loader}s, each using a separate connection.
+ * Batches of rows are passed to loaders through a bounded queue, so reading of rows is blocked
+ * when loaders fall behind. When any of loaders fails, loading stops and the failure is rethrown.
+ */
+class ParallelLoader
+{
+    private static final Logger LOGGER = getLogger(ParallelLoader.class);
+
+    private static final List<List<Object>> END_OF_DATA = new ArrayList<>();
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final JdbcQueryExecutor queryExecutor;
+    private final LoaderFactory loaderFactory;
+    private final String tableName;
+    private final int workers;
+    private final int batchSize;
+
+    ParallelLoader(JdbcQueryExecutor queryExecutor, LoaderFactory loaderFactory, String tableName, int workers, int batchSize)
+    {
+        checkArgument(workers > 0, "workers must be greater than 0: %s", workers);
+        checkArgument(batchSize > 0, "batchSize must be greater than 0: %s", batchSize);
+        this.queryExecutor = requireNonNull(queryExecutor, "queryExecutor is null");
+        this.loaderFactory = requireNonNull(loaderFactory, "loaderFactory is null");
+        this.tableName = requireNonNull(tableName, "tableName is null");
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    void load(Iterator<List<Object>> dataRows)
+    {
+        BlockingQueue<List<List<Object>>> batches = new ArrayBlockingQueue<>(workers * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService executor = newFixedThreadPool(workers, new ThreadFactoryBuilder()
+                .setNameFormat("jdbc-table-loader-" + tableName + "-%s")
+                .setDaemon(true)
+                .build());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> runWorker(batches, failure)));
+            }
+
+            for (List<List<Object>> batch : partitionBy(dataRows, batchSize)) {
+                if (!offer(batches, batch, failure)) {
+                    break;
+                }
+            }
+            for (int i = 0; i < workers; i++) {
+                if (!offer(batches, END_OF_DATA, failure)) {
+                    break;
+                }
+            }
+
+            if (failure.get() == null) {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+        catch (Exception e) {
+            failure.compareAndSet(null, e);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new RuntimeException("Loading data into " + tableName + " failed", cause);
+        }
+    }
+
+    private void runWorker(BlockingQueue<List<List<Object>>> batches, AtomicReference<Throwable> failure)
+    {
+        try (JdbcQueryExecutor workerQueryExecutor = queryExecutor.fork();
+                Loader loader = loaderFactory.create(workerQueryExecutor, tableName)) {
+            while (failure.get() == null) {
+                List<List<Object>> batch = batches.poll(POLL_INTERVAL_MILLIS, MILLISECONDS);
+                if (batch == END_OF_DATA) {
+                    return;
+                }
+                if (batch != null) {
+                    loader.load(batch);
+                }
+            }
+        }
+        catch (Throwable e) {
+            if (!failure.compareAndSet(null, e)) {
+                LOGGER.debug("Loader failed after loading was already stopped", e);
+            }
+        }
+    }
+
+    private static boolean offer(BlockingQueue<List<List<Object>>> batches, List<List<Object>> batch, AtomicReference<Throwable> failure)
+            throws InterruptedException
+    {
+        while (failure.get() == null) {
+            if (batches.offer(batch, POLL_INTERVAL_MILLIS, MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.tempto.configuration.Configuration;
+import io.trino.tempto.fulfillment.table.hive.HiveDataSource;
+import io.trino.tempto.hadoop.hdfs.HdfsClient;
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+import org.slf4j.Logger;
+
+import javax.inject.Inject;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Uploads files of a data source concurrently. At most {@code hdfs.upload.parallelism} files are
+ * generated and streamed to HDFS at the same time, so memory usage does not depend on the number of files.
+ * Failed files are uploaded again up to {@code hdfs.upload.retries} times.
+ */
+public class ConcurrentHdfsDataSourceWriter
+        extends DefaultHdfsDataSourceWriter
+{
+    private static final Logger LOGGER = getLogger(ConcurrentHdfsDataSourceWriter.class);
+
+    public static final String CONF_HDFS_UPLOAD_PARALLELISM_KEY = "hdfs.upload.parallelism";
+    public static final String CONF_HDFS_UPLOAD_RETRIES_KEY = "hdfs.upload.retries";
+
+    private static final int DEFAULT_UPLOAD_RETRIES = 2;
+    private static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final int uploadParallelism;
+    private final int uploadRetries;
+    private final Duration retryDelay;
+
+    @Inject
+    public ConcurrentHdfsDataSourceWriter(HdfsClient hdfsClient, Configuration configuration)
+    {
+        this(
+                hdfsClient,
+                getUploadParallelism(configuration),
+                configuration.getInt(CONF_HDFS_UPLOAD_RETRIES_KEY).orElse(DEFAULT_UPLOAD_RETRIES),
+                DEFAULT_RETRY_DELAY);
+    }
+
+    public ConcurrentHdfsDataSourceWriter(HdfsClient hdfsClient, int uploadParallelism, int uploadRetries, Duration retryDelay)
+    {
+        super(hdfsClient);
+        checkArgument(uploadParallelism > 0, "uploadParallelism must be greater than 0: %s", uploadParallelism);
+        checkArgument(uploadRetries >= 0, "uploadRetries must not be negative: %s", uploadRetries);
+        this.uploadParallelism = uploadParallelism;
+        this.uploadRetries = uploadRetries;
+        this.retryDelay = requireNonNull(retryDelay, "retryDelay is null");
+    }
+
+    static int getUploadParallelism(Configuration configuration)
+    {
+        return configuration.getInt(CONF_HDFS_UPLOAD_PARALLELISM_KEY).orElse(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    protected void storeTableFiles(String dataSourcePath, HiveDataSource dataSource)
+    {
+        Collection<RepeatableContentProducer> files = dataSource.data();
+        int parallelism = Math.min(uploadParallelism, files.size());
+        try {
+            if (parallelism <= 1) {
+                storeTableFilesSequentially(dataSourcePath, files);
+            }
+            else {
+                storeTableFilesConcurrently(dataSourcePath, files, parallelism);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while saving files to " + dataSourcePath, e);
+        }
+    }
+
+    private void storeTableFilesSequentially(String dataSourcePath, Collection<RepeatableContentProducer> files)
+            throws InterruptedException
+    {
+        int fileIndex = 0;
+        for (RepeatableContentProducer fileContent : files) {
+            storeTableFileWithRetries(dataSourcePath, fileIndex, fileContent);
+            fileIndex++;
+        }
+    }
+
+    private void storeTableFilesConcurrently(String dataSourcePath, Collection<RepeatableContentProducer> files, int parallelism)
+            throws InterruptedException
+    {
+        ExecutorService executor = newFixedThreadPool(
+                parallelism,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("hdfs-upload-%s")
+                        .setDaemon(true)
+                        .build());
+        // limits uploads which are in progress or waiting for a thread, files are submitted as permits are released
+        Semaphore inFlightUploads = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            int fileIndex = 0;
+            for (RepeatableContentProducer fileContent : files) {
+                inFlightUploads.acquire();
+                if (failure.get() != null) {
+                    inFlightUploads.release();
+                    break;
+                }
+                int index = fileIndex;
+                executor.execute(() -> {
+                    try {
+                        storeTableFileWithRetries(dataSourcePath, index, fileContent);
+                    }
+                    catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                    finally {
+                        inFlightUploads.release();
+                    }
+                });
+                fileIndex++;
+            }
+            // wait for remaining uploads, so that they do not write to the directory after this method returns
+            inFlightUploads.acquire(parallelism);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        Throwable uploadFailure = failure.get();
+        if (uploadFailure instanceof RuntimeException) {
+            throw (RuntimeException) uploadFailure;
+        }
+        if (uploadFailure instanceof Error) {
+            throw (Error) uploadFailure;
+        }
+        if (uploadFailure != null) {
+            throw new RuntimeException(uploadFailure);
+        }
+    }
+
+    private void storeTableFileWithRetries(String dataSourcePath, int fileIndex, RepeatableContentProducer fileContent)
+            throws InterruptedException
+    {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                storeTableFile(dataSourcePath, fileIndex, fileContent);
+                return;
+            }
+            catch (RuntimeException e) {
+                if (attempt >= uploadRetries) {
+                    throw e;
+                }
+                LOGGER.warn("Saving file {}/data_{} failed, retrying ({}/{})", dataSourcePath, fileIndex, attempt + 1, uploadRetries, e);
+                Thread.sleep(retryDelay.multipliedBy(attempt + 1).toMillis());
+            }
+        }
+    }
+}
@@ -21,6 +21,9 @@ import org.slf4j.Logger;
 
 import javax.inject.Inject;
 
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class DefaultHdfsDataSourceWriter
@@ -28,30 +31,78 @@ public class DefaultHdfsDataSourceWriter
 {
     private static final Logger LOGGER = getLogger(DefaultHdfsDataSourceWriter.class);
 
+    static final String REVISION_MARKER_XATTR = "user.tempto.revision";
+
     private final HdfsClient hdfsClient;
 
     @Inject
     public DefaultHdfsDataSourceWriter(HdfsClient hdfsClient)
     {
-        this.hdfsClient = hdfsClient;
+        this.hdfsClient = requireNonNull(hdfsClient, "hdfsClient is null");
     }
 
     @Override
     public void ensureDataOnHdfs(String dataSourcePath, HiveDataSource dataSource)
     {
+        Optional<String> revisionMarker = dataSource.getRevisionMarker();
+        if (revisionMarker.isPresent() && isDataUpToDate(dataSourcePath, revisionMarker.get())) {
+            LOGGER.debug("Data in {} is up to date (revision {}), skipping upload", dataSourcePath, revisionMarker.get());
+            return;
+        }
+
         hdfsClient.delete(dataSourcePath);
         hdfsClient.createDirectory(dataSourcePath);
         storeTableFiles(dataSourcePath, dataSource);
+        revisionMarker.ifPresent(marker -> storeRevisionMarker(dataSourcePath, marker));
     }
 
-    private void storeTableFiles(String dataSourcePath, HiveDataSource dataSource)
+    private boolean isDataUpToDate(String dataSourcePath, String revisionMarker)
+    {
+        try {
+            return hdfsClient.getXAttr(dataSourcePath, REVISION_MARKER_XATTR)
+                    .map(DefaultHdfsDataSourceWriter::unquote)
+                    .map(revisionMarker::equals)
+                    .orElse(false);
+        }
+        catch (RuntimeException e) {
+            LOGGER.debug("Could not read revision marker of {}", dataSourcePath, e);
+            return false;
+        }
+    }
+
+    private void storeRevisionMarker(String dataSourcePath, String revisionMarker)
+    {
+        // revision marker is stored after all files are saved, so partially uploaded data is never reused
+        try {
+            hdfsClient.setXAttr(dataSourcePath, REVISION_MARKER_XATTR, revisionMarker);
+        }
+        catch (RuntimeException e) {
+            LOGGER.warn("Could not store revision marker of {}, data will be uploaded again next time", dataSourcePath, e);
+        }
+    }
+
+    private static String unquote(String value)
+    {
+        // WebHDFS returns text encoded extended attribute values in double quotes
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    protected void storeTableFiles(String dataSourcePath, HiveDataSource dataSource)
     {
         int fileIndex = 0;
         for (RepeatableContentProducer fileContent : dataSource.data()) {
-            String filePath = dataSourcePath + "/data_" + fileIndex;
-            LOGGER.debug("Saving new file {}", filePath);
-            hdfsClient.saveFile(filePath, fileContent);
+            storeTableFile(dataSourcePath, fileIndex, fileContent);
             fileIndex++;
         }
     }
+
+    protected void storeTableFile(String dataSourcePath, int fileIndex, RepeatableContentProducer fileContent)
+    {
+        String filePath = dataSourcePath + "/data_" + fileIndex;
+        LOGGER.debug("Saving new file {}", filePath);
+        hdfsClient.saveFile(filePath, fileContent);
+    }
 }
@@ -24,12 +24,18 @@ import com.google.inject.Singleton;
 import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.hadoop.hdfs.HdfsClient;
 import io.trino.tempto.initialization.SuiteModuleProvider;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +47,9 @@ import java.util.Set;
 import static com.google.inject.name.Names.named;
 import static io.trino.tempto.internal.hadoop.hdfs.WebHdfsClient.CONF_HDFS_PASSWORD_KEY;
 import static io.trino.tempto.internal.hadoop.hdfs.WebHdfsClient.CONF_HDFS_WEBHDFS_URI_KEY;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class HdfsModuleProvider
         implements SuiteModuleProvider
@@ -48,9 +57,20 @@ public class HdfsModuleProvider
     private static final Logger logger = LoggerFactory.getLogger(HdfsModuleProvider.class);
 
     public static final String CONF_TESTS_HDFS_PATH_KEY = "tests.hdfs.path";
+    public static final String CONF_HDFS_UPLOAD_WRITER_KEY = "hdfs.upload.writer";
+    public static final String CONF_HDFS_MAX_CONNECTIONS_PER_ROUTE_KEY = "hdfs.webhdfs.max_connections_per_route";
+    public static final String CONF_HDFS_MAX_CONNECTIONS_KEY = "hdfs.webhdfs.max_connections";
+    public static final String CONF_HDFS_IDLE_CONNECTION_TIMEOUT_KEY = "hdfs.webhdfs.idle_connection_timeout_seconds";
+
+    private static final String WRITER_CONCURRENT = "concurrent";
+    private static final String WRITER_SEQUENTIAL = "sequential";
 
     private static final String AUTHENTICATION_SPNEGO = "SPNEGO";
     private static final int NUMBER_OF_HTTP_RETRIES = 3;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 8;
+    private static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 20;
+    private static final int DEFAULT_IDLE_CONNECTION_TIMEOUT_SECONDS = 30;
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2_000;
 
     @Override
     public Module getModule(Configuration configuration)
@@ -74,11 +94,14 @@ public class HdfsModuleProvider
 
                 install(httpRequestsExecutorModule());
 
+                bind(HttpRequestsMetrics.class).in(Scopes.SINGLETON);
+
                 bind(HdfsClient.class).to(WebHdfsClient.class).in(Scopes.SINGLETON);
-                bind(HdfsDataSourceWriter.class).to(DefaultHdfsDataSourceWriter.class).in(Scopes.SINGLETON);
+                bind(HdfsDataSourceWriter.class).to(dataSourceWriterClass()).in(Scopes.SINGLETON);
 
                 expose(HdfsClient.class);
                 expose(HdfsDataSourceWriter.class);
+                expose(HttpRequestsMetrics.class);
             }
 
             private Module httpRequestsExecutorModule()
@@ -91,6 +114,19 @@ public class HdfsModuleProvider
                 }
             }
 
+            private Class<? extends HdfsDataSourceWriter> dataSourceWriterClass()
+            {
+                String writer = configuration.getString(CONF_HDFS_UPLOAD_WRITER_KEY).orElse(WRITER_SEQUENTIAL);
+                if (writer.equalsIgnoreCase(WRITER_CONCURRENT)) {
+                    return ConcurrentHdfsDataSourceWriter.class;
+                }
+                if (writer.equalsIgnoreCase(WRITER_SEQUENTIAL)) {
+                    return DefaultHdfsDataSourceWriter.class;
+                }
+                throw new IllegalArgumentException(format("Unsupported value of %s: %s, expected %s or %s",
+                        CONF_HDFS_UPLOAD_WRITER_KEY, writer, WRITER_CONCURRENT, WRITER_SEQUENTIAL));
+            }
+
             private boolean spnegoAuthenticationRequired()
             {
                 Optional<String> authentication = configuration.getString("hdfs.webhdfs.authentication");
@@ -100,22 +136,53 @@ public class HdfsModuleProvider
             @Inject
             @Provides
             @Singleton
-            CloseableHttpClient createHttpClient()
+            CloseableHttpClient createHttpClient(HttpRequestsMetrics metrics)
             {
-                HttpClientBuilder httpClientBuilder = HttpClientBuilder.create();
-                httpClientBuilder.setRetryHandler(new DefaultHttpRequestRetryHandler(NUMBER_OF_HTTP_RETRIES, true));
-                skipCertificateValidation(httpClientBuilder);
-                return httpClientBuilder.build();
+                // connections are shared by all requests, so that metadata calls and uploads reuse TCP connections
+                // and SPNEGO authenticated connections to the NameNode
+                PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                        RegistryBuilder.<ConnectionSocketFactory>create()
+                                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                                .register("https", createSslSocketFactory())
+                                .build(),
+                        (route, config) -> {
+                            metrics.recordConnectionOpened();
+                            return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+                        });
+                // allow all files of a data source to be uploaded concurrently
+                int uploadParallelism = ConcurrentHdfsDataSourceWriter.getUploadParallelism(configuration);
+                int maxConnectionsPerRoute = configuration.getInt(CONF_HDFS_MAX_CONNECTIONS_PER_ROUTE_KEY)
+                        .orElse(Math.max(DEFAULT_MAX_CONNECTIONS_PER_ROUTE, uploadParallelism));
+                connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+                connectionManager.setMaxTotal(configuration.getInt(CONF_HDFS_MAX_CONNECTIONS_KEY)
+                        .orElse(Math.max(DEFAULT_MAX_CONNECTIONS_TOTAL, 2 * maxConnectionsPerRoute)));
+                connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+
+                long idleTimeoutMillis = SECONDS.toMillis(configuration.getInt(CONF_HDFS_IDLE_CONNECTION_TIMEOUT_KEY)
+                        .orElse(DEFAULT_IDLE_CONNECTION_TIMEOUT_SECONDS));
+                return HttpClientBuilder.create()
+                        .setConnectionManager(connectionManager)
+                        .setKeepAliveStrategy((response, context) -> {
+                            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                            return keepAlive > 0 ? Math.min(keepAlive, idleTimeoutMillis) : idleTimeoutMillis;
+                        })
+                        .evictIdleConnections(idleTimeoutMillis, MILLISECONDS)
+                        .evictExpiredConnections()
+                        // connections are not bound to the user who authenticated them, so that they can be reused by all threads
+                        .disableConnectionState()
+                        .setRetryHandler(new DefaultHttpRequestRetryHandler(NUMBER_OF_HTTP_RETRIES, true))
+                        .build();
             }
 
-            private void skipCertificateValidation(HttpClientBuilder httpClientBuilder)
+            private SSLConnectionSocketFactory createSslSocketFactory()
             {
+                // certificates are not validated
                 try {
-                    httpClientBuilder.setSSLSocketFactory(new SSLConnectionSocketFactory(
+                    return new SSLConnectionSocketFactory(
                             SSLContextBuilder.create()
                                     .loadTrustMaterial(new TrustSelfSignedStrategy())
                                     .build(),
-                            new NoopHostnameVerifier()));
+                            new NoopHostnameVerifier());
                 }
                 catch (GeneralSecurityException e) {
                     throw new RuntimeException(e);
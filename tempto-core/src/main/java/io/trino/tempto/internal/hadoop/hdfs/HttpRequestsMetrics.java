@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.hadoop.hdfs;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Latency of WebHDFS requests grouped by operation and reuse of pooled HTTP connections.
+ */
+public class HttpRequestsMetrics
+{
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder openedConnections = new LongAdder();
+
+    public void recordRequest(HttpUriRequest request, long durationNanos, boolean failed)
+    {
+        requests.increment();
+        operations.computeIfAbsent(operationName(request), name -> new OperationStats())
+                .record(durationNanos, failed);
+    }
+
+    public void recordConnectionOpened()
+    {
+        openedConnections.increment();
+    }
+
+    public Map<String, OperationStats> getOperations()
+    {
+        return ImmutableMap.copyOf(operations);
+    }
+
+    public long getRequestCount()
+    {
+        return requests.sum();
+    }
+
+    public long getOpenedConnectionCount()
+    {
+        return openedConnections.sum();
+    }
+
+    /**
+     * @return fraction of requests which were sent over an already open connection
+     */
+    public double getConnectionReuseRatio()
+    {
+        long requestCount = getRequestCount();
+        if (requestCount == 0) {
+            return 0;
+        }
+        return Math.max(0, requestCount - getOpenedConnectionCount()) / (double) requestCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder(format("requests: %d, opened connections: %d, connection reuse: %.1f%%",
+                getRequestCount(), getOpenedConnectionCount(), getConnectionReuseRatio() * 100));
+        getOperations().forEach((name, stats) -> builder.append(format("%n  %s: %s", name, stats)));
+        return builder.toString();
+    }
+
+    private static String operationName(HttpUriRequest request)
+    {
+        return new URIBuilder(request.getURI()).getQueryParams().stream()
+                .filter(parameter -> parameter.getName().equals("op"))
+                .map(NameValuePair::getValue)
+                .findFirst()
+                .orElse(request.getMethod());
+    }
+
+    public static class OperationStats
+    {
+        private static final double NANOS_PER_MILLISECOND = MILLISECONDS.toNanos(1);
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private void record(long durationNanos, boolean failed)
+        {
+            count.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalNanos.add(durationNanos);
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+        }
+
+        public long getCount()
+        {
+            return count.sum();
+        }
+
+        public long getFailureCount()
+        {
+            return failures.sum();
+        }
+
+        public double getAverageMillis()
+        {
+            long requestCount = getCount();
+            return requestCount == 0 ? 0 : totalNanos.sum() / NANOS_PER_MILLISECOND / requestCount;
+        }
+
+        public double getMaxMillis()
+        {
+            return maxNanos.get() / NANOS_PER_MILLISECOND;
+        }
+
+        @Override
+        public String toString()
+        {
+            return format("count: %d, failures: %d, avg: %.2fms, max: %.2fms", getCount(), getFailureCount(), getAverageMillis(), getMaxMillis());
+        }
+    }
+}
@@ -53,16 +53,19 @@ public class SimpleHttpRequestsExecutor
     private final CloseableHttpClient httpClient;
     private final String username;
     private final String password;
+    private final HttpRequestsMetrics metrics;
 
     @Inject
     public SimpleHttpRequestsExecutor(
             CloseableHttpClient httpClient,
             @Named(CONF_HDFS_USERNAME_KEY) String username,
-            @Named(CONF_HDFS_PASSWORD_KEY) String password)
+            @Named(CONF_HDFS_PASSWORD_KEY) String password,
+            HttpRequestsMetrics metrics)
     {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.username = requireNonNull(username, "username is null");
         this.password = requireNonNull(password, "password is null");
+        this.metrics = requireNonNull(metrics, "metrics is null");
     }
 
     @Override
@@ -70,7 +73,16 @@ public class SimpleHttpRequestsExecutor
             throws IOException
     {
         HttpUriRequest usernameContainingRequest = appendUsernameToQueryString(request);
-        return httpClient.execute(usernameContainingRequest);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            CloseableHttpResponse response = httpClient.execute(usernameContainingRequest);
+            failed = false;
+            return response;
+        }
+        finally {
+            metrics.recordRequest(request, System.nanoTime() - start, failed);
+        }
     }
 
     private HttpUriRequest appendUsernameToQueryString(HttpUriRequest request)
@@ -24,6 +24,7 @@ import io.trino.tempto.kerberos.KerberosAuthentication;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.Credentials;
+import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.AuthSchemes;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
@@ -36,11 +37,14 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.protocol.HttpContext;
 
 import javax.security.auth.Subject;
+import javax.security.auth.kerberos.KerberosTicket;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.security.Principal;
 import java.security.PrivilegedAction;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -74,32 +78,41 @@ public class SpnegoHttpRequestsExecutor
         }
     }
 
+    // re-login when ticket granting ticket is about to expire
+    private static final Duration MIN_TICKET_LIFETIME = Duration.ofMinutes(5);
+
     private final CloseableHttpClient httpClient;
     private final KerberosAuthentication kerberosAuthentication;
-    private final HttpContext spnegoAwareHttpContext;
+    private final HttpRequestsMetrics metrics;
     private final boolean useCanonicalHostname;
+    private final Lookup<AuthSchemeProvider> authSchemeRegistry;
+    private final CredentialsProvider credentialsProvider;
+
+    private Subject authenticationSubject;
 
     @Inject
     public SpnegoHttpRequestsExecutor(
             CloseableHttpClient httpClient,
             KerberosAuthentication kerberosAuthentication,
-            Configuration configuration)
+            Configuration configuration,
+            HttpRequestsMetrics metrics)
     {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.kerberosAuthentication = requireNonNull(kerberosAuthentication, "kerberosAuthentication is null");
-        this.spnegoAwareHttpContext = createSpnegoAwareHttpContext();
+        this.metrics = requireNonNull(metrics, "metrics is null");
         this.useCanonicalHostname = configuration.getBoolean("hdfs.webhdfs.spnego_use_canonical_hostname").orElse(false);
+        this.authSchemeRegistry = RegistryBuilder.<AuthSchemeProvider>create()
+                .register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory(true, useCanonicalHostname)).build();
+        BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        credentialsProvider.setCredentials(new AuthScope(null, -1, null), new NullCredentials());
+        this.credentialsProvider = credentialsProvider;
     }
 
     private HttpContext createSpnegoAwareHttpContext()
     {
+        // context holds authentication state of a single request, so it cannot be shared between threads
         HttpClientContext httpContext = HttpClientContext.create();
-        Lookup<AuthSchemeProvider> authSchemeRegistry = RegistryBuilder.<AuthSchemeProvider>create()
-                .register(AuthSchemes.SPNEGO, new SPNegoSchemeFactory(true, useCanonicalHostname)).build();
         httpContext.setAuthSchemeRegistry(authSchemeRegistry);
-
-        BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-        credentialsProvider.setCredentials(new AuthScope(null, -1, null), new NullCredentials());
         httpContext.setCredentialsProvider(credentialsProvider);
         return httpContext;
     }
@@ -107,15 +120,42 @@ public class SpnegoHttpRequestsExecutor
     @Override
     public CloseableHttpResponse execute(HttpUriRequest request)
     {
-        Subject authenticationSubject = kerberosAuthentication.authenticate();
-        return Subject.doAs(authenticationSubject, (PrivilegedAction<CloseableHttpResponse>) () -> {
-            try {
-                return httpClient.execute(request, spnegoAwareHttpContext);
-            }
-            catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        });
+        Subject authenticationSubject = getAuthenticationSubject();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            CloseableHttpResponse response = Subject.doAs(authenticationSubject, (PrivilegedAction<CloseableHttpResponse>) () -> {
+                try {
+                    return httpClient.execute(request, createSpnegoAwareHttpContext());
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            failed = false;
+            return response;
+        }
+        finally {
+            metrics.recordRequest(request, System.nanoTime() - start, failed);
+        }
+    }
+
+    private synchronized Subject getAuthenticationSubject()
+    {
+        if (authenticationSubject == null || isTicketExpiring(authenticationSubject)) {
+            authenticationSubject = kerberosAuthentication.authenticate();
+        }
+        return authenticationSubject;
+    }
+
+    private static boolean isTicketExpiring(Subject subject)
+    {
+        Instant minEndTime = Instant.now().plus(MIN_TICKET_LIFETIME);
+        return subject.getPrivateCredentials(KerberosTicket.class).stream()
+                .filter(ticket -> ticket.getServer().getName().startsWith("krbtgt/"))
+                .findFirst()
+                .map(ticket -> ticket.getEndTime() == null || ticket.getEndTime().toInstant().isBefore(minEndTime))
+                .orElse(true);
     }
 
     private static class NullCredentials
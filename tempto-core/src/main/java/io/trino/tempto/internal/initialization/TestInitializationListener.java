@@ -38,6 +38,7 @@ import io.trino.tempto.internal.ReflectionInjectorHelper;
 import io.trino.tempto.internal.TestSpecificRequirementsResolver;
 import io.trino.tempto.internal.context.GuiceTestContext;
 import io.trino.tempto.internal.context.TestContextStack;
+import io.trino.tempto.query.metrics.QueryMetricsSink;
 import org.slf4j.Logger;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
@@ -169,7 +170,13 @@ public class TestInitializationListener
         }
 
         TestStatus testStatus = context.getFailedTests().size() > 0 ? FAILURE : SUCCESS;
-        doCleanup(suiteTestContextStack.get(), suiteLevelFulfillers, testStatus);
+        Optional<QueryMetricsSink> queryMetricsSink = suiteTestContextStack.get().peek().getOptionalDependency(QueryMetricsSink.class);
+        try {
+            doCleanup(suiteTestContextStack.get(), suiteLevelFulfillers, testStatus);
+        }
+        finally {
+            queryMetricsSink.ifPresent(QueryMetricsSink::close);
+        }
     }
 
     @Override
@@ -18,6 +18,8 @@ import io.trino.tempto.internal.listeners.TestMetadata;
 import io.trino.tempto.internal.listeners.TestMetadataReader;
 import org.testng.ITestResult;
 
+import java.util.Optional;
+
 public class LoggingMdcHelper
 {
     private static final String MDC_TEST_ID_KEY = "test_id";
@@ -32,6 +34,14 @@ public class LoggingMdcHelper
         org.slf4j.MDC.put("test_id", testId);
     }
 
+    /**
+     * @return name of the test executed by the current thread
+     */
+    public static Optional<String> getCurrentTestName()
+    {
+        return Optional.ofNullable(org.slf4j.MDC.get(MDC_TEST_ID_KEY));
+    }
+
     public static void cleanLoggingMdc()
     {
         org.slf4j.MDC.remove(MDC_TEST_ID_KEY);
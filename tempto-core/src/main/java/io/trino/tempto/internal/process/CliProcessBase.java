@@ -23,27 +23,49 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.time.Duration;
 import java.util.List;
-import java.util.Scanner;
 import java.util.regex.Pattern;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static io.trino.tempto.internal.process.OutputPump.NO_DEADLINE;
 import static org.assertj.core.util.Closeables.closeQuietly;
 import static org.slf4j.LoggerFactory.getLogger;
 
+/**
+ * Base for {@link CliProcess} implementations. Output and error streams of the process are drained
+ * by background threads, so the process does not block when only one of them is read.
+ */
 public abstract class CliProcessBase
         implements CliProcess
 {
     private static final Logger LOGGER = getLogger(CliProcessBase.class);
-    private static final Duration TIMEOUT = Duration.ofSeconds(20);
 
-    private final Scanner processOutput;
-    private final Scanner processError;
+    /**
+     * Number of chars of each stream kept in memory, further output is spilled to a file.
+     */
+    public static final int DEFAULT_OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+    private final OutputPump outputPump;
+    private final OutputPump errorPump;
+    private final OutputScanner processOutput;
+    private final OutputScanner processError;
     private final PrintStream processInput;
 
     protected CliProcessBase(InputStream processOutput, InputStream processError, OutputStream processInput)
     {
-        this.processOutput = new Scanner(processOutput);
-        this.processError = new Scanner(processError);
+        this(processOutput, processError, processInput, DEFAULT_OUTPUT_BUFFER_SIZE, true);
+    }
+
+    /**
+     * @param outputBufferSize number of chars of each stream kept in memory
+     * @param spillToFile whether to spill output which does not fit into memory to a temporary file; otherwise
+     * the process is blocked on writing to a stream until buffered output of the stream is read
+     */
+    protected CliProcessBase(InputStream processOutput, InputStream processError, OutputStream processInput, int outputBufferSize, boolean spillToFile)
+    {
+        this.outputPump = OutputPump.start("processOutput", processOutput, outputBufferSize, spillToFile);
+        this.errorPump = OutputPump.start("processError", processError, outputBufferSize, spillToFile);
+        this.processOutput = new OutputScanner("processOutput", outputPump);
+        this.processError = new OutputScanner("processError", errorPump);
         this.processInput = new PrintStream(processInput, true);
     }
 
@@ -60,7 +82,23 @@ public abstract class CliProcessBase
     @Override
     public String nextOutputLine()
     {
-        String nextLine = processOutput.nextLine();
+        String nextLine = processOutput.nextLine(NO_DEADLINE);
+        LOGGER.debug("processOutput: {}", nextLine);
+        return nextLine;
+    }
+
+    @Override
+    public String nextOutputLine(Duration timeout)
+    {
+        String nextLine = processOutput.nextLine(deadline(timeout));
+        LOGGER.debug("processOutput: {}", nextLine);
+        return nextLine;
+    }
+
+    @Override
+    public String nextOutputLine(Pattern pattern, Duration timeout)
+    {
+        String nextLine = processOutput.nextLine(pattern, deadline(timeout));
         LOGGER.debug("processOutput: {}", nextLine);
         return nextLine;
     }
@@ -68,7 +106,7 @@ public abstract class CliProcessBase
     @Override
     public String nextOutputToken()
     {
-        String next = processOutput.next();
+        String next = processOutput.next(NO_DEADLINE);
         LOGGER.debug("processOutput: {}", next);
         return next;
     }
@@ -76,19 +114,19 @@ public abstract class CliProcessBase
     @Override
     public boolean hasNextOutputLine()
     {
-        return processOutput.hasNextLine();
+        return processOutput.hasNextLine(NO_DEADLINE);
     }
 
     @Override
     public boolean hasNextOutput(Pattern pattern)
     {
-        return processOutput.hasNext(pattern);
+        return processOutput.hasNext(pattern, NO_DEADLINE);
     }
 
     @Override
     public boolean hasNextOutputToken()
     {
-        return processOutput.hasNext();
+        return processOutput.hasNext(NO_DEADLINE);
     }
 
     @Override
@@ -104,7 +142,23 @@ public abstract class CliProcessBase
     @Override
     public String nextErrorLine()
     {
-        String nextLine = processError.nextLine();
+        String nextLine = processError.nextLine(NO_DEADLINE);
+        LOGGER.debug("processError: {}", nextLine);
+        return nextLine;
+    }
+
+    @Override
+    public String nextErrorLine(Duration timeout)
+    {
+        String nextLine = processError.nextLine(deadline(timeout));
+        LOGGER.debug("processError: {}", nextLine);
+        return nextLine;
+    }
+
+    @Override
+    public String nextErrorLine(Pattern pattern, Duration timeout)
+    {
+        String nextLine = processError.nextLine(pattern, deadline(timeout));
         LOGGER.debug("processError: {}", nextLine);
         return nextLine;
     }
@@ -112,7 +166,7 @@ public abstract class CliProcessBase
     @Override
     public String nextErrorToken()
     {
-        String next = processError.next();
+        String next = processError.next(NO_DEADLINE);
         LOGGER.debug("processError: {}", next);
         return next;
     }
@@ -120,19 +174,19 @@ public abstract class CliProcessBase
     @Override
     public boolean hasNextErrorLine()
     {
-        return processError.hasNextLine();
+        return processError.hasNextLine(NO_DEADLINE);
     }
 
     @Override
     public boolean hasNextError(Pattern pattern)
     {
-        return processError.hasNext(pattern);
+        return processError.hasNext(pattern, NO_DEADLINE);
     }
 
     @Override
     public boolean hasNextErrorToken()
     {
-        return processError.hasNext();
+        return processError.hasNext(NO_DEADLINE);
     }
 
     @Override
@@ -145,13 +199,18 @@ public abstract class CliProcessBase
     public void waitForWithTimeoutAndKill()
             throws InterruptedException
     {
-        waitForWithTimeoutAndKill(TIMEOUT);
+        waitForWithTimeoutAndKill(DEFAULT_TIMEOUT);
     }
 
     @Override
     @OverridingMethodsMustInvokeSuper
     public void close()
     {
-        closeQuietly(processOutput, processError, processInput);
+        closeQuietly(outputPump, errorPump, processInput);
+    }
+
+    private static long deadline(Duration timeout)
+    {
+        return System.nanoTime() + timeout.toNanos();
     }
 }
@@ -0,0 +1,261 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.process;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Drains a process stream on a dedicated thread into a bounded buffer, so that a process is not blocked
+ * on a full pipe when the test does not read one of its streams.
+ * <p>
+ * When the buffer is full, further output is spilled to a temporary file and read from it once the buffer
+ * is consumed. If spilling is disabled, the pump stops reading the stream until there is space in the buffer.
+ */
+final class OutputPump
+        implements Closeable
+{
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final Logger LOGGER = getLogger(OutputPump.class);
+    private static final ThreadFactory PUMP_THREAD_FACTORY = new ThreadFactoryBuilder()
+            .setNameFormat("cli-process-output-pump-%s")
+            .setDaemon(true)
+            .build();
+    private static final int CHUNK_SIZE = 8192;
+
+    private final String name;
+    private final InputStream source;
+    private final char[] buffer;
+    private final boolean spillToFile;
+    private Thread thread;
+
+    // ring buffer of chars not read yet
+    private int head;
+    private int size;
+
+    // chars which did not fit into the buffer, they follow the buffered ones
+    private Path spillPath;
+    private RandomAccessFile spill;
+    private long spillReadPosition;
+    private long spillWritePosition;
+
+    private boolean finished;
+    private boolean closed;
+
+    private OutputPump(String name, InputStream source, int bufferSize, boolean spillToFile)
+    {
+        this.name = requireNonNull(name, "name is null");
+        this.source = requireNonNull(source, "source is null");
+        checkArgument(bufferSize > 0, "bufferSize must be greater than 0: %s", bufferSize);
+        this.buffer = new char[bufferSize];
+        this.spillToFile = spillToFile;
+    }
+
+    static OutputPump start(String name, InputStream source, int bufferSize, boolean spillToFile)
+    {
+        OutputPump pump = new OutputPump(name, source, bufferSize, spillToFile);
+        pump.thread = PUMP_THREAD_FACTORY.newThread(pump::pump);
+        pump.thread.start();
+        return pump;
+    }
+
+    /**
+     * Reads chars pumped from the stream, waiting until some are available.
+     *
+     * @param deadlineNanos {@link System#nanoTime()} after which waiting is given up or {@link #NO_DEADLINE}
+     * @return number of chars read, 0 if none were available before the deadline or -1 if stream is finished
+     */
+    synchronized int read(char[] chars, int offset, int length, long deadlineNanos)
+    {
+        try {
+            while (size == 0 && !isSpilled() && !finished && !closed) {
+                if (deadlineNanos == NO_DEADLINE) {
+                    wait();
+                }
+                else {
+                    long remainingNanos = deadlineNanos - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        return 0;
+                    }
+                    NANOSECONDS.timedWait(this, remainingNanos);
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reading " + name, e);
+        }
+
+        if (closed) {
+            return -1;
+        }
+        if (size > 0) {
+            int count = Math.min(length, Math.min(size, buffer.length - head));
+            System.arraycopy(buffer, head, chars, offset, count);
+            head = (head + count) % buffer.length;
+            size -= count;
+            notifyAll();
+            return count;
+        }
+        if (isSpilled()) {
+            return readSpilled(chars, offset, length);
+        }
+        return -1;
+    }
+
+    private void pump()
+    {
+        char[] chunk = new char[CHUNK_SIZE];
+        try (Reader reader = new InputStreamReader(source)) {
+            int read;
+            while ((read = reader.read(chunk)) >= 0) {
+                if (!write(chunk, read)) {
+                    break;
+                }
+            }
+        }
+        catch (IOException e) {
+            // expected when the process is killed or closed
+            LOGGER.debug("Reading {} failed", name, e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            synchronized (this) {
+                finished = true;
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized boolean write(char[] chars, int length)
+            throws IOException, InterruptedException
+    {
+        int offset = 0;
+        while (offset < length) {
+            if (closed) {
+                return false;
+            }
+            int free = buffer.length - size;
+            if (isSpilled() || (free == 0 && spillToFile)) {
+                spill(chars, offset, length - offset);
+                return true;
+            }
+            if (free == 0) {
+                wait();
+                continue;
+            }
+            int tail = (head + size) % buffer.length;
+            int count = Math.min(length - offset, Math.min(free, buffer.length - tail));
+            System.arraycopy(chars, offset, buffer, tail, count);
+            size += count;
+            offset += count;
+            notifyAll();
+        }
+        return true;
+    }
+
+    private boolean isSpilled()
+    {
+        return spillReadPosition < spillWritePosition;
+    }
+
+    private void spill(char[] chars, int offset, int length)
+            throws IOException
+    {
+        if (spill == null) {
+            spillPath = Files.createTempFile("tempto-" + name + "-", ".spill");
+            spill = new RandomAccessFile(spillPath.toFile(), "rw");
+            LOGGER.debug("Buffer of {} is full, spilling to {}", name, spillPath);
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(length * Character.BYTES);
+        bytes.asCharBuffer().put(chars, offset, length);
+        spill.seek(spillWritePosition);
+        spill.write(bytes.array());
+        spillWritePosition += bytes.capacity();
+        notifyAll();
+    }
+
+    private int readSpilled(char[] chars, int offset, int length)
+    {
+        int count = (int) Math.min(length, (spillWritePosition - spillReadPosition) / Character.BYTES);
+        byte[] bytes = new byte[count * Character.BYTES];
+        try {
+            spill.seek(spillReadPosition);
+            spill.readFully(bytes);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer.wrap(bytes).asCharBuffer().get(chars, offset, count);
+        spillReadPosition += bytes.length;
+        if (spillReadPosition == spillWritePosition) {
+            // everything was read, reuse spill file from the beginning
+            spillReadPosition = 0;
+            spillWritePosition = 0;
+        }
+        return count;
+    }
+
+    /**
+     * Stops pumping, discards not read output and closes the stream.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+            if (spill != null) {
+                try {
+                    spill.close();
+                    Files.deleteIfExists(spillPath);
+                }
+                catch (IOException e) {
+                    LOGGER.debug("Could not delete {}", spillPath, e);
+                }
+            }
+        }
+        try {
+            // closing the stream unblocks pump thread which is reading it
+            source.close();
+        }
+        catch (IOException e) {
+            LOGGER.debug("Could not close {}", name, e);
+        }
+        thread.interrupt();
+    }
+}
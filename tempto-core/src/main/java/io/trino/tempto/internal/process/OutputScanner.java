@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.process;
+
+import io.trino.tempto.process.TimeoutRuntimeException;
+
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Splits output of an {@link OutputPump} into lines and whitespace delimited tokens, the same way
+ * as {@link java.util.Scanner} with default delimiter. Unlike {@link java.util.Scanner}, waiting for
+ * output can be limited with a deadline, which throws {@link TimeoutRuntimeException} when exceeded.
+ */
+final class OutputScanner
+{
+    private static final int CHUNK_SIZE = 8192;
+
+    private final String name;
+    private final OutputPump pump;
+    private final StringBuilder pending = new StringBuilder();
+    private final char[] chunk = new char[CHUNK_SIZE];
+    private boolean endOfStream;
+
+    OutputScanner(String name, OutputPump pump)
+    {
+        this.name = requireNonNull(name, "name is null");
+        this.pump = requireNonNull(pump, "pump is null");
+    }
+
+    boolean hasNextLine(long deadlineNanos)
+    {
+        return lineEnd(deadlineNanos) >= 0;
+    }
+
+    String nextLine(long deadlineNanos)
+    {
+        int end = lineEnd(deadlineNanos);
+        if (end < 0) {
+            throw new NoSuchElementException("No line found");
+        }
+        String line = pending.substring(0, end);
+        pending.delete(0, end + separatorLength(end));
+        return line;
+    }
+
+    /**
+     * Skips lines until a line containing given pattern is found.
+     */
+    String nextLine(Pattern pattern, long deadlineNanos)
+    {
+        while (true) {
+            String line = nextLine(deadlineNanos);
+            if (pattern.matcher(line).find()) {
+                return line;
+            }
+        }
+    }
+
+    boolean hasNext(long deadlineNanos)
+    {
+        return tokenStart(deadlineNanos) >= 0;
+    }
+
+    boolean hasNext(Pattern pattern, long deadlineNanos)
+    {
+        int start = tokenStart(deadlineNanos);
+        if (start < 0) {
+            return false;
+        }
+        int end = tokenEnd(start, deadlineNanos);
+        return pattern.matcher(pending.subSequence(start, end)).matches();
+    }
+
+    String next(long deadlineNanos)
+    {
+        int start = tokenStart(deadlineNanos);
+        if (start < 0) {
+            throw new NoSuchElementException();
+        }
+        int end = tokenEnd(start, deadlineNanos);
+        String token = pending.substring(start, end);
+        pending.delete(0, end);
+        return token;
+    }
+
+    /**
+     * @return index of line separator or end of output, -1 if there are no more lines
+     */
+    private int lineEnd(long deadlineNanos)
+    {
+        int position = 0;
+        while (true) {
+            for (; position < pending.length(); position++) {
+                char c = pending.charAt(position);
+                if (c == '\n' || (c == '\r' && (position + 1 < pending.length() || endOfStream))) {
+                    return position;
+                }
+                if (c == '\r') {
+                    // it is not known yet if it is followed by \n
+                    break;
+                }
+            }
+            if (!fill(deadlineNanos)) {
+                return pending.length() > 0 ? position : -1;
+            }
+        }
+    }
+
+    private int separatorLength(int lineEnd)
+    {
+        if (lineEnd == pending.length()) {
+            return 0;
+        }
+        if (pending.charAt(lineEnd) == '\r' && lineEnd + 1 < pending.length() && pending.charAt(lineEnd + 1) == '\n') {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * @return index of the first char of the next token, -1 if there are no more tokens
+     */
+    private int tokenStart(long deadlineNanos)
+    {
+        int position = 0;
+        while (true) {
+            for (; position < pending.length(); position++) {
+                if (!Character.isWhitespace(pending.charAt(position))) {
+                    return position;
+                }
+            }
+            if (!fill(deadlineNanos)) {
+                return -1;
+            }
+        }
+    }
+
+    private int tokenEnd(int tokenStart, long deadlineNanos)
+    {
+        int position = tokenStart;
+        while (true) {
+            for (; position < pending.length(); position++) {
+                if (Character.isWhitespace(pending.charAt(position))) {
+                    return position;
+                }
+            }
+            if (!fill(deadlineNanos)) {
+                return position;
+            }
+        }
+    }
+
+    /**
+     * @return false if there is no more output
+     */
+    private boolean fill(long deadlineNanos)
+    {
+        if (endOfStream) {
+            return false;
+        }
+        int read = pump.read(chunk, 0, chunk.length, deadlineNanos);
+        if (read == 0) {
+            throw new TimeoutRuntimeException("Timed out waiting for " + name);
+        }
+        if (read < 0) {
+            endOfStream = true;
+            return false;
+        }
+        pending.append(chunk, 0, read);
+        return true;
+    }
+}
@@ -37,6 +37,14 @@ public class JdbcConnectionsConfiguration
     private static final String PREPARE_STATEMENT_KEY = "prepare_statement";
     private static final String KERBEROS_PRINCIPAL_KEY = "kerberos_principal";
     private static final String KERBEROS_KEYTAB_KEY = "kerberos_keytab";
+    private static final String POOL_MAX_SIZE_KEY = "jdbc_pool_max_size";
+    private static final String POOL_MIN_IDLE_KEY = "jdbc_pool_min_idle";
+    private static final String POOL_VALIDATION_QUERY_KEY = "jdbc_pool_validation_query";
+    private static final String POOL_IDLE_TIMEOUT_KEY = "jdbc_pool_idle_timeout_seconds";
+    private static final String POOL_MAX_WAIT_KEY = "jdbc_pool_max_wait_seconds";
+    private static final String PREPARED_STATEMENT_CACHE_SIZE_KEY = "jdbc_prepared_statement_cache_size";
+    private static final String ASYNC_QUERY_PARALLELISM_KEY = "jdbc_async_query_parallelism";
+    private static final String QUERY_TIMEOUT_KEY = "jdbc_query_timeout_seconds";
 
     private final Configuration configuration;
 
@@ -53,7 +61,7 @@ public class JdbcConnectionsConfiguration
     {
         Configuration connectionConfiguration = getDatabaseConnectionSubConfiguration(connectionName);
 
-        return JdbcConnectivityParamsState.builder()
+        JdbcConnectivityParamsState.Builder builder = JdbcConnectivityParamsState.builder()
                 .setName(connectionName)
                 .setDriverClass(connectionConfiguration.getStringMandatory(JDBC_DRIVER_CLASS))
                 .setUrl(connectionConfiguration.getStringMandatory(JDBC_URL_KEY))
@@ -64,7 +72,15 @@ public class JdbcConnectionsConfiguration
                 .setPrepareStatements(connectionConfiguration.getStringOrList(PREPARE_STATEMENT_KEY))
                 .setKerberosPrincipal(connectionConfiguration.getString(KERBEROS_PRINCIPAL_KEY))
                 .setKerberosKeytab(connectionConfiguration.getString(KERBEROS_KEYTAB_KEY))
-                .build();
+                .setPoolValidationQuery(connectionConfiguration.getString(POOL_VALIDATION_QUERY_KEY));
+        connectionConfiguration.getInt(POOL_MAX_SIZE_KEY).ifPresent(builder::setPoolMaxSize);
+        connectionConfiguration.getInt(POOL_MIN_IDLE_KEY).ifPresent(builder::setPoolMinIdle);
+        connectionConfiguration.getInt(POOL_IDLE_TIMEOUT_KEY).ifPresent(builder::setPoolIdleTimeoutSeconds);
+        connectionConfiguration.getInt(POOL_MAX_WAIT_KEY).ifPresent(builder::setPoolMaxWaitSeconds);
+        connectionConfiguration.getInt(PREPARED_STATEMENT_CACHE_SIZE_KEY).ifPresent(builder::setPreparedStatementCacheSize);
+        connectionConfiguration.getInt(ASYNC_QUERY_PARALLELISM_KEY).ifPresent(builder::setAsyncQueryParallelism);
+        connectionConfiguration.getInt(QUERY_TIMEOUT_KEY).ifPresent(builder::setQueryTimeoutSeconds);
+        return builder.build();
     }
 
     private Configuration getDatabaseConnectionSubConfiguration(String connectionName)
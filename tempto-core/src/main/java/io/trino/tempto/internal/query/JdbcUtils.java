@@ -15,7 +15,6 @@
 package io.trino.tempto.internal.query;
 
 import io.trino.tempto.query.JdbcConnectivityParamsState;
-import org.apache.commons.dbcp2.BasicDataSource;
 
 import javax.sql.DataSource;
 
@@ -41,30 +40,19 @@ public final class JdbcUtils
         }
     }
 
+    /**
+     * @return data source which opens new physical connection every time a connection is requested
+     */
     public static DataSource dataSource(JdbcConnectivityParamsState jdbcParamsState)
     {
         if (jdbcParamsState.kerberosPrincipal.isPresent()) {
             return createKerberosDataSource(jdbcParamsState);
         }
-        else if (jdbcParamsState.pooling) {
-            return createPoolingDataSource(jdbcParamsState);
-        }
         else {
             return createNonPoolingDataSource(jdbcParamsState);
         }
     }
 
-    private static DataSource createPoolingDataSource(JdbcConnectivityParamsState jdbcParamsState)
-    {
-        BasicDataSource dataSource = new BasicDataSource();
-        dataSource.setDriverClassName(jdbcParamsState.driverClass);
-        dataSource.setUrl(jdbcParamsState.url);
-        dataSource.setUsername(jdbcParamsState.user);
-        dataSource.setPassword(jdbcParamsState.password);
-        dataSource.setDriverClassLoader(getDriverClassLoader(jdbcParamsState));
-        return dataSource;
-    }
-
     private static DataSource createNonPoolingDataSource(JdbcConnectivityParamsState jdbcParamsState)
     {
         return new NonPoolingJdbcDataSource(jdbcParamsState, getDatabaseDriver(jdbcParamsState));
@@ -27,21 +27,30 @@ import io.trino.tempto.query.JdbcConnectivityParamsState;
 import io.trino.tempto.query.JdbcQueryExecutor;
 import io.trino.tempto.query.QueryExecutor;
 import io.trino.tempto.query.QueryExecutorDispatcher;
+import io.trino.tempto.query.metrics.InMemoryQueryMetricsSink;
+import io.trino.tempto.query.metrics.JsonQueryMetricsSink;
+import io.trino.tempto.query.metrics.QueryMetricsSink;
 
 import javax.inject.Inject;
 
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.Set;
 
 import static com.google.inject.multibindings.MapBinder.newMapBinder;
 import static com.google.inject.name.Names.named;
+import static java.util.Locale.ENGLISH;
 
 public class QueryExecutorModuleProvider
         implements SuiteModuleProvider
 {
+    public static final String QUERY_METRICS_SINK_KEY = "query_metrics.sink";
+    public static final String QUERY_METRICS_JSON_PATH_KEY = "query_metrics.json_path";
+
     public Module getModule(Configuration configuration)
     {
         JdbcConnectionsPool jdbcConnectionsPool = new JdbcConnectionsPool();
+        QueryMetricsSink queryMetricsSink = createQueryMetricsSink(configuration);
         JdbcConnectionsConfiguration jdbcConnectionsConfiguration = new JdbcConnectionsConfiguration(configuration);
 
         return new AbstractModule()
@@ -50,6 +59,7 @@ public class QueryExecutorModuleProvider
             protected void configure()
             {
                 bind(JdbcConnectionsPool.class).toInstance(jdbcConnectionsPool);
+                bind(QueryMetricsSink.class).toInstance(queryMetricsSink);
                 Set<String> definedJdcbConnectionNames = jdbcConnectionsConfiguration.getDefinedJdcbConnectionNames();
                 for (String connectionName : definedJdcbConnectionNames) {
                     bindDatabaseConnectionBeans(connectionName);
@@ -85,4 +95,19 @@ public class QueryExecutorModuleProvider
             }
         };
     }
+
+    private static QueryMetricsSink createQueryMetricsSink(Configuration configuration)
+    {
+        String sink = configuration.getString(QUERY_METRICS_SINK_KEY).orElse("none");
+        switch (sink.toLowerCase(ENGLISH)) {
+            case "none":
+                return QueryMetricsSink.NONE;
+            case "memory":
+                return new InMemoryQueryMetricsSink();
+            case "json":
+                return new JsonQueryMetricsSink(Paths.get(configuration.getString(QUERY_METRICS_JSON_PATH_KEY).orElse("query-metrics.json")));
+            default:
+                throw new IllegalArgumentException("Unsupported query metrics sink: " + sink);
+        }
+    }
 }
@@ -15,64 +15,48 @@ package io.trino.tempto.internal.ssh;
 
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.Session;
 import io.trino.tempto.internal.process.CliProcessBase;
 import io.trino.tempto.process.CommandExecutionException;
 import io.trino.tempto.process.TimeoutRuntimeException;
-import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.time.Duration;
 
 import static java.lang.Thread.sleep;
-import static org.slf4j.LoggerFactory.getLogger;
 
 class JSchCliProcess
         extends CliProcessBase
 {
-    private static final Logger LOGGER = getLogger(JSchCliProcess.class);
-
-    private final Session session;
+    private final SshSessionPool.Lease<ChannelExec> lease;
     private final ChannelExec channel;
 
-    JSchCliProcess(Session session, ChannelExec channel)
+    JSchCliProcess(SshSessionPool.Lease<ChannelExec> lease)
             throws IOException
     {
-        super(channel.getInputStream(), channel.getErrStream(), channel.getOutputStream());
-        this.session = session;
-        this.channel = channel;
+        super(lease.getChannel().getInputStream(), lease.getChannel().getErrStream(), lease.getChannel().getOutputStream());
+        this.lease = lease;
+        this.channel = lease.getChannel();
     }
 
     void connect()
             throws JSchException
     {
-        channel.connect();
+        lease.connect();
     }
 
     @Override
     public void waitForWithTimeoutAndKill(Duration timeout)
             throws InterruptedException
     {
-        Thread thread = new Thread(() -> {
-            readRemainingOutputLines();
-            readRemainingErrorLines();
-            // active waiting based on http://www.jcraft.com/jsch/examples/Exec.java.html example
-            while (!channel.isClosed()) {
-                try {
-                    sleep(100);
-                }
-                catch (InterruptedException e) {
-                    LOGGER.error("Interrupted exception", e);
-                }
+        // output is drained by CliProcessBase, so the channel is closed as soon as the command finishes
+        long deadline = System.nanoTime() + timeout.toNanos();
+        // active waiting based on http://www.jcraft.com/jsch/examples/Exec.java.html example
+        while (!channel.isClosed()) {
+            if (System.nanoTime() - deadline >= 0) {
+                close();
+                throw new TimeoutRuntimeException("SSH channel did not finish within given timeout");
             }
-        });
-        thread.start();
-        thread.join(timeout.toMillis());
-
-        if (!channel.isClosed()) {
-            close();
-            thread.join();
-            throw new TimeoutRuntimeException("SSH channel did not finish within given timeout");
+            sleep(100);
         }
 
         close();
@@ -89,15 +73,10 @@ class JSchCliProcess
     public void close()
     {
         try {
-            channel.disconnect();
+            lease.close();
         }
         finally {
-            try {
-                session.disconnect();
-            }
-            finally {
-                super.close();
-            }
+            super.close();
         }
     }
 }
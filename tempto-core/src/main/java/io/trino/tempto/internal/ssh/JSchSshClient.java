@@ -14,10 +14,13 @@
 package io.trino.tempto.internal.ssh;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
 import com.google.common.io.ByteStreams;
 import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.ChannelSftp;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpException;
 import io.trino.tempto.process.CliProcess;
 import io.trino.tempto.ssh.SshClient;
 import org.slf4j.Logger;
@@ -28,9 +31,11 @@ import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.nio.file.Files.newInputStream;
 import static java.util.Objects.requireNonNull;
@@ -44,11 +49,19 @@ public class JSchSshClient
 {
     private static final Logger LOGGER = getLogger(JSchSshClient.class);
 
-    private final Supplier<Session> sessionSupplier;
+    public static final int DEFAULT_MAX_CHANNELS_PER_SESSION = 8;
+    public static final Duration DEFAULT_SESSION_IDLE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final SshSessionPool sessionPool;
 
     public JSchSshClient(Supplier<Session> sessionSupplier)
     {
-        this.sessionSupplier = requireNonNull(sessionSupplier, "sessionSupplier is null");
+        this(sessionSupplier, DEFAULT_MAX_CHANNELS_PER_SESSION, DEFAULT_SESSION_IDLE_TIMEOUT);
+    }
+
+    public JSchSshClient(Supplier<Session> sessionSupplier, int maxChannelsPerSession, Duration sessionIdleTimeout)
+    {
+        this.sessionPool = new SshSessionPool(requireNonNull(sessionSupplier, "sessionSupplier is null"), maxChannelsPerSession, sessionIdleTimeout);
     }
 
     @Override
@@ -60,44 +73,39 @@ public class JSchSshClient
     @Override
     public CliProcess execute(String command)
     {
+        SshSessionPool.Lease<ChannelExec> lease = null;
         try {
-            Session session = createSession();
+            lease = sessionPool.openChannel("exec", ChannelExec.class);
+            Session session = lease.getSession();
             LOGGER.info("Executing on {}@{}:{}: {}", session.getUserName(), session.getHost(), session.getPort(), command);
-            ChannelExec channel = (ChannelExec) session.openChannel("exec");
-            channel.setCommand(command);
-            JSchCliProcess process = new JSchCliProcess(session, channel);
+            lease.getChannel().setCommand(command);
+            JSchCliProcess process = new JSchCliProcess(lease);
             process.connect();
             return process;
         }
-        catch (JSchException | IOException exception) {
+        catch (JSchException | IOException | RuntimeException exception) {
+            if (lease != null) {
+                lease.close();
+            }
+            Throwables.throwIfUnchecked(exception);
             throw new RuntimeException(exception);
         }
     }
 
-    private Session createSession()
-            throws JSchException
-    {
-        Session session = sessionSupplier.get();
-        session.setDaemonThread(true);
-        session.connect();
-        return session;
-    }
-
     @Override
     public void upload(Path file, String remotePath)
     {
-        Session session = null;
-        try {
-            session = createSession();
+        try (SshSessionPool.Lease<ChannelExec> lease = sessionPool.openChannel("exec", ChannelExec.class)) {
+            Session session = lease.getSession();
             LOGGER.info("Uploading {} onto {}@{}:{}:{}", file, session.getUserName(), session.getHost(), session.getPort(), remotePath);
-            ChannelExec channel = (ChannelExec) session.openChannel("exec");
+            ChannelExec channel = lease.getChannel();
             String command = "scp -t " + remotePath;
             channel.setCommand(command);
 
             OutputStream out = channel.getOutputStream();
             InputStream in = channel.getInputStream();
 
-            sendSCPFile(file, channel, in, out);
+            sendSCPFile(file, lease, in, out);
         }
         catch (JSchException e) {
             throw new RuntimeException(e);
@@ -105,15 +113,34 @@ public class JSchSshClient
         catch (IOException e) {
             throw new UncheckedIOException(e);
         }
-        finally {
-            if (session != null) { session.disconnect(); }
+    }
+
+    /**
+     * Uploads directory over a single SFTP channel, see {@link SftpDirectoryUploader}.
+     */
+    @Override
+    public void uploadDirectory(Path directory, String remoteDirectory)
+    {
+        checkArgument(Files.isDirectory(directory), "Not a directory: %s", directory);
+        try (SshSessionPool.Lease<ChannelSftp> lease = sessionPool.openChannel("sftp", ChannelSftp.class)) {
+            Session session = lease.getSession();
+            LOGGER.info("Uploading directory {} onto {}@{}:{}:{}", directory, session.getUserName(), session.getHost(), session.getPort(), remoteDirectory);
+            lease.connect();
+            new SftpDirectoryUploader(lease.getChannel()).upload(directory, remoteDirectory);
+        }
+        catch (JSchException | SftpException e) {
+            throw new RuntimeException(e);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private void sendSCPFile(Path file, ChannelExec channel, InputStream in, OutputStream out)
+    private void sendSCPFile(Path file, SshSessionPool.Lease<ChannelExec> lease, InputStream in, OutputStream out)
             throws IOException, JSchException
     {
-        channel.connect();
+        ChannelExec channel = lease.getChannel();
+        lease.connect();
         try {
             checkAck(channel, in);
 
@@ -152,9 +179,19 @@ public class JSchSshClient
         }
     }
 
+    /**
+     * @return number of connected SSH sessions, opened channels and time it took to connect them
+     */
+    public SshSessionPool.Stats getStats()
+    {
+        return sessionPool.getStats();
+    }
+
     @Override
     public void close()
     {
+        LOGGER.debug("Closing SSH client: {}", sessionPool.getStats());
+        sessionPool.close();
     }
 
     private Iterable<String> quote(List<String> command)
@@ -21,9 +21,14 @@ import io.trino.tempto.ssh.SshClient;
 import io.trino.tempto.ssh.SshClientFactory;
 import org.slf4j.Logger;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Properties;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.trino.tempto.internal.ssh.JSchSshClient.DEFAULT_MAX_CHANNELS_PER_SESSION;
+import static io.trino.tempto.internal.ssh.JSchSshClient.DEFAULT_SESSION_IDLE_TIMEOUT;
+import static java.util.Objects.requireNonNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class JschSshClientFactory
@@ -32,6 +37,25 @@ public class JschSshClientFactory
     private static final Logger LOGGER = getLogger(JschSshClientFactory.class);
 
     private final JSch jSch = new JSch();
+    private final int maxChannelsPerSession;
+    private final Duration sessionIdleTimeout;
+    private final boolean compression;
+
+    public JschSshClientFactory()
+    {
+        this(DEFAULT_MAX_CHANNELS_PER_SESSION, DEFAULT_SESSION_IDLE_TIMEOUT, false);
+    }
+
+    /**
+     * @param compression whether to compress transferred data with zlib, if it is supported by the server
+     */
+    public JschSshClientFactory(int maxChannelsPerSession, Duration sessionIdleTimeout, boolean compression)
+    {
+        checkArgument(maxChannelsPerSession > 0, "maxChannelsPerSession must be greater than 0: %s", maxChannelsPerSession);
+        this.maxChannelsPerSession = maxChannelsPerSession;
+        this.sessionIdleTimeout = requireNonNull(sessionIdleTimeout, "sessionIdleTimeout is null");
+        this.compression = compression;
+    }
 
     @Override
     public SshClient create(String host, int port, String user, Optional<String> password)
@@ -50,7 +74,7 @@ public class JschSshClientFactory
             catch (JSchException e) {
                 throw new RuntimeException(e);
             }
-        });
+        }, maxChannelsPerSession, sessionIdleTimeout);
     }
 
     @Override
@@ -69,6 +93,10 @@ public class JschSshClientFactory
     {
         Properties config = new Properties();
         config.put("StrictHostKeyChecking", "no");
+        if (compression) {
+            config.put("compression.s2c", "zlib@openssh.com,zlib,none");
+            config.put("compression.c2s", "zlib@openssh.com,zlib,none");
+        }
         return config;
     }
 }
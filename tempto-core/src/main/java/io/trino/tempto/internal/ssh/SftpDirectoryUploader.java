@@ -0,0 +1,265 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.ssh;
+
+import com.google.common.collect.ImmutableList;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.ChannelSftp.LsEntrySelector;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.Iterables.transform;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Uploads a local directory tree over a single SFTP channel.
+ * <p>
+ * Files which exist on the remote machine with the same size and modification time are skipped.
+ * A file is first written to a temporary remote file which is renamed when the file is complete,
+ * so an interrupted upload is resumed from where it stopped the next time the directory is uploaded.
+ * The name of the temporary file contains size and modification time of the local file, so only
+ * uploads of the same version of the file are resumed. Temporary files of other versions are removed.
+ */
+class SftpDirectoryUploader
+{
+    private static final Logger LOGGER = getLogger(SftpDirectoryUploader.class);
+
+    static final String PARTIAL_UPLOAD_SUFFIX = ".tempto-part";
+
+    private final ChannelSftp channel;
+    // names of partially uploaded files by remote directory
+    private final Map<String, List<String>> partialUploads = new HashMap<>();
+
+    private int filesUploaded;
+    private int filesResumed;
+    private int filesSkipped;
+    private long bytesUploaded;
+
+    SftpDirectoryUploader(ChannelSftp channel)
+    {
+        this.channel = requireNonNull(channel, "channel is null");
+    }
+
+    void upload(Path directory, String remoteDirectory)
+            throws IOException, SftpException
+    {
+        long start = System.nanoTime();
+        makeDirectories(remoteDirectory);
+        listPartialUploads(remoteDirectory);
+        try (Stream<Path> paths = Files.walk(directory)) {
+            // walk visits directories before their content
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.equals(directory)) {
+                    continue;
+                }
+                String remotePath = remoteDirectory + "/" + String.join("/", transform(directory.relativize(path), Path::toString));
+                if (Files.isDirectory(path)) {
+                    if (makeDirectory(remotePath)) {
+                        listPartialUploads(remotePath);
+                    }
+                }
+                else if (Files.isRegularFile(path)) {
+                    uploadFile(path, remotePath);
+                }
+            }
+        }
+        LOGGER.info("Uploaded {} files ({} resumed, {} bytes) and skipped {} unchanged files from {} in {} ms",
+                filesUploaded, filesResumed, bytesUploaded, filesSkipped, directory, NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    int getFilesUploaded()
+    {
+        return filesUploaded;
+    }
+
+    int getFilesResumed()
+    {
+        return filesResumed;
+    }
+
+    int getFilesSkipped()
+    {
+        return filesSkipped;
+    }
+
+    long getBytesUploaded()
+    {
+        return bytesUploaded;
+    }
+
+    private void uploadFile(Path file, String remotePath)
+            throws IOException, SftpException
+    {
+        long size = Files.size(file);
+        int modificationTime = (int) Files.getLastModifiedTime(file).to(SECONDS);
+
+        Optional<SftpATTRS> remoteFile = stat(remotePath);
+        if (remoteFile.isPresent() && remoteFile.get().getSize() == size && remoteFile.get().getMTime() == modificationTime) {
+            filesSkipped++;
+            return;
+        }
+
+        String remoteDirectory = remotePath.substring(0, remotePath.lastIndexOf('/'));
+        String fileName = file.getFileName().toString();
+        String partialName = partialUploadName(fileName, size, modificationTime);
+        String partialPath = remoteDirectory + "/" + partialName;
+        long uploadedSize = 0;
+        List<String> directoryPartialUploads = partialUploads.getOrDefault(remoteDirectory, ImmutableList.of());
+        if (!directoryPartialUploads.isEmpty()) {
+            Pattern partialUploadPattern = Pattern.compile(Pattern.quote(fileName) + "\\.\\d+--?\\d+" + Pattern.quote(PARTIAL_UPLOAD_SUFFIX));
+            for (String partialUpload : directoryPartialUploads) {
+                if (partialUpload.equals(partialName)) {
+                    uploadedSize = stat(partialPath)
+                            .map(SftpATTRS::getSize)
+                            .filter(partialSize -> partialSize <= size)
+                            .orElse(0L);
+                }
+                else if (partialUploadPattern.matcher(partialUpload).matches()) {
+                    LOGGER.debug("Removing partial upload {} of another version of {}", partialUpload, file);
+                    channel.rm(remoteDirectory + "/" + partialUpload);
+                }
+            }
+        }
+        if (uploadedSize > 0) {
+            LOGGER.debug("Resuming upload of {} from byte {}", file, uploadedSize);
+            filesResumed++;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            // in RESUME mode JSch skips as many bytes of the input as the remote file already has
+            channel.put(in, partialPath, null, uploadedSize > 0 ? ChannelSftp.RESUME : ChannelSftp.OVERWRITE);
+        }
+
+        if (remoteFile.isPresent()) {
+            // SFTP rename does not replace existing files
+            channel.rm(remotePath);
+        }
+        channel.rename(partialPath, remotePath);
+        permissions(file).ifPresent(permissions -> chmod(permissions, remotePath));
+        channel.setMtime(remotePath, modificationTime);
+
+        filesUploaded++;
+        bytesUploaded += size - uploadedSize;
+    }
+
+    static String partialUploadName(String fileName, long size, int modificationTime)
+    {
+        return fileName + "." + size + "-" + modificationTime + PARTIAL_UPLOAD_SUFFIX;
+    }
+
+    private void listPartialUploads(String remoteDirectory)
+            throws SftpException
+    {
+        List<String> names = new ArrayList<>();
+        channel.ls(remoteDirectory, entry -> {
+            if (entry.getFilename().endsWith(PARTIAL_UPLOAD_SUFFIX)) {
+                names.add(entry.getFilename());
+            }
+            return LsEntrySelector.CONTINUE;
+        });
+        partialUploads.put(remoteDirectory, names);
+    }
+
+    private void chmod(int permissions, String remotePath)
+    {
+        try {
+            channel.chmod(permissions, remotePath);
+        }
+        catch (SftpException e) {
+            LOGGER.debug("Could not change permissions of {}", remotePath, e);
+        }
+    }
+
+    private void makeDirectories(String remoteDirectory)
+            throws SftpException
+    {
+        StringBuilder path = new StringBuilder();
+        if (remoteDirectory.startsWith("/")) {
+            path.append('/');
+        }
+        for (String name : remoteDirectory.split("/")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            path.append(name);
+            makeDirectory(path.toString());
+            path.append('/');
+        }
+    }
+
+    /**
+     * @return whether the directory already existed
+     */
+    private boolean makeDirectory(String remoteDirectory)
+            throws SftpException
+    {
+        Optional<SftpATTRS> attributes = stat(remoteDirectory);
+        if (!attributes.isPresent()) {
+            channel.mkdir(remoteDirectory);
+            return false;
+        }
+        if (!attributes.get().isDir()) {
+            throw new IllegalStateException("Remote path is not a directory: " + remoteDirectory);
+        }
+        return true;
+    }
+
+    private Optional<SftpATTRS> stat(String remotePath)
+            throws SftpException
+    {
+        try {
+            return Optional.of(channel.stat(remotePath));
+        }
+        catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    private static Optional<Integer> permissions(Path file)
+            throws IOException
+    {
+        if (!file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return Optional.empty();
+        }
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(file);
+        int mode = 0;
+        for (PosixFilePermission permission : PosixFilePermission.values()) {
+            mode <<= 1;
+            if (permissions.contains(permission)) {
+                mode |= 1;
+            }
+        }
+        return Optional.of(mode);
+    }
+}
@@ -21,9 +21,12 @@ import io.trino.tempto.initialization.SuiteModuleProvider;
 import io.trino.tempto.ssh.SshClient;
 import io.trino.tempto.ssh.SshClientFactory;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static com.google.inject.name.Names.named;
+import static io.trino.tempto.internal.ssh.JSchSshClient.DEFAULT_MAX_CHANNELS_PER_SESSION;
+import static io.trino.tempto.internal.ssh.JSchSshClient.DEFAULT_SESSION_IDLE_TIMEOUT;
 
 public class SshClientModuleProvider
         implements SuiteModuleProvider
@@ -31,6 +34,9 @@ public class SshClientModuleProvider
     private static final String SSH_KEY = "ssh";
     private static final String ROLES_KEY = "roles";
     private static final String IDENTITY_KEY = "identity";
+    private static final String MAX_CHANNELS_PER_SESSION_KEY = "max_channels_per_session";
+    private static final String SESSION_IDLE_TIMEOUT_SECONDS_KEY = "session_idle_timeout_seconds";
+    private static final String COMPRESSION_KEY = "compression";
 
     private static final String HOST_KEY = "host";
     private static final String PORT_KEY = "port";
@@ -41,6 +47,11 @@ public class SshClientModuleProvider
     {
         Configuration sshConfiguration = configuration.getSubconfiguration(SSH_KEY);
         Optional<String> identity = sshConfiguration.getString(IDENTITY_KEY);
+        int maxChannelsPerSession = sshConfiguration.getInt(MAX_CHANNELS_PER_SESSION_KEY).orElse(DEFAULT_MAX_CHANNELS_PER_SESSION);
+        Duration sessionIdleTimeout = sshConfiguration.getInt(SESSION_IDLE_TIMEOUT_SECONDS_KEY)
+                .map(Duration::ofSeconds)
+                .orElse(DEFAULT_SESSION_IDLE_TIMEOUT);
+        boolean compression = sshConfiguration.getBoolean(COMPRESSION_KEY).orElse(false);
 
         Configuration rolesConfiguration = sshConfiguration.getSubconfiguration(ROLES_KEY);
         return new AbstractModule()
@@ -48,7 +59,7 @@ public class SshClientModuleProvider
             @Override
             protected void configure()
             {
-                JschSshClientFactory sshClientFactory = new JschSshClientFactory();
+                JschSshClientFactory sshClientFactory = new JschSshClientFactory(maxChannelsPerSession, sessionIdleTimeout, compression);
                 identity.ifPresent(identityValue -> sshClientFactory.addIdentity(identityValue));
                 bind(SshClientFactory.class).toInstance(sshClientFactory);
 
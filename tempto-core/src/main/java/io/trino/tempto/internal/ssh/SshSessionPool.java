@@ -0,0 +1,386 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.ssh;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Pool of authenticated SSH sessions to a single host and user. Channels are multiplexed over pooled sessions,
+ * a new session is connected only when all sessions have {@code maxChannelsPerSession} open channels.
+ * Sessions idle for longer than {@code idleTimeout} are disconnected, sessions idle for a shorter time
+ * are checked with a keep alive message before they are reused.
+ */
+public final class SshSessionPool
+{
+    private static final Logger LOGGER = getLogger(SshSessionPool.class);
+
+    // idle sessions are disconnected also when pool is not used, e.g. by clients which are never closed;
+    // eviction is scheduled only while pool has sessions, so the executor does not keep references to unused pools
+    private static final ScheduledExecutorService IDLE_SESSIONS_EVICTOR = newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("ssh-idle-sessions-evictor-%s")
+                    .setDaemon(true)
+                    .build());
+
+    private final Supplier<Session> sessionSupplier;
+    private final int maxChannelsPerSession;
+    private final long idleTimeoutNanos;
+    private final long evictionIntervalMillis;
+    private final Stats stats = new Stats();
+
+    private final List<PooledSession> sessions = new ArrayList<>();
+    private ScheduledFuture<?> idleSessionsEviction;
+    private boolean closed;
+
+    SshSessionPool(Supplier<Session> sessionSupplier, int maxChannelsPerSession, Duration idleTimeout)
+    {
+        this.sessionSupplier = requireNonNull(sessionSupplier, "sessionSupplier is null");
+        checkArgument(maxChannelsPerSession > 0, "maxChannelsPerSession must be greater than 0: %s", maxChannelsPerSession);
+        this.maxChannelsPerSession = maxChannelsPerSession;
+        this.idleTimeoutNanos = requireNonNull(idleTimeout, "idleTimeout is null").toNanos();
+        checkArgument(idleTimeoutNanos > 0, "idleTimeout must be positive: %s", idleTimeout);
+        this.evictionIntervalMillis = Math.max(1000, idleTimeout.toMillis() / 2);
+    }
+
+    /**
+     * Opens a channel of given type on a pooled session. The channel is not connected.
+     * {@link Lease#close()} has to be called when the channel is not used any more.
+     */
+    <T extends Channel> Lease<T> openChannel(String type, Class<T> channelClass)
+            throws JSchException
+    {
+        PooledSession session = acquire();
+        try {
+            return new Lease<>(session, channelClass.cast(session.session.openChannel(type)));
+        }
+        catch (JSchException | RuntimeException e) {
+            // session might have been broken, do not reuse it
+            discard(session);
+            throw e;
+        }
+    }
+
+    private PooledSession acquire()
+            throws JSchException
+    {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Session pool is closed");
+            }
+            evictIdleSessions();
+            for (PooledSession session : sessions) {
+                if (session.openChannels < maxChannelsPerSession && isHealthy(session)) {
+                    session.openChannels++;
+                    return session;
+                }
+            }
+        }
+
+        PooledSession session = new PooledSession(connect());
+        synchronized (this) {
+            if (closed) {
+                session.session.disconnect();
+                throw new IllegalStateException("Session pool is closed");
+            }
+            session.openChannels++;
+            sessions.add(session);
+            if (idleSessionsEviction == null) {
+                idleSessionsEviction = IDLE_SESSIONS_EVICTOR.scheduleWithFixedDelay(this::evictIdleSessions, evictionIntervalMillis, evictionIntervalMillis, MILLISECONDS);
+            }
+        }
+        return session;
+    }
+
+    private Session connect()
+            throws JSchException
+    {
+        Session session = sessionSupplier.get();
+        session.setDaemonThread(true);
+        long start = System.nanoTime();
+        // connect covers TCP connect, key exchange and user authentication
+        session.connect();
+        long connectNanos = System.nanoTime() - start;
+        stats.sessionConnected(connectNanos);
+        LOGGER.debug("Connected to {}@{}:{} in {} ms", session.getUserName(), session.getHost(), session.getPort(), NANOSECONDS.toMillis(connectNanos));
+        return session;
+    }
+
+    private boolean isHealthy(PooledSession session)
+    {
+        if (!session.session.isConnected()) {
+            return false;
+        }
+        if (session.openChannels > 0) {
+            return true;
+        }
+        try {
+            session.session.sendKeepAliveMsg();
+            return true;
+        }
+        catch (Exception e) {
+            LOGGER.debug("SSH session to {} is broken", session.session.getHost(), e);
+            session.session.disconnect();
+            return false;
+        }
+    }
+
+    private synchronized void evictIdleSessions()
+    {
+        long now = System.nanoTime();
+        Iterator<PooledSession> iterator = sessions.iterator();
+        while (iterator.hasNext()) {
+            PooledSession session = iterator.next();
+            boolean idleTimedOut = session.openChannels == 0 && now - session.idleSinceNanos > idleTimeoutNanos;
+            if (idleTimedOut || !session.session.isConnected()) {
+                iterator.remove();
+                session.retired = true;
+                stats.sessionClosed();
+                if (session.openChannels == 0) {
+                    session.session.disconnect();
+                }
+            }
+        }
+        cancelIdleSessionsEvictionIfEmpty();
+    }
+
+    private synchronized void release(PooledSession session)
+    {
+        session.openChannels--;
+        if (session.openChannels == 0) {
+            session.idleSinceNanos = System.nanoTime();
+            if (session.retired) {
+                session.session.disconnect();
+            }
+        }
+    }
+
+    private synchronized void discard(PooledSession session)
+    {
+        retire(session);
+        release(session);
+    }
+
+    /**
+     * Removes session from the pool. It is disconnected when its last channel is closed.
+     */
+    private synchronized void retire(PooledSession session)
+    {
+        if (sessions.remove(session)) {
+            session.retired = true;
+            stats.sessionClosed();
+            if (session.openChannels == 0) {
+                session.session.disconnect();
+            }
+        }
+        cancelIdleSessionsEvictionIfEmpty();
+    }
+
+    private synchronized void cancelIdleSessionsEvictionIfEmpty()
+    {
+        if (sessions.isEmpty() && idleSessionsEviction != null) {
+            idleSessionsEviction.cancel(false);
+            idleSessionsEviction = null;
+        }
+    }
+
+    /**
+     * Disconnects idle sessions. Sessions with open channels are disconnected when their last channel is closed.
+     */
+    synchronized void close()
+    {
+        closed = true;
+        new ArrayList<>(sessions).forEach(this::retire);
+    }
+
+    @VisibleForTesting
+    synchronized boolean isIdleSessionsEvictionScheduled()
+    {
+        return idleSessionsEviction != null;
+    }
+
+    Stats getStats()
+    {
+        return stats;
+    }
+
+    private static class PooledSession
+    {
+        private final Session session;
+        private int openChannels;
+        private long idleSinceNanos = System.nanoTime();
+        private boolean retired;
+
+        private PooledSession(Session session)
+        {
+            this.session = session;
+        }
+    }
+
+    /**
+     * Channel opened on a pooled session.
+     */
+    final class Lease<T extends Channel>
+            implements AutoCloseable
+    {
+        private final PooledSession session;
+        private final T channel;
+        private boolean closed;
+
+        private Lease(PooledSession session, T channel)
+        {
+            this.session = session;
+            this.channel = channel;
+        }
+
+        T getChannel()
+        {
+            return channel;
+        }
+
+        Session getSession()
+        {
+            return session.session;
+        }
+
+        /**
+         * Connects the channel, recording time it took.
+         */
+        void connect()
+                throws JSchException
+        {
+            long start = System.nanoTime();
+            channel.connect();
+            stats.channelOpened(System.nanoTime() - start);
+        }
+
+        /**
+         * Disconnects the channel and returns its session to the pool.
+         */
+        @Override
+        public void close()
+        {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            try {
+                channel.disconnect();
+            }
+            finally {
+                release(session);
+            }
+        }
+    }
+
+    /**
+     * Counters of SSH sessions and channels.
+     */
+    public static class Stats
+    {
+        private final AtomicLong sessionsConnected = new AtomicLong();
+        private final AtomicLong sessionsClosed = new AtomicLong();
+        private final AtomicLong connectNanos = new AtomicLong();
+        private final AtomicLong maxConnectNanos = new AtomicLong();
+        private final AtomicLong channelsOpened = new AtomicLong();
+        private final AtomicLong channelOpenNanos = new AtomicLong();
+
+        private void sessionConnected(long nanos)
+        {
+            sessionsConnected.incrementAndGet();
+            connectNanos.addAndGet(nanos);
+            maxConnectNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private void sessionClosed()
+        {
+            sessionsClosed.incrementAndGet();
+        }
+
+        private void channelOpened(long nanos)
+        {
+            channelsOpened.incrementAndGet();
+            channelOpenNanos.addAndGet(nanos);
+        }
+
+        public long getSessionsConnected()
+        {
+            return sessionsConnected.get();
+        }
+
+        public long getSessionsClosed()
+        {
+            return sessionsClosed.get();
+        }
+
+        /**
+         * @return average time of TCP connect, key exchange and authentication of a session
+         */
+        public Duration getAverageConnectTime()
+        {
+            long sessions = sessionsConnected.get();
+            return Duration.ofNanos(sessions == 0 ? 0 : connectNanos.get() / sessions);
+        }
+
+        public Duration getMaxConnectTime()
+        {
+            return Duration.ofNanos(maxConnectNanos.get());
+        }
+
+        public long getChannelsOpened()
+        {
+            return channelsOpened.get();
+        }
+
+        public Duration getAverageChannelOpenTime()
+        {
+            long channels = channelsOpened.get();
+            return Duration.ofNanos(channels == 0 ? 0 : channelOpenNanos.get() / channels);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("sessions connected: %s, closed: %s, average connect time: %s ms, max connect time: %s ms, channels opened: %s, average channel open time: %s ms",
+                    getSessionsConnected(),
+                    getSessionsClosed(),
+                    getAverageConnectTime().toMillis(),
+                    getMaxConnectTime().toMillis(),
+                    getChannelsOpened(),
+                    getAverageChannelOpenTime().toMillis());
+        }
+    }
+}
@@ -27,6 +27,11 @@ import static java.util.stream.Collectors.toList;
 public interface CliProcess
         extends Closeable
 {
+    /**
+     * Timeout of {@link #waitForWithTimeoutAndKill()}.
+     */
+    Duration DEFAULT_TIMEOUT = Duration.ofSeconds(20);
+
     static List<String> trimLines(List<String> lines)
     {
         return lines.stream().map(String::trim).collect(toList());
@@ -36,6 +41,37 @@ public interface CliProcess
 
     String nextOutputLine();
 
+    /**
+     * The default implementation ignores the timeout and waits until the process writes a line,
+     * implementations which are able to wait with a timeout should override it.
+     *
+     * @throws TimeoutRuntimeException if the process does not write a line within given timeout
+     */
+    default String nextOutputLine(Duration timeout)
+            throws TimeoutRuntimeException
+    {
+        return nextOutputLine();
+    }
+
+    /**
+     * Skips output lines until a line containing given pattern is written by the process.
+     * The default implementation ignores the timeout, see {@link #nextOutputLine(Duration)}.
+     *
+     * @return the first line containing the pattern
+     * @throws TimeoutRuntimeException if the process does not write such line within given timeout
+     * @throws java.util.NoSuchElementException if the process output ends without such line
+     */
+    default String nextOutputLine(Pattern pattern, Duration timeout)
+            throws TimeoutRuntimeException
+    {
+        while (true) {
+            String line = nextOutputLine(timeout);
+            if (pattern.matcher(line).find()) {
+                return line;
+            }
+        }
+    }
+
     String nextOutputToken();
 
     boolean hasNextOutputLine();
@@ -48,6 +84,29 @@ public interface CliProcess
 
     String nextErrorLine();
 
+    /**
+     * @see #nextOutputLine(Duration)
+     */
+    default String nextErrorLine(Duration timeout)
+            throws TimeoutRuntimeException
+    {
+        return nextErrorLine();
+    }
+
+    /**
+     * @see #nextOutputLine(Pattern, Duration)
+     */
+    default String nextErrorLine(Pattern pattern, Duration timeout)
+            throws TimeoutRuntimeException
+    {
+        while (true) {
+            String line = nextErrorLine(timeout);
+            if (pattern.matcher(line).find()) {
+                return line;
+            }
+        }
+    }
+
     String nextErrorToken();
 
     boolean hasNextErrorLine();
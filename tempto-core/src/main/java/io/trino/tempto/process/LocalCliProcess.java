@@ -29,7 +29,16 @@ public class LocalCliProcess
 
     public LocalCliProcess(Process process)
     {
-        super(process.getInputStream(), process.getErrorStream(), process.getOutputStream());
+        this(process, DEFAULT_OUTPUT_BUFFER_SIZE, true);
+    }
+
+    /**
+     * @param outputBufferSize number of chars of output and error streams kept in memory
+     * @param spillToFile whether output which does not fit into memory is spilled to a temporary file
+     */
+    public LocalCliProcess(Process process, int outputBufferSize, boolean spillToFile)
+    {
+        super(process.getInputStream(), process.getErrorStream(), process.getOutputStream(), outputBufferSize, spillToFile);
         this.process = process;
     }
 
@@ -0,0 +1,391 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.query;
+
+import java.sql.JDBCType;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Single column of a {@link QueryResult}.
+ * <p>
+ * Values of BIGINT, INTEGER, DOUBLE and BOOLEAN columns are stored in primitive arrays,
+ * character columns are dictionary encoded and nulls are tracked in a separate bitmap.
+ * If a column contains a value of an unexpected Java type, it falls back to storing boxed objects.
+ */
+abstract class ColumnVector
+        extends AbstractList<Object>
+        implements RandomAccess
+{
+    private final int size;
+
+    private ColumnVector(int size)
+    {
+        this.size = size;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public Object get(int position)
+    {
+        checkElementIndex(position, size);
+        return getValue(position);
+    }
+
+    protected abstract Object getValue(int position);
+
+    static Builder builder(JDBCType type)
+    {
+        return new Builder(Encoding.forType(requireNonNull(type, "type is null")));
+    }
+
+    private enum Encoding
+    {
+        LONG(Long.class),
+        INTEGER(Integer.class),
+        DOUBLE(Double.class),
+        BOOLEAN(Boolean.class),
+        DICTIONARY(String.class),
+        OBJECT(Object.class);
+
+        private final Class<?> javaType;
+
+        Encoding(Class<?> javaType)
+        {
+            this.javaType = javaType;
+        }
+
+        boolean accepts(Object value)
+        {
+            return javaType.isInstance(value);
+        }
+
+        static Encoding forType(JDBCType type)
+        {
+            switch (type) {
+                case BIGINT:
+                    return LONG;
+                case INTEGER:
+                    return INTEGER;
+                case DOUBLE:
+                    return DOUBLE;
+                case BOOLEAN:
+                case BIT:
+                    return BOOLEAN;
+                case CHAR:
+                case VARCHAR:
+                case LONGVARCHAR:
+                case NCHAR:
+                case NVARCHAR:
+                case LONGNVARCHAR:
+                    return DICTIONARY;
+                default:
+                    return OBJECT;
+            }
+        }
+    }
+
+    static final class Builder
+    {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private Encoding encoding;
+        private int size;
+        private final BitSet nulls = new BitSet();
+
+        // LONG and DOUBLE (raw bits)
+        private long[] longs;
+        // INTEGER and DICTIONARY (dictionary ids)
+        private int[] ints;
+        // BOOLEAN
+        private BitSet booleans;
+        // DICTIONARY
+        private Map<String, Integer> dictionaryIds;
+        private List<String> dictionary;
+        // OBJECT
+        private List<Object> objects;
+
+        private Builder(Encoding encoding)
+        {
+            this.encoding = encoding;
+            switch (encoding) {
+                case LONG:
+                case DOUBLE:
+                    longs = new long[INITIAL_CAPACITY];
+                    break;
+                case INTEGER:
+                    ints = new int[INITIAL_CAPACITY];
+                    break;
+                case BOOLEAN:
+                    booleans = new BitSet();
+                    break;
+                case DICTIONARY:
+                    ints = new int[INITIAL_CAPACITY];
+                    dictionaryIds = new HashMap<>();
+                    dictionary = new ArrayList<>();
+                    break;
+                case OBJECT:
+                    objects = new ArrayList<>();
+                    break;
+            }
+        }
+
+        void append(Object value)
+        {
+            if (value != null && !encoding.accepts(value)) {
+                switchToObjects();
+            }
+
+            if (encoding == Encoding.OBJECT) {
+                objects.add(value);
+                size++;
+                return;
+            }
+
+            if (value == null) {
+                nulls.set(size);
+            }
+            switch (encoding) {
+                case LONG:
+                    longs = ensureCapacity(longs, size);
+                    longs[size] = value == null ? 0 : (Long) value;
+                    break;
+                case DOUBLE:
+                    longs = ensureCapacity(longs, size);
+                    longs[size] = value == null ? 0 : Double.doubleToRawLongBits((Double) value);
+                    break;
+                case INTEGER:
+                    ints = ensureCapacity(ints, size);
+                    ints[size] = value == null ? 0 : (Integer) value;
+                    break;
+                case BOOLEAN:
+                    booleans.set(size, value != null && (Boolean) value);
+                    break;
+                case DICTIONARY:
+                    ints = ensureCapacity(ints, size);
+                    ints[size] = value == null ? 0 : dictionaryId((String) value);
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected encoding: " + encoding);
+            }
+            size++;
+        }
+
+        ColumnVector build()
+        {
+            switch (encoding) {
+                case LONG:
+                    return new LongColumnVector(size, Arrays.copyOf(longs, size), copyNulls());
+                case DOUBLE:
+                    return new DoubleColumnVector(size, Arrays.copyOf(longs, size), copyNulls());
+                case INTEGER:
+                    return new IntegerColumnVector(size, Arrays.copyOf(ints, size), copyNulls());
+                case BOOLEAN:
+                    return new BooleanColumnVector(size, (BitSet) booleans.clone(), copyNulls());
+                case DICTIONARY:
+                    return new DictionaryColumnVector(size, Arrays.copyOf(ints, size), dictionary.toArray(new String[0]), copyNulls());
+                case OBJECT:
+                    return new ObjectColumnVector(objects.toArray());
+                default:
+                    throw new IllegalStateException("Unexpected encoding: " + encoding);
+            }
+        }
+
+        private int dictionaryId(String value)
+        {
+            Integer id = dictionaryIds.get(value);
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.add(value);
+                dictionaryIds.put(value, id);
+            }
+            return id;
+        }
+
+        private void switchToObjects()
+        {
+            ColumnVector current = build();
+            objects = new ArrayList<>(Math.max(INITIAL_CAPACITY, size * 2));
+            objects.addAll(current);
+            encoding = Encoding.OBJECT;
+            nulls.clear();
+            longs = null;
+            ints = null;
+            booleans = null;
+            dictionaryIds = null;
+            dictionary = null;
+        }
+
+        private BitSet copyNulls()
+        {
+            return (BitSet) nulls.clone();
+        }
+
+        private static long[] ensureCapacity(long[] array, int position)
+        {
+            if (position < array.length) {
+                return array;
+            }
+            return Arrays.copyOf(array, newCapacity(array.length));
+        }
+
+        private static int[] ensureCapacity(int[] array, int position)
+        {
+            if (position < array.length) {
+                return array;
+            }
+            return Arrays.copyOf(array, newCapacity(array.length));
+        }
+
+        private static int newCapacity(int capacity)
+        {
+            return Math.max(INITIAL_CAPACITY, capacity + (capacity >> 1));
+        }
+    }
+
+    private static final class LongColumnVector
+            extends ColumnVector
+    {
+        private final long[] values;
+        private final BitSet nulls;
+
+        private LongColumnVector(int size, long[] values, BitSet nulls)
+        {
+            super(size);
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        @Override
+        protected Object getValue(int position)
+        {
+            return nulls.get(position) ? null : values[position];
+        }
+    }
+
+    private static final class DoubleColumnVector
+            extends ColumnVector
+    {
+        private final long[] rawBits;
+        private final BitSet nulls;
+
+        private DoubleColumnVector(int size, long[] rawBits, BitSet nulls)
+        {
+            super(size);
+            this.rawBits = rawBits;
+            this.nulls = nulls;
+        }
+
+        @Override
+        protected Object getValue(int position)
+        {
+            return nulls.get(position) ? null : Double.longBitsToDouble(rawBits[position]);
+        }
+    }
+
+    private static final class IntegerColumnVector
+            extends ColumnVector
+    {
+        private final int[] values;
+        private final BitSet nulls;
+
+        private IntegerColumnVector(int size, int[] values, BitSet nulls)
+        {
+            super(size);
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        @Override
+        protected Object getValue(int position)
+        {
+            return nulls.get(position) ? null : values[position];
+        }
+    }
+
+    private static final class BooleanColumnVector
+            extends ColumnVector
+    {
+        private final BitSet values;
+        private final BitSet nulls;
+
+        private BooleanColumnVector(int size, BitSet values, BitSet nulls)
+        {
+            super(size);
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        @Override
+        protected Object getValue(int position)
+        {
+            return nulls.get(position) ? null : values.get(position);
+        }
+    }
+
+    private static final class DictionaryColumnVector
+            extends ColumnVector
+    {
+        private final int[] ids;
+        private final String[] dictionary;
+        private final BitSet nulls;
+
+        private DictionaryColumnVector(int size, int[] ids, String[] dictionary, BitSet nulls)
+        {
+            super(size);
+            this.ids = ids;
+            this.dictionary = dictionary;
+            this.nulls = nulls;
+        }
+
+        @Override
+        protected Object getValue(int position)
+        {
+            return nulls.get(position) ? null : dictionary[ids[position]];
+        }
+    }
+
+    private static final class ObjectColumnVector
+            extends ColumnVector
+    {
+        private final Object[] values;
+
+        private ObjectColumnVector(Object[] values)
+        {
+            super(values.length);
+            this.values = values;
+        }
+
+        @Override
+        protected Object getValue(int position)
+        {
+            return values[position];
+        }
+    }
+}
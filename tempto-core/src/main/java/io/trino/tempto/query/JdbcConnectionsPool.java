@@ -13,33 +13,131 @@
  */
 package io.trino.tempto.query;
 
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.dbcp2.PoolableConnectionFactory;
+import org.apache.commons.dbcp2.PoolingDataSource;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
 import javax.sql.DataSource;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-import static com.google.common.collect.Maps.newHashMap;
 import static io.trino.tempto.internal.query.JdbcUtils.dataSource;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * Keeps a bounded pool of connections for each {@link JdbcConnectivityParamsState}.
+ * <p>
+ * Preparatory statements are executed once for each physical connection. If pooling is disabled
+ * for a database, the number of connections is not limited and physical connections are closed when they are returned.
+ */
 public class JdbcConnectionsPool
 {
-    private final Map<JdbcConnectivityParamsState, DataSource> dataSources = newHashMap();
+    private static final long EVICTION_INTERVAL_MILLIS = SECONDS.toMillis(30);
+
+    private final ConcurrentMap<JdbcConnectivityParamsState, ConnectionPool> pools = new ConcurrentHashMap<>();
 
     public Connection connectionFor(JdbcConnectivityParamsState jdbcParamsState)
             throws SQLException
     {
-        if (!dataSources.containsKey(jdbcParamsState)) {
-            dataSources.put(jdbcParamsState, dataSource(jdbcParamsState));
+        return pools.computeIfAbsent(jdbcParamsState, ConnectionPool::new).borrowConnection();
+    }
+
+    /**
+     * @return statistics of pools created so far, by database name
+     */
+    public Map<String, PoolStats> getStats()
+    {
+        ImmutableMap.Builder<String, PoolStats> stats = ImmutableMap.builder();
+        pools.forEach((jdbcParamsState, pool) -> stats.put(jdbcParamsState.getName().get(), pool.getStats()));
+        return stats.build();
+    }
+
+    private static class ConnectionPool
+    {
+        private final GenericObjectPool<PoolableConnection> pool;
+        private final PoolingDataSource<PoolableConnection> dataSource;
+        private final LongAdder borrowCount = new LongAdder();
+        private final LongAdder borrowNanos = new LongAdder();
+        private final AtomicLong maxBorrowNanos = new AtomicLong();
+
+        private ConnectionPool(JdbcConnectivityParamsState jdbcParamsState)
+        {
+            DataSource physicalConnections = dataSource(jdbcParamsState);
+            PoolableConnectionFactory connectionFactory = new PoolableConnectionFactory(
+                    () -> openConnection(physicalConnections, jdbcParamsState),
+                    null);
+            connectionFactory.setValidationQuery(jdbcParamsState.poolValidationQuery.orElse(null));
+            // connections which are not reused are closed anyway
+            connectionFactory.setRollbackOnReturn(jdbcParamsState.pooling);
+            connectionFactory.setEnableAutoCommitOnReturn(jdbcParamsState.pooling);
+
+            GenericObjectPoolConfig config = new GenericObjectPoolConfig();
+            config.setJmxEnabled(false);
+            if (jdbcParamsState.pooling) {
+                config.setMaxTotal(jdbcParamsState.poolMaxSize);
+                config.setMaxWaitMillis(SECONDS.toMillis(jdbcParamsState.poolMaxWaitSeconds));
+                config.setMaxIdle(jdbcParamsState.poolMaxSize);
+                config.setMinIdle(jdbcParamsState.poolMinIdle);
+                config.setTestOnBorrow(true);
+                config.setTestWhileIdle(true);
+                config.setMinEvictableIdleTimeMillis(-1);
+                config.setSoftMinEvictableIdleTimeMillis(SECONDS.toMillis(jdbcParamsState.poolIdleTimeoutSeconds));
+                config.setTimeBetweenEvictionRunsMillis(EVICTION_INTERVAL_MILLIS);
+            }
+            else {
+                // connections which are not pooled are not limited, as without the pool
+                config.setMaxTotal(-1);
+                config.setMaxIdle(0);
+                config.setMinIdle(0);
+            }
+
+            this.pool = new GenericObjectPool<>(connectionFactory, config);
+            connectionFactory.setPool(pool);
+            this.dataSource = new PoolingDataSource<>(pool);
+            this.dataSource.setAccessToUnderlyingConnectionAllowed(true);
         }
 
-        Connection connection = dataSources.get(jdbcParamsState).getConnection();
-        if (connection == null) {
-            // this should never happen, `javax.sql.DataSource#getConnection()` should not return null
-            throw new IllegalStateException("No connection was created for: " + jdbcParamsState.getName());
+        private static Connection openConnection(DataSource physicalConnections, JdbcConnectivityParamsState jdbcParamsState)
+                throws SQLException
+        {
+            Connection connection = physicalConnections.getConnection();
+            if (connection == null) {
+                // this should never happen, `javax.sql.DataSource#getConnection()` should not return null
+                throw new IllegalStateException("No connection was created for: " + jdbcParamsState.getName());
+            }
+            try {
+                executePrepareStatements(connection, jdbcParamsState);
+            }
+            catch (SQLException | RuntimeException e) {
+                try {
+                    connection.close();
+                }
+                catch (SQLException closeException) {
+                    e.addSuppressed(closeException);
+                }
+                throw e;
+            }
+            return connection;
         }
-        if (!jdbcParamsState.prepareStatements.isEmpty()) {
+
+        private static void executePrepareStatements(Connection connection, JdbcConnectivityParamsState jdbcParamsState)
+                throws SQLException
+        {
+            if (jdbcParamsState.prepareStatements.isEmpty()) {
+                return;
+            }
             try (Statement statement = connection.createStatement()) {
                 for (String query : jdbcParamsState.prepareStatements) {
                     try {
@@ -51,6 +149,127 @@ public class JdbcConnectionsPool
                 }
             }
         }
-        return connection;
+
+        private Connection borrowConnection()
+                throws SQLException
+        {
+            long start = System.nanoTime();
+            try {
+                return dataSource.getConnection();
+            }
+            finally {
+                long duration = System.nanoTime() - start;
+                borrowCount.increment();
+                borrowNanos.add(duration);
+                maxBorrowNanos.accumulateAndGet(duration, Math::max);
+            }
+        }
+
+        private PoolStats getStats()
+        {
+            long borrows = borrowCount.sum();
+            return new PoolStats(
+                    pool.getNumActive(),
+                    pool.getNumIdle(),
+                    pool.getCreatedCount(),
+                    borrows,
+                    borrows == 0 ? 0 : nanosToMillis(borrowNanos.sum()) / borrows,
+                    nanosToMillis(maxBorrowNanos.get()),
+                    pool.getMeanBorrowWaitTimeMillis(),
+                    pool.getMaxBorrowWaitTimeMillis());
+        }
+
+        private static double nanosToMillis(long nanos)
+        {
+            return nanos / (double) MILLISECONDS.toNanos(1);
+        }
+    }
+
+    public static class PoolStats
+    {
+        private final int activeConnections;
+        private final int idleConnections;
+        private final long createdConnections;
+        private final long borrowCount;
+        private final double averageBorrowMillis;
+        private final double maxBorrowMillis;
+        private final long averageWaitMillis;
+        private final long maxWaitMillis;
+
+        public PoolStats(
+                int activeConnections,
+                int idleConnections,
+                long createdConnections,
+                long borrowCount,
+                double averageBorrowMillis,
+                double maxBorrowMillis,
+                long averageWaitMillis,
+                long maxWaitMillis)
+        {
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.createdConnections = createdConnections;
+            this.borrowCount = borrowCount;
+            this.averageBorrowMillis = averageBorrowMillis;
+            this.maxBorrowMillis = maxBorrowMillis;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public int getActiveConnections()
+        {
+            return activeConnections;
+        }
+
+        public int getIdleConnections()
+        {
+            return idleConnections;
+        }
+
+        /**
+         * @return number of physical connections opened so far
+         */
+        public long getCreatedConnections()
+        {
+            return createdConnections;
+        }
+
+        public long getBorrowCount()
+        {
+            return borrowCount;
+        }
+
+        /**
+         * @return average time of getting a connection, including time of opening new connections
+         */
+        public double getAverageBorrowMillis()
+        {
+            return averageBorrowMillis;
+        }
+
+        public double getMaxBorrowMillis()
+        {
+            return maxBorrowMillis;
+        }
+
+        /**
+         * @return average time spent waiting for a connection from the pool
+         */
+        public long getAverageWaitMillis()
+        {
+            return averageWaitMillis;
+        }
+
+        public long getMaxWaitMillis()
+        {
+            return maxWaitMillis;
+        }
+
+        @Override
+        public String toString()
+        {
+            return format("active: %d, idle: %d, created: %d, borrows: %d, avg borrow: %.2fms, max borrow: %.2fms, avg wait: %dms, max wait: %dms",
+                    activeConnections, idleConnections, createdConnections, borrowCount, averageBorrowMillis, maxBorrowMillis, averageWaitMillis, maxWaitMillis);
+        }
     }
 }
@@ -19,6 +19,7 @@ import io.trino.tempto.context.State;
 import java.util.List;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
 import static org.apache.commons.lang3.builder.EqualsBuilder.reflectionEquals;
@@ -41,6 +42,14 @@ public class JdbcConnectivityParamsState
     public final List<String> prepareStatements;
     public final Optional<String> kerberosPrincipal;
     public final Optional<String> kerberosKeytab;
+    public final int poolMaxSize;
+    public final int poolMinIdle;
+    public final Optional<String> poolValidationQuery;
+    public final int poolIdleTimeoutSeconds;
+    public final int poolMaxWaitSeconds;
+    public final int preparedStatementCacheSize;
+    public final int asyncQueryParallelism;
+    public final int queryTimeoutSeconds;
 
     private JdbcConnectivityParamsState(
             String name,
@@ -52,7 +61,15 @@ public class JdbcConnectivityParamsState
             Optional<String> jar,
             List<String> prepareStatements,
             Optional<String> kerberosPrincipal,
-            Optional<String> kerberosKeytab)
+            Optional<String> kerberosKeytab,
+            int poolMaxSize,
+            int poolMinIdle,
+            Optional<String> poolValidationQuery,
+            int poolIdleTimeoutSeconds,
+            int poolMaxWaitSeconds,
+            int preparedStatementCacheSize,
+            int asyncQueryParallelism,
+            int queryTimeoutSeconds)
     {
         this.name = requireNonNull(name, "name is null");
         this.driverClass = requireNonNull(driverClass, "driverClass is null");
@@ -64,6 +81,19 @@ public class JdbcConnectivityParamsState
         this.prepareStatements = ImmutableList.copyOf(requireNonNull(prepareStatements, "prepareStatements is null"));
         this.kerberosPrincipal = requireNonNull(kerberosPrincipal, "kerberosPrincipal is null");
         this.kerberosKeytab = requireNonNull(kerberosKeytab, "kerberosKeytab is null");
+        checkArgument(poolMaxSize > 0, "poolMaxSize must be greater than 0: %s", poolMaxSize);
+        checkArgument(poolMinIdle >= 0 && poolMinIdle <= poolMaxSize, "poolMinIdle must be between 0 and %s: %s", poolMaxSize, poolMinIdle);
+        this.poolMaxSize = poolMaxSize;
+        this.poolMinIdle = poolMinIdle;
+        this.poolValidationQuery = requireNonNull(poolValidationQuery, "poolValidationQuery is null");
+        this.poolIdleTimeoutSeconds = poolIdleTimeoutSeconds;
+        this.poolMaxWaitSeconds = poolMaxWaitSeconds;
+        checkArgument(preparedStatementCacheSize >= 0, "preparedStatementCacheSize is negative: %s", preparedStatementCacheSize);
+        this.preparedStatementCacheSize = preparedStatementCacheSize;
+        checkArgument(asyncQueryParallelism > 0, "asyncQueryParallelism must be greater than 0: %s", asyncQueryParallelism);
+        this.asyncQueryParallelism = asyncQueryParallelism;
+        checkArgument(queryTimeoutSeconds >= 0, "queryTimeoutSeconds is negative: %s", queryTimeoutSeconds);
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
     }
 
     @Override
@@ -107,6 +137,14 @@ public class JdbcConnectivityParamsState
         private List<String> prepareStatements = ImmutableList.of();
         private Optional<String> kerberosPrincipal = empty();
         private Optional<String> kerberosKeytab = empty();
+        private int poolMaxSize = 64;
+        private int poolMinIdle;
+        private Optional<String> poolValidationQuery = empty();
+        private int poolIdleTimeoutSeconds = 300;
+        private int poolMaxWaitSeconds = 60;
+        private int preparedStatementCacheSize = 32;
+        private int asyncQueryParallelism = 8;
+        private int queryTimeoutSeconds;
 
         private Builder() {}
 
@@ -170,6 +208,54 @@ public class JdbcConnectivityParamsState
             return this;
         }
 
+        public Builder setPoolMaxSize(int poolMaxSize)
+        {
+            this.poolMaxSize = poolMaxSize;
+            return this;
+        }
+
+        public Builder setPoolMinIdle(int poolMinIdle)
+        {
+            this.poolMinIdle = poolMinIdle;
+            return this;
+        }
+
+        public Builder setPoolValidationQuery(Optional<String> poolValidationQuery)
+        {
+            this.poolValidationQuery = poolValidationQuery;
+            return this;
+        }
+
+        public Builder setPoolIdleTimeoutSeconds(int poolIdleTimeoutSeconds)
+        {
+            this.poolIdleTimeoutSeconds = poolIdleTimeoutSeconds;
+            return this;
+        }
+
+        public Builder setPoolMaxWaitSeconds(int poolMaxWaitSeconds)
+        {
+            this.poolMaxWaitSeconds = poolMaxWaitSeconds;
+            return this;
+        }
+
+        public Builder setPreparedStatementCacheSize(int preparedStatementCacheSize)
+        {
+            this.preparedStatementCacheSize = preparedStatementCacheSize;
+            return this;
+        }
+
+        public Builder setAsyncQueryParallelism(int asyncQueryParallelism)
+        {
+            this.asyncQueryParallelism = asyncQueryParallelism;
+            return this;
+        }
+
+        public Builder setQueryTimeoutSeconds(int queryTimeoutSeconds)
+        {
+            this.queryTimeoutSeconds = queryTimeoutSeconds;
+            return this;
+        }
+
         public JdbcConnectivityParamsState build()
         {
             return new JdbcConnectivityParamsState(
@@ -182,7 +268,15 @@ public class JdbcConnectivityParamsState
                     jar,
                     prepareStatements,
                     kerberosPrincipal,
-                    kerberosKeytab
+                    kerberosKeytab,
+                    poolMaxSize,
+                    poolMinIdle,
+                    poolValidationQuery,
+                    poolIdleTimeoutSeconds,
+                    poolMaxWaitSeconds,
+                    preparedStatementCacheSize,
+                    asyncQueryParallelism,
+                    queryTimeoutSeconds
             );
         }
     }
@@ -14,21 +14,43 @@
 
 package io.trino.tempto.query;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.trino.tempto.context.TestContext;
+import io.trino.tempto.query.metrics.QueryMetrics;
+import io.trino.tempto.query.metrics.QueryMetricsSink;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 import static io.trino.tempto.query.QueryResult.forSingleIntegerValue;
+import static io.trino.tempto.query.QueryResult.fromSqlIndex;
 import static io.trino.tempto.query.QueryResult.toSqlIndex;
+import static java.lang.String.format;
+import static java.sql.ResultSet.CONCUR_READ_ONLY;
+import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
 import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class JdbcQueryExecutor
@@ -36,21 +58,62 @@ public class JdbcQueryExecutor
 {
     private static final Logger LOGGER = getLogger(JdbcQueryExecutor.class);
 
+    static final int STREAMING_FETCH_SIZE = 1000;
+
+    private static final ScheduledExecutorService TIMEOUT_EXECUTOR = createTimeoutExecutor();
+    // Statement#cancel may block until the statement finishes, e.g. for embedded databases
+    private static final ExecutorService CANCELLATION_EXECUTOR = newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("jdbc-query-cancel-%s")
+                    .setDaemon(true)
+                    .build());
+
     private final String jdbcUrl;
     private final JdbcConnectivityParamsState jdbcParamsState;
     private final JdbcConnectionsPool jdbcConnectionsPool;
+    private final QueryMetricsSink queryMetricsSink;
+    private final PreparedStatementCache.Stats preparedStatementCacheStats = new PreparedStatementCache.Stats();
 
     private Connection connection = null;
+    private PreparedStatementCache preparedStatements = null;
+
+    private final Set<QueryFuture> runningQueries = ConcurrentHashMap.newKeySet();
+    private ExecutorService asyncExecutor = null;
+
+    public JdbcQueryExecutor(JdbcConnectivityParamsState jdbcParamsState,
+            JdbcConnectionsPool jdbcConnectionsPool,
+            TestContext testContext)
+    {
+        this(jdbcParamsState, jdbcConnectionsPool, QueryMetricsSink.NONE, testContext);
+    }
 
     @Inject
     public JdbcQueryExecutor(JdbcConnectivityParamsState jdbcParamsState,
             JdbcConnectionsPool jdbcConnectionsPool,
+            QueryMetricsSink queryMetricsSink,
             TestContext testContext)
+    {
+        this(jdbcParamsState, jdbcConnectionsPool, queryMetricsSink);
+        testContext.registerCloseCallback(context -> this.close());
+    }
+
+    private JdbcQueryExecutor(JdbcConnectivityParamsState jdbcParamsState,
+            JdbcConnectionsPool jdbcConnectionsPool,
+            QueryMetricsSink queryMetricsSink)
     {
         this.jdbcParamsState = requireNonNull(jdbcParamsState, "jdbcParamsState is null");
         this.jdbcConnectionsPool = requireNonNull(jdbcConnectionsPool, "jdbcConnectionsPool is null");
+        this.queryMetricsSink = requireNonNull(queryMetricsSink, "queryMetricsSink is null");
         this.jdbcUrl = jdbcParamsState.url;
-        testContext.registerCloseCallback(context -> this.close());
+    }
+
+    /**
+     * Creates executor with a separate connection from the same pool, which can be used concurrently
+     * with this executor. The returned executor is not bound to the test context and has to be closed by the caller.
+     */
+    public JdbcQueryExecutor fork()
+    {
+        return new JdbcQueryExecutor(jdbcParamsState, jdbcConnectionsPool, queryMetricsSink);
     }
 
     public void openConnection()
@@ -66,6 +129,10 @@ public class JdbcQueryExecutor
 
     public void closeConnection()
     {
+        if (preparedStatements != null) {
+            preparedStatements.close();
+            preparedStatements = null;
+        }
         if (connection != null) {
             try {
                 connection.close();
@@ -84,6 +151,107 @@ public class JdbcQueryExecutor
         return execute(sql, params);
     }
 
+    @Override
+    public CompletableFuture<QueryResult> executeQueryAsync(String sql, QueryParam... params)
+    {
+        return executeQueryAsync(sql, Duration.ofSeconds(jdbcParamsState.queryTimeoutSeconds), params);
+    }
+
+    /**
+     * Executes statement on a separate connection from {@link JdbcConnectionsPool}. Up to
+     * {@link JdbcConnectivityParamsState#asyncQueryParallelism} statements run at the same time,
+     * others wait in a queue. Cancelling returned future cancels the running statement.
+     *
+     * @param sql SQL query to be executed
+     * @param timeout Time after which the statement is cancelled and the result fails with {@link SQLTimeoutException}, zero means no timeout
+     * @param params Parameters to be used while executing query
+     * @return Future result of executed statement
+     */
+    public CompletableFuture<QueryResult> executeQueryAsync(String sql, Duration timeout, QueryParam... params)
+    {
+        requireNonNull(sql, "sql is null");
+        requireNonNull(timeout, "timeout is null");
+        requireNonNull(params, "params is null");
+
+        String query = removeTrailingSemicolon(sql);
+        QueryMetrics.Builder metrics = newQueryMetrics(query);
+        QueryFuture future = new QueryFuture(query);
+        runningQueries.add(future);
+        future.whenComplete((result, failure) -> runningQueries.remove(future));
+        future.whenComplete((result, failure) -> queryMetricsSink.record(metrics.build(failure == null)));
+        if (!timeout.isZero()) {
+            ScheduledFuture<?> timeoutTask = TIMEOUT_EXECUTOR.schedule(() -> future.timeout(timeout), timeout.toMillis(), MILLISECONDS);
+            future.whenComplete((result, failure) -> timeoutTask.cancel(false));
+        }
+        try {
+            getAsyncExecutor().execute(() -> executeAsync(future, query, params, metrics));
+        }
+        catch (RejectedExecutionException e) {
+            future.completeExceptionally(new QueryExecutionException(e));
+        }
+        return future;
+    }
+
+    private void executeAsync(QueryFuture future, String sql, QueryParam[] params, QueryMetrics.Builder metrics)
+    {
+        if (future.isDone()) {
+            return;
+        }
+        metrics.started();
+
+        LOGGER.debug("executing asynchronously on {} query [{}] with params: {}", jdbcUrl, sql, asList(params));
+
+        try (Connection asyncConnection = jdbcConnectionsPool.connectionFor(jdbcParamsState)) {
+            if (params.length == 0) {
+                try (Statement statement = asyncConnection.createStatement()) {
+                    future.setStatement(statement);
+                    future.complete(getResult(statement, statement.execute(sql), metrics));
+                }
+            }
+            else {
+                try (PreparedStatement statement = asyncConnection.prepareStatement(sql)) {
+                    setQueryParams(statement, params);
+                    future.setStatement(statement);
+                    future.complete(getResult(statement, statement.execute(), metrics));
+                }
+            }
+        }
+        catch (SQLException | RuntimeException e) {
+            e.addSuppressed(new Exception("Query: " + sql));
+            future.completeExceptionally(new QueryExecutionException(e));
+        }
+        finally {
+            future.clearStatement();
+        }
+    }
+
+    private QueryMetrics.Builder newQueryMetrics(String sql)
+    {
+        return QueryMetrics.builder(jdbcParamsState.getName().get(), sql);
+    }
+
+    private synchronized ExecutorService getAsyncExecutor()
+    {
+        if (asyncExecutor == null) {
+            asyncExecutor = newFixedThreadPool(
+                    jdbcParamsState.asyncQueryParallelism,
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("jdbc-query-" + jdbcParamsState.getName().get() + "-%s")
+                            .setDaemon(true)
+                            .build());
+        }
+        return asyncExecutor;
+    }
+
+    private synchronized void shutdownAsyncExecutor()
+    {
+        runningQueries.forEach(query -> query.cancel(true));
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+            asyncExecutor = null;
+        }
+    }
+
     @Override
     public Connection getConnection()
     {
@@ -93,6 +261,14 @@ public class JdbcQueryExecutor
         return connection;
     }
 
+    /**
+     * @return hit and miss counters of prepared statements cache, accumulated over all connections of this executor
+     */
+    public PreparedStatementCache.Stats getPreparedStatementCacheStats()
+    {
+        return preparedStatementCacheStats;
+    }
+
     private QueryResult execute(String sql, QueryParam... params)
             throws QueryExecutionException
     {
@@ -107,30 +283,118 @@ public class JdbcQueryExecutor
 
         LOGGER.debug("executing on {} query [{}] with params: {}", jdbcUrl, sql, asList(params));
 
+        QueryMetrics.Builder metrics = newQueryMetrics(sql);
+        boolean succeeded = false;
         try {
+            QueryResult result;
             if (params.length == 0) {
-                return executeQueryNoParams(sql);
+                result = executeQueryNoParams(sql, metrics);
             }
             else {
-                return executeQueryWithParams(sql, params);
+                result = executeQueryWithParams(sql, params, metrics);
             }
+            succeeded = true;
+            return result;
         }
         catch (SQLException e) {
             throw new QueryExecutionException(e);
         }
+        finally {
+            queryMetricsSink.record(metrics.build(succeeded));
+        }
     }
 
-    private QueryResult executeQueryNoParams(String sql)
-            throws SQLException
+    /**
+     * Rows are fetched from the driver in batches of {@value #STREAMING_FETCH_SIZE}.
+     * Note that some drivers (e.g. PostgreSQL) honor the fetch size only when auto-commit is disabled.
+     * <p>
+     * Statements which do not return a result set fail with {@link QueryExecutionException} only after they are
+     * executed, so their changes are applied (and committed when auto-commit is enabled) before the exception is thrown.
+     */
+    @Override
+    public long executeQueryStreaming(String sql, RowConsumer rowConsumer, QueryParam... params)
+            throws QueryExecutionException
     {
         requireNonNull(sql, "sql is null");
-        try (Statement statement = getConnection().createStatement()) {
-            if (statement.execute(sql)) {
-                return QueryResult.forResultSet(statement.getResultSet());
+        requireNonNull(rowConsumer, "rowConsumer is null");
+        requireNonNull(params, "params is null");
+
+        if (connection == null) {
+            openConnection();
+        }
+
+        sql = removeTrailingSemicolon(sql);
+
+        LOGGER.debug("streaming on {} query [{}] with params: {}", jdbcUrl, sql, asList(params));
+
+        QueryMetrics.Builder metrics = newQueryMetrics(sql);
+        boolean succeeded = false;
+        try {
+            long rowsCount;
+            if (params.length == 0) {
+                try (Statement statement = getConnection().createStatement(TYPE_FORWARD_ONLY, CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(STREAMING_FETCH_SIZE);
+                    rowsCount = streamResult(statement, statement.execute(sql), rowConsumer, metrics);
+                }
             }
             else {
-                return forSingleIntegerValue(statement.getUpdateCount());
+                try (PreparedStatement statement = getConnection().prepareStatement(sql, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(STREAMING_FETCH_SIZE);
+                    setQueryParams(statement, params);
+                    rowsCount = streamResult(statement, statement.execute(), rowConsumer, metrics);
+                }
             }
+            succeeded = true;
+            return rowsCount;
+        }
+        catch (SQLException e) {
+            e.addSuppressed(new Exception("Query: " + sql));
+            throw new QueryExecutionException(e);
+        }
+        finally {
+            queryMetricsSink.record(metrics.build(succeeded));
+        }
+    }
+
+    /**
+     * Fetch time recorded in metrics includes time spent in the row consumer.
+     */
+    private static long streamResult(Statement statement, boolean hasResultSet, RowConsumer rowConsumer, QueryMetrics.Builder metrics)
+            throws SQLException
+    {
+        metrics.executed();
+        if (!hasResultSet) {
+            throw new SQLException("Query did not return a result set");
+        }
+        long start = System.nanoTime();
+        try (ResultSet resultSet = statement.getResultSet()) {
+            int columnCount = resultSet.getMetaData().getColumnCount();
+            Object[] values = new Object[columnCount];
+            List<Object> row = unmodifiableList(asList(values));
+            long rowsCount = 0;
+            while (resultSet.next()) {
+                metrics.rowFetched();
+                for (int sqlColumnIndex = 1; sqlColumnIndex <= columnCount; ++sqlColumnIndex) {
+                    Object value = resultSet.getObject(sqlColumnIndex);
+                    metrics.valueFetched(value);
+                    values[fromSqlIndex(sqlColumnIndex)] = value;
+                }
+                rowConsumer.accept(row);
+                rowsCount++;
+            }
+            return rowsCount;
+        }
+        finally {
+            metrics.fetched(System.nanoTime() - start);
+        }
+    }
+
+    private QueryResult executeQueryNoParams(String sql, QueryMetrics.Builder metrics)
+            throws SQLException
+    {
+        requireNonNull(sql, "sql is null");
+        try (Statement statement = getConnection().createStatement()) {
+            return getResult(statement, statement.execute(sql), metrics);
         }
         catch (Throwable e) {
             e.addSuppressed(new Exception("Query: " + sql));
@@ -138,20 +402,18 @@ public class JdbcQueryExecutor
         }
     }
 
-    private QueryResult executeQueryWithParams(String sql, QueryParam[] params)
+    private QueryResult executeQueryWithParams(String sql, QueryParam[] params, QueryMetrics.Builder metrics)
             throws SQLException
     {
         requireNonNull(sql, "sql is null");
         requireNonNull(params, "params is null");
-        try (PreparedStatement statement = getConnection().prepareStatement(sql)) {
-            setQueryParams(statement, params);
-
-            if (statement.execute()) {
-                return QueryResult.forResultSet(statement.getResultSet());
-            }
-            else {
-                return forSingleIntegerValue(statement.getUpdateCount());
+        try {
+            if (jdbcParamsState.preparedStatementCacheSize == 0) {
+                try (PreparedStatement statement = getConnection().prepareStatement(sql)) {
+                    return executePreparedStatement(statement, params, metrics);
+                }
             }
+            return executeCachedPreparedStatement(sql, params, metrics);
         }
         catch (Throwable e) {
             e.addSuppressed(new Exception("Query: " + sql));
@@ -159,6 +421,47 @@ public class JdbcQueryExecutor
         }
     }
 
+    private QueryResult executeCachedPreparedStatement(String sql, QueryParam[] params, QueryMetrics.Builder metrics)
+            throws SQLException
+    {
+        PreparedStatementCache cache = getPreparedStatementCache();
+        try {
+            return executePreparedStatement(cache.get(sql), params, metrics);
+        }
+        catch (SQLException e) {
+            // cached statement may be stale, e.g. when the table it refers to was recreated, so it is prepared again next time
+            cache.invalidate(sql);
+            throw e;
+        }
+    }
+
+    private PreparedStatementCache getPreparedStatementCache()
+    {
+        if (preparedStatements == null) {
+            preparedStatements = new PreparedStatementCache(getConnection(), jdbcParamsState.preparedStatementCacheSize, preparedStatementCacheStats);
+        }
+        return preparedStatements;
+    }
+
+    private static QueryResult executePreparedStatement(PreparedStatement statement, QueryParam[] params, QueryMetrics.Builder metrics)
+            throws SQLException
+    {
+        setQueryParams(statement, params);
+        return getResult(statement, statement.execute(), metrics);
+    }
+
+    private static QueryResult getResult(Statement statement, boolean hasResultSet, QueryMetrics.Builder metrics)
+            throws SQLException
+    {
+        metrics.executed();
+        if (hasResultSet) {
+            return QueryResult.forResultSet(statement.getResultSet(), metrics);
+        }
+        else {
+            return forSingleIntegerValue(statement.getUpdateCount());
+        }
+    }
+
     private static void setQueryParams(PreparedStatement statement, QueryParam[] params)
             throws SQLException
     {
@@ -172,10 +475,81 @@ public class JdbcQueryExecutor
     public void close()
     {
         closeConnection();
+        shutdownAsyncExecutor();
     }
 
     private String removeTrailingSemicolon(String sql)
     {
         return sql.trim().replaceAll(";$", "");
     }
+
+    private static ScheduledExecutorService createTimeoutExecutor()
+    {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                1,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("jdbc-query-timeout-%s")
+                        .setDaemon(true)
+                        .build());
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private static class QueryFuture
+            extends CompletableFuture<QueryResult>
+    {
+        private final String sql;
+        private volatile Statement statement;
+
+        private QueryFuture(String sql)
+        {
+            this.sql = sql;
+        }
+
+        void setStatement(Statement statement)
+                throws SQLException
+        {
+            this.statement = statement;
+            if (isDone()) {
+                throw new SQLException("Query was cancelled before it started");
+            }
+        }
+
+        void clearStatement()
+        {
+            statement = null;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                cancelStatement();
+            }
+            return cancelled;
+        }
+
+        void timeout(Duration timeout)
+        {
+            if (completeExceptionally(new QueryExecutionException(new SQLTimeoutException(format("Query timed out after %s: %s", timeout, sql))))) {
+                cancelStatement();
+            }
+        }
+
+        private void cancelStatement()
+        {
+            Statement current = statement;
+            if (current != null) {
+                CANCELLATION_EXECUTOR.execute(() -> {
+                    try {
+                        current.cancel();
+                    }
+                    catch (SQLException e) {
+                        LOGGER.debug("Exception happened during cancelling query.", e);
+                    }
+                });
+            }
+        }
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.query;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * LRU cache of {@link PreparedStatement}s of a single connection, keyed by SQL text.
+ * Evicted statements are closed. Not thread safe, as is the connection it wraps.
+ */
+public final class PreparedStatementCache
+        implements AutoCloseable
+{
+    private static final Logger LOGGER = getLogger(PreparedStatementCache.class);
+
+    private final Connection connection;
+    private final Stats stats;
+    private final Map<String, PreparedStatement> statements;
+
+    PreparedStatementCache(Connection connection, int maxSize, Stats stats)
+    {
+        checkArgument(maxSize > 0, "maxSize must be greater than 0: %s", maxSize);
+        this.connection = requireNonNull(connection, "connection is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest)
+            {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                stats.evictions.increment();
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement get(String sql)
+            throws SQLException
+    {
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            stats.hits.increment();
+            statement.clearParameters();
+            return statement;
+        }
+        stats.misses.increment();
+        statement = connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        return statement;
+    }
+
+    void invalidate(String sql)
+    {
+        PreparedStatement statement = statements.remove(sql);
+        if (statement != null) {
+            closeQuietly(statement);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        List<PreparedStatement> cached = new ArrayList<>(statements.values());
+        statements.clear();
+        cached.forEach(PreparedStatementCache::closeQuietly);
+    }
+
+    private static void closeQuietly(PreparedStatement statement)
+    {
+        try {
+            statement.close();
+        }
+        catch (SQLException e) {
+            LOGGER.debug("Exception happened during closing prepared statement.", e);
+        }
+    }
+
+    /**
+     * Counters shared by all caches of a {@link JdbcQueryExecutor}.
+     */
+    public static class Stats
+    {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public long getHits()
+        {
+            return hits.sum();
+        }
+
+        public long getMisses()
+        {
+            return misses.sum();
+        }
+
+        public long getEvictions()
+        {
+            return evictions.sum();
+        }
+
+        public double getHitRate()
+        {
+            long hits = getHits();
+            long requests = hits + getMisses();
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString()
+        {
+            return format("hits: %d, misses: %d, evictions: %d", getHits(), getMisses(), getEvictions());
+        }
+    }
+}
@@ -17,9 +17,14 @@ package io.trino.tempto.query;
 import java.io.Closeable;
 import java.sql.Connection;
 import java.sql.JDBCType;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static io.trino.tempto.context.ThreadLocalTestContextHolder.testContext;
+import static java.util.stream.Collectors.toList;
 
 /**
  * Interface for executors of a sql queries.
@@ -40,6 +45,81 @@ public interface QueryExecutor
     QueryResult executeQuery(String sql, QueryParam... params)
             throws QueryExecutionException;
 
+    /**
+     * Executes SELECT query and passes returned rows one by one to the given consumer.
+     * Contrary to {@link #executeQuery(String, QueryParam...)} the result is not materialized
+     * in memory, which makes it possible to verify large results (row counts, checksums, sampled assertions)
+     * in constant memory.
+     *
+     * @param sql SQL query to be executed
+     * @param rowConsumer Consumer of returned rows
+     * @param params Parameters to be used while executing query
+     * @return Number of rows passed to the consumer
+     */
+    default long executeQueryStreaming(String sql, RowConsumer rowConsumer, QueryParam... params)
+            throws QueryExecutionException
+    {
+        QueryResult result = executeQuery(sql, params);
+        result.rows().forEach(rowConsumer::accept);
+        return result.getRowsCount();
+    }
+
+    /**
+     * Executes statement asynchronously. Implementations may run the statement concurrently with
+     * other statements, so it should not depend on state of the connection returned by {@link #getConnection()}.
+     * Default implementation executes the statement synchronously.
+     *
+     * @param sql SQL query to be executed
+     * @param params Parameters to be used while executing query
+     * @return Future result of executed statement
+     */
+    default CompletableFuture<QueryResult> executeQueryAsync(String sql, QueryParam... params)
+    {
+        CompletableFuture<QueryResult> future = new CompletableFuture<>();
+        try {
+            future.complete(executeQuery(sql, params));
+        }
+        catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Executes given statements with {@link #executeQueryAsync(String, QueryParam...)} and waits for all of them.
+     * When any of statements fails, remaining ones are cancelled.
+     *
+     * @param sqls SQL queries to be executed
+     * @return Results of executed statements, in order of given queries
+     */
+    default List<QueryResult> executeAll(List<String> sqls)
+            throws QueryExecutionException
+    {
+        List<CompletableFuture<QueryResult>> futures = sqls.stream()
+                .map(sql -> executeQueryAsync(sql))
+                .collect(toList());
+        CompletableFuture<Void> allDone = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        futures.forEach(future -> future.whenComplete((result, failure) -> {
+            if (failure != null) {
+                allDone.completeExceptionally(failure);
+            }
+        }));
+        try {
+            allDone.join();
+        }
+        catch (CompletionException | CancellationException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof QueryExecutionException) {
+                throw (QueryExecutionException) cause;
+            }
+            throw new QueryExecutionException(cause);
+        }
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(toList());
+    }
+
     Connection getConnection();
 
     void close();
@@ -19,52 +19,62 @@ import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
+import io.trino.tempto.query.metrics.QueryMetrics;
 
 import java.sql.JDBCType;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Lists.newArrayList;
 import static java.sql.JDBCType.INTEGER;
-import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
-import static java.util.stream.Collectors.toList;
 
 /**
  * Result of a query.
  * <p>
  * It stores all returned values, column names and their types as {@link java.sql.JDBCType}.
+ * Values are kept column by column (see {@link ColumnVector}); rows returned by {@link #row(int)}
+ * and {@link #rows()} are views over the columns.
  */
 public class QueryResult
 {
     private final List<JDBCType> columnTypes;
     private final BiMap<String, Integer> columnNamesIndexes;
-    private final List<List<?>> values;
+    private final List<ColumnVector> columns;
+    private final int rowsCount;
     private final Optional<ResultSet> jdbcResultSet;
 
     private QueryResult(List<JDBCType> columnTypes, BiMap<String, Integer> columnNamesIndexes, List<? extends List<?>> values, Optional<ResultSet> jdbcResultSet)
+    {
+        this(columnTypes, columnNamesIndexes, toColumns(columnTypes, values), values.size(), jdbcResultSet);
+    }
+
+    private QueryResult(List<JDBCType> columnTypes, BiMap<String, Integer> columnNamesIndexes, List<ColumnVector> columns, int rowsCount, Optional<ResultSet> jdbcResultSet)
     {
         this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
-        this.values = requireNonNull(values, "values is null").stream()
-                .map(row -> unmodifiableList(new ArrayList<>(row)))
-                .collect(toImmutableList());
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+        checkArgument(this.columns.size() == this.columnTypes.size(), "inconsistent number of columns and column types");
+        checkArgument(this.columns.stream().allMatch(column -> column.size() == rowsCount), "inconsistent number of values in columns");
+        this.rowsCount = rowsCount;
         this.columnNamesIndexes = ImmutableBiMap.copyOf(requireNonNull(columnNamesIndexes, "columnNamesIndexes is null"));
         this.jdbcResultSet = requireNonNull(jdbcResultSet, "jdbcResultSet is null");
     }
 
     public int getRowsCount()
     {
-        return values.size();
+        return rowsCount;
     }
 
     public int getColumnsCount()
@@ -89,43 +99,35 @@ public class QueryResult
 
     public List<?> row(int rowIndex)
     {
-        return values.get(rowIndex);
+        checkElementIndex(rowIndex, rowsCount);
+        return new RowView(rowIndex);
     }
 
     public List<List<?>> rows()
     {
-        return values;
+        return new RowsView();
     }
 
     @SuppressWarnings("unchecked")
     public <T> List<T> column(int sqlColumnIndex)
     {
-        int internalColumnIndex = fromSqlIndex(sqlColumnIndex);
-        return (List) values.stream()
-                .map(row -> row.get(internalColumnIndex))
-                .collect(toList());
+        return (List) columns.get(fromSqlIndex(sqlColumnIndex));
     }
 
     public QueryResult project(int... sqlColumnIndexes)
     {
         List<JDBCType> projectedColumnTypes = newArrayList();
-        List<String> projectedColumnNames = newArrayList();
+        BiMap<String, Integer> projectedColumnNamesIndexes = HashBiMap.create();
+        List<ColumnVector> projectedColumns = newArrayList();
         for (int sqlColumnIndex : sqlColumnIndexes) {
             projectedColumnTypes.add(columnTypes.get(fromSqlIndex(sqlColumnIndex)));
-            projectedColumnNames.add(columnNamesIndexes.inverse().get(sqlColumnIndex));
-        }
-        QueryResultBuilder queryResultBuilder = new QueryResultBuilder(projectedColumnTypes, projectedColumnNames);
-        for (List<?> valueList : values) {
-            List<Object> projectedValueList = Lists.newArrayList();
-            for (int sqlColumnIndex : sqlColumnIndexes) {
-                projectedValueList.add(valueList.get(fromSqlIndex(sqlColumnIndex)));
+            String columnName = columnNamesIndexes.inverse().get(sqlColumnIndex);
+            if (columnName != null) {
+                projectedColumnNamesIndexes.put(columnName, projectedColumns.size() + 1);
             }
-            queryResultBuilder.addRow(projectedValueList);
-        }
-        if (jdbcResultSet.isPresent()) {
-            queryResultBuilder.setJdbcResultSet(jdbcResultSet.get());
+            projectedColumns.add(columns.get(fromSqlIndex(sqlColumnIndex)));
         }
-        return queryResultBuilder.build();
+        return new QueryResult(projectedColumnTypes, projectedColumnNamesIndexes, projectedColumns, rowsCount, jdbcResultSet);
     }
 
     public Optional<ResultSet> getJdbcResultSet()
@@ -138,10 +140,51 @@ public class QueryResult
     {
         return toStringHelper(this)
                 .add("columnTypes", columnTypes)
-                .add("values", values)
+                .add("values", rows())
                 .toString();
     }
 
+    private class RowView
+            extends AbstractList<Object>
+            implements RandomAccess
+    {
+        private final int rowIndex;
+
+        private RowView(int rowIndex)
+        {
+            this.rowIndex = rowIndex;
+        }
+
+        @Override
+        public Object get(int columnIndex)
+        {
+            return columns.get(columnIndex).get(rowIndex);
+        }
+
+        @Override
+        public int size()
+        {
+            return columns.size();
+        }
+    }
+
+    private class RowsView
+            extends AbstractList<List<?>>
+            implements RandomAccess
+    {
+        @Override
+        public List<?> get(int rowIndex)
+        {
+            return row(rowIndex);
+        }
+
+        @Override
+        public int size()
+        {
+            return rowsCount;
+        }
+    }
+
     /**
      * In SQL/JDBC column indexing starts form 1. This method returns SQL index for given Java index.
      *
@@ -164,6 +207,22 @@ public class QueryResult
         return index - 1;
     }
 
+    private static List<ColumnVector> toColumns(List<JDBCType> columnTypes, List<? extends List<?>> values)
+    {
+        List<ColumnVector.Builder> columns = columnTypes.stream()
+                .map(ColumnVector::builder)
+                .collect(toImmutableList());
+        for (List<?> row : values) {
+            checkArgument(row.size() == columns.size(), "expected %s objects", columns.size());
+            for (int columnIndex = 0; columnIndex < columns.size(); ++columnIndex) {
+                columns.get(columnIndex).append(row.get(columnIndex));
+            }
+        }
+        return columns.stream()
+                .map(ColumnVector.Builder::build)
+                .collect(toImmutableList());
+    }
+
     public static QueryResultBuilder builder(ResultSetMetaData metaData)
             throws SQLException
     {
@@ -194,18 +253,34 @@ public class QueryResult
                 .build();
     }
 
+    /**
+     * Same as {@link #forResultSet(ResultSet)}, additionally records time to first row, fetch time,
+     * number of rows and approximate size of values.
+     */
+    public static QueryResult forResultSet(ResultSet rs, QueryMetrics.Builder metrics)
+            throws SQLException
+    {
+        return QueryResult.builder(rs.getMetaData())
+                .addRows(rs, metrics)
+                .setJdbcResultSet(rs)
+                .build();
+    }
+
     public static class QueryResultBuilder
     {
         private final List<JDBCType> columnTypes = newArrayList();
         private final BiMap<String, Integer> columnNamesIndexes = HashBiMap.create();
-        private final List<List<?>> values = newArrayList();
+        private final List<ColumnVector.Builder> columns = newArrayList();
+        private int rowsCount;
         private Optional<ResultSet> jdbcResultSet = Optional.empty();
 
         QueryResultBuilder(ResultSetMetaData metaData)
                 throws SQLException
         {
             for (int sqlColumnIndex = 1; sqlColumnIndex <= metaData.getColumnCount(); ++sqlColumnIndex) {
-                columnTypes.add(JDBCType.valueOf(metaData.getColumnType(sqlColumnIndex)));
+                JDBCType columnType = JDBCType.valueOf(metaData.getColumnType(sqlColumnIndex));
+                columnTypes.add(columnType);
+                columns.add(ColumnVector.builder(columnType));
                 columnNamesIndexes.put(metaData.getColumnName(sqlColumnIndex), sqlColumnIndex);
             }
         }
@@ -221,6 +296,9 @@ public class QueryResult
                 columnNamesIndexes.put(columnName, sqlColumnIndex);
                 sqlColumnIndex++;
             }
+            for (JDBCType columnType : columnTypes) {
+                columns.add(ColumnVector.builder(columnType));
+            }
         }
 
         public QueryResultBuilder addRow(Object... rowValues)
@@ -231,7 +309,10 @@ public class QueryResult
         public QueryResultBuilder addRow(List<?> rowValues)
         {
             Preconditions.checkState(rowValues.size() == columnTypes.size(), "expected %s objects", columnTypes.size());
-            values.add(newArrayList(rowValues));
+            for (int columnIndex = 0; columnIndex < columns.size(); ++columnIndex) {
+                columns.get(columnIndex).append(rowValues.get(columnIndex));
+            }
+            rowsCount++;
             return this;
         }
 
@@ -241,11 +322,33 @@ public class QueryResult
             int columnCount = columnTypes.size();
 
             while (rs.next()) {
-                List<Object> row = newArrayList();
                 for (int sqlColumnIndex = 1; sqlColumnIndex <= columnCount; ++sqlColumnIndex) {
-                    row.add(rs.getObject(sqlColumnIndex));
+                    columns.get(fromSqlIndex(sqlColumnIndex)).append(rs.getObject(sqlColumnIndex));
                 }
-                values.add(row);
+                rowsCount++;
+            }
+            return this;
+        }
+
+        public QueryResultBuilder addRows(ResultSet rs, QueryMetrics.Builder metrics)
+                throws SQLException
+        {
+            int columnCount = columnTypes.size();
+
+            long start = System.nanoTime();
+            try {
+                while (rs.next()) {
+                    metrics.rowFetched();
+                    for (int sqlColumnIndex = 1; sqlColumnIndex <= columnCount; ++sqlColumnIndex) {
+                        Object value = rs.getObject(sqlColumnIndex);
+                        metrics.valueFetched(value);
+                        columns.get(fromSqlIndex(sqlColumnIndex)).append(value);
+                    }
+                    rowsCount++;
+                }
+            }
+            finally {
+                metrics.fetched(System.nanoTime() - start);
             }
             return this;
         }
@@ -258,7 +361,10 @@ public class QueryResult
 
         public QueryResult build()
         {
-            return new QueryResult(columnTypes, columnNamesIndexes, values, jdbcResultSet);
+            List<ColumnVector> builtColumns = columns.stream()
+                    .map(ColumnVector.Builder::build)
+                    .collect(toImmutableList());
+            return new QueryResult(columnTypes, columnNamesIndexes, builtColumns, rowsCount, jdbcResultSet);
         }
     }
 }
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.query;
+
+import java.util.List;
+
+/**
+ * Consumer of rows returned by {@link QueryExecutor#executeQueryStreaming(String, RowConsumer, QueryExecutor.QueryParam...)}.
+ */
+@FunctionalInterface
+public interface RowConsumer
+{
+    /**
+     * Called for every row of the result, in order.
+     * <p>
+     * The row list may be reused by the executor for subsequent rows, so it is valid
+     * only for the duration of this call. Copy it if it has to be retained.
+     *
+     * @param row values of the row, indexed from 0
+     */
+    void accept(List<?> row);
+}
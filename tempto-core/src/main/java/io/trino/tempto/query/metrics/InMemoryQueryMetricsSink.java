@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.query.metrics;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+public class InMemoryQueryMetricsSink
+        implements QueryMetricsSink
+{
+    private final ConcurrentLinkedQueue<QueryMetrics> metrics = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void record(QueryMetrics metrics)
+    {
+        this.metrics.add(metrics);
+    }
+
+    /**
+     * @return metrics of all queries, in order in which queries finished
+     */
+    public List<QueryMetrics> getMetrics()
+    {
+        return ImmutableList.copyOf(metrics);
+    }
+
+    public List<QueryMetrics> getMetrics(String testName)
+    {
+        Optional<String> expectedTestName = Optional.of(testName);
+        return metrics.stream()
+                .filter(queryMetrics -> queryMetrics.getTestName().equals(expectedTestName))
+                .collect(toImmutableList());
+    }
+
+    public void clear()
+    {
+        metrics.clear();
+    }
+}
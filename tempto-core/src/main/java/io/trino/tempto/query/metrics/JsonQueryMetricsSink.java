@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.query.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Keeps metrics in memory and writes them to a JSON file when the test suite is finished.
+ */
+public class JsonQueryMetricsSink
+        extends InMemoryQueryMetricsSink
+{
+    private static final Logger LOGGER = getLogger(JsonQueryMetricsSink.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new Jdk8Module());
+    private final Path outputFile;
+
+    public JsonQueryMetricsSink(Path outputFile)
+    {
+        this.outputFile = requireNonNull(outputFile, "outputFile is null");
+    }
+
+    @Override
+    public void close()
+    {
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(outputFile.toFile(), ImmutableMap.of("queries", getMetrics()));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not write query metrics to " + outputFile, e);
+        }
+        LOGGER.info("Query metrics written to {}", outputFile.toAbsolutePath());
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.query.metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static io.trino.tempto.internal.logging.LoggingMdcHelper.getCurrentTestName;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Timings and sizes of a single query executed by a {@link io.trino.tempto.query.QueryExecutor}.
+ */
+public class QueryMetrics
+{
+    private final Optional<String> testName;
+    private final String database;
+    private final String sql;
+    private final boolean succeeded;
+    private final long executeNanos;
+    private final OptionalLong timeToFirstRowNanos;
+    private final long fetchNanos;
+    private final long rowCount;
+    private final long bytes;
+
+    public QueryMetrics(
+            Optional<String> testName,
+            String database,
+            String sql,
+            boolean succeeded,
+            long executeNanos,
+            OptionalLong timeToFirstRowNanos,
+            long fetchNanos,
+            long rowCount,
+            long bytes)
+    {
+        this.testName = requireNonNull(testName, "testName is null");
+        this.database = requireNonNull(database, "database is null");
+        this.sql = requireNonNull(sql, "sql is null");
+        this.succeeded = succeeded;
+        this.executeNanos = executeNanos;
+        this.timeToFirstRowNanos = requireNonNull(timeToFirstRowNanos, "timeToFirstRowNanos is null");
+        this.fetchNanos = fetchNanos;
+        this.rowCount = rowCount;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return name of the test which executed the query, if the query was executed within a test
+     */
+    @JsonProperty
+    public Optional<String> getTestName()
+    {
+        return testName;
+    }
+
+    @JsonProperty
+    public String getDatabase()
+    {
+        return database;
+    }
+
+    @JsonProperty
+    public String getSql()
+    {
+        return sql;
+    }
+
+    @JsonProperty
+    public boolean isSucceeded()
+    {
+        return succeeded;
+    }
+
+    /**
+     * @return time spent waiting for the database to execute the statement
+     */
+    @JsonProperty
+    public long getExecuteNanos()
+    {
+        return executeNanos;
+    }
+
+    /**
+     * @return time from the start of the query until its first row was fetched, empty if the query returned no rows
+     */
+    @JsonProperty
+    public OptionalLong getTimeToFirstRowNanos()
+    {
+        return timeToFirstRowNanos;
+    }
+
+    /**
+     * @return time spent fetching and materializing rows
+     */
+    @JsonProperty
+    public long getFetchNanos()
+    {
+        return fetchNanos;
+    }
+
+    @JsonProperty
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * @return approximate size of fetched values
+     */
+    @JsonProperty
+    public long getBytes()
+    {
+        return bytes;
+    }
+
+    public long getTotalNanos()
+    {
+        return executeNanos + fetchNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format("%s: [%s] execute: %.2fms, fetch: %.2fms, rows: %d, bytes: %d",
+                testName.orElse("<no test>"), sql, executeNanos / 1e6, fetchNanos / 1e6, rowCount, bytes);
+    }
+
+    /**
+     * Captures the test name of the current thread and the start time of the query.
+     */
+    public static Builder builder(String database, String sql)
+    {
+        return new Builder(database, sql);
+    }
+
+    /**
+     * Collects metrics of a query while it is executed. Not thread safe.
+     */
+    public static class Builder
+    {
+        private final Optional<String> testName = getCurrentTestName();
+        private final String database;
+        private final String sql;
+        private long startNanos = System.nanoTime();
+        private boolean executed;
+        private long executeNanos;
+        private OptionalLong timeToFirstRowNanos = OptionalLong.empty();
+        private long fetchNanos;
+        private long rowCount;
+        private long bytes;
+
+        private Builder(String database, String sql)
+        {
+            this.database = requireNonNull(database, "database is null");
+            this.sql = requireNonNull(sql, "sql is null");
+        }
+
+        /**
+         * Resets the start time, e.g. when a query was waiting in a queue since the builder was created.
+         */
+        public Builder started()
+        {
+            startNanos = System.nanoTime();
+            return this;
+        }
+
+        public Builder executed()
+        {
+            executed = true;
+            executeNanos = System.nanoTime() - startNanos;
+            return this;
+        }
+
+        public Builder rowFetched()
+        {
+            if (rowCount == 0) {
+                timeToFirstRowNanos = OptionalLong.of(System.nanoTime() - startNanos);
+            }
+            rowCount++;
+            return this;
+        }
+
+        public Builder valueFetched(Object value)
+        {
+            bytes += estimatedSizeInBytes(value);
+            return this;
+        }
+
+        public Builder fetched(long nanos)
+        {
+            fetchNanos += nanos;
+            return this;
+        }
+
+        /**
+         * If the query failed before it was executed, whole time since the start is recorded as execute time.
+         */
+        public QueryMetrics build(boolean succeeded)
+        {
+            if (!executed) {
+                executeNanos = System.nanoTime() - startNanos;
+            }
+            return new QueryMetrics(testName, database, sql, succeeded, executeNanos, timeToFirstRowNanos, fetchNanos, rowCount, bytes);
+        }
+
+        private static long estimatedSizeInBytes(Object value)
+        {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof String) {
+                return ((String) value).length();
+            }
+            if (value instanceof byte[]) {
+                return ((byte[]) value).length;
+            }
+            if (value instanceof Long || value instanceof Double || value instanceof Date) {
+                return Long.BYTES;
+            }
+            if (value instanceof Integer || value instanceof Float) {
+                return Integer.BYTES;
+            }
+            if (value instanceof Short) {
+                return Short.BYTES;
+            }
+            if (value instanceof Byte || value instanceof Boolean) {
+                return 1;
+            }
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).unscaledValue().bitLength() / Byte.SIZE + 1;
+            }
+            return value.toString().length();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.ssh;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.trino.tempto.process.CliProcess;
+import io.trino.tempto.process.CommandExecutionException;
+import io.trino.tempto.process.TimeoutRuntimeException;
+import io.trino.tempto.threads.ParallelExecutionException;
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.trino.tempto.process.CliProcess.DEFAULT_TIMEOUT;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Runs the same command on many hosts concurrently. At most {@code parallelism} hosts are
+ * contacted at the same time, so with enough parallelism the whole execution takes about as long
+ * as the slowest host.
+ */
+public class ParallelSshExecutor
+        implements Closeable
+{
+    private static final Logger LOGGER = getLogger(ParallelSshExecutor.class);
+
+    private final Map<String, SshClient> clients;
+    private final int parallelism;
+
+    /**
+     * @param clients SSH clients by host, results are returned in the same order
+     * @param parallelism maximum number of hosts commands are run on concurrently
+     */
+    public ParallelSshExecutor(Map<String, SshClient> clients, int parallelism)
+    {
+        this.clients = ImmutableMap.copyOf(requireNonNull(clients, "clients is null"));
+        checkArgument(parallelism > 0, "parallelism must be greater than 0: %s", parallelism);
+        this.parallelism = parallelism;
+    }
+
+    public static ParallelSshExecutor forHosts(SshClientFactory sshClientFactory, List<String> hosts, int parallelism)
+    {
+        requireNonNull(sshClientFactory, "sshClientFactory is null");
+        Map<String, SshClient> clients = new LinkedHashMap<>();
+        for (String host : hosts) {
+            clients.put(host, sshClientFactory.create(host));
+        }
+        return new ParallelSshExecutor(clients, parallelism);
+    }
+
+    /**
+     * Executes command on all hosts, waiting at most {@link CliProcess#DEFAULT_TIMEOUT} for each of them.
+     * Failures, including non zero exit status, are reported in the returned results and are not thrown.
+     */
+    public Map<String, SshCommandResult> execute(String command)
+    {
+        return execute(command, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Executes command on all hosts. Commands that do not finish within given timeout are killed
+     * and reported as failed with the output they wrote so far.
+     */
+    public Map<String, SshCommandResult> execute(String command, Duration timeout)
+    {
+        requireNonNull(command, "command is null");
+        requireNonNull(timeout, "timeout is null");
+        if (clients.isEmpty()) {
+            return ImmutableMap.of();
+        }
+
+        ExecutorService executor = newFixedThreadPool(
+                Math.min(parallelism, clients.size()),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("ssh-parallel-executor-%s")
+                        .setDaemon(true)
+                        .build());
+        try {
+            Map<String, Future<SshCommandResult>> futures = new LinkedHashMap<>();
+            clients.forEach((host, client) -> futures.put(host, executor.submit(() -> execute(host, client, command, timeout))));
+
+            ImmutableMap.Builder<String, SshCommandResult> results = ImmutableMap.builder();
+            for (Map.Entry<String, Future<SshCommandResult>> future : futures.entrySet()) {
+                results.put(future.getKey(), getResult(future.getKey(), future.getValue()));
+            }
+            return results.build();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Executes command on all hosts and throws {@link ParallelExecutionException} with failures
+     * of all hosts on which the command failed.
+     */
+    public Map<String, SshCommandResult> executeAndRethrow(String command)
+    {
+        return rethrowFailures(execute(command));
+    }
+
+    public Map<String, SshCommandResult> executeAndRethrow(String command, Duration timeout)
+    {
+        return rethrowFailures(execute(command, timeout));
+    }
+
+    private static SshCommandResult execute(String host, SshClient client, String command, Duration timeout)
+    {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        List<String> outputLines = new ArrayList<>();
+        List<String> errorLines = new ArrayList<>();
+        try (CliProcess process = client.execute(command)) {
+            // both streams are drained by the process, so they can be read one after another
+            try {
+                readRemainingLines(process::nextOutputLine, outputLines, deadline);
+            }
+            catch (TimeoutRuntimeException e) {
+                // error lines written so far are usually needed to diagnose why the command did not finish
+                readBufferedLines(process::nextErrorLine, errorLines);
+                throw e;
+            }
+            readRemainingLines(process::nextErrorLine, errorLines, deadline);
+            process.waitForWithTimeoutAndKill(remainingUntil(deadline));
+            return SshCommandResult.success(host, outputLines, errorLines, elapsedSince(start));
+        }
+        catch (CommandExecutionException e) {
+            return SshCommandResult.failure(host, outputLines, errorLines, Optional.of(e.getExitStatus()), failure(host, command, e), elapsedSince(start));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SshCommandResult.failure(host, outputLines, errorLines, Optional.empty(), failure(host, command, e), elapsedSince(start));
+        }
+        catch (Throwable e) {
+            return SshCommandResult.failure(host, outputLines, errorLines, Optional.empty(), failure(host, command, e), elapsedSince(start));
+        }
+    }
+
+    /**
+     * Reads lines until the end of the stream.
+     *
+     * @throws TimeoutRuntimeException if the stream does not end before the deadline, lines read so far are kept
+     */
+    private static void readRemainingLines(Function<Duration, String> nextLine, List<String> lines, long deadline)
+    {
+        try {
+            while (true) {
+                lines.add(nextLine.apply(remainingUntil(deadline)));
+            }
+        }
+        catch (NoSuchElementException e) {
+            // end of stream
+        }
+    }
+
+    /**
+     * Reads lines which were already written, without waiting for more.
+     */
+    private static void readBufferedLines(Function<Duration, String> nextLine, List<String> lines)
+    {
+        try {
+            while (true) {
+                lines.add(nextLine.apply(Duration.ZERO));
+            }
+        }
+        catch (TimeoutRuntimeException | NoSuchElementException e) {
+            // no more lines available
+        }
+    }
+
+    private static Duration remainingUntil(long deadlineNanos)
+    {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    private static SshCommandResult getResult(String host, Future<SshCommandResult> future)
+    {
+        try {
+            SshCommandResult result = future.get();
+            LOGGER.debug("Command on {} finished in {} ms", host, result.getElapsedTime().toMillis());
+            return result;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            // execute(host, ...) catches all failures
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static RuntimeException failure(String host, String command, Throwable cause)
+    {
+        return new RuntimeException(format("Command '%s' failed on %s", command, host), cause);
+    }
+
+    private static Duration elapsedSince(long startNanos)
+    {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    private static Map<String, SshCommandResult> rethrowFailures(Map<String, SshCommandResult> results)
+    {
+        List<Throwable> failures = results.values().stream()
+                .map(SshCommandResult::getFailure)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(toImmutableList());
+        if (!failures.isEmpty()) {
+            throw new ParallelExecutionException(failures);
+        }
+        return results;
+    }
+
+    /**
+     * Closes SSH clients of all hosts.
+     */
+    @Override
+    public void close()
+    {
+        for (SshClient client : clients.values()) {
+            try {
+                client.close();
+            }
+            catch (Exception e) {
+                LOGGER.warn("Could not close SSH client", e);
+            }
+        }
+    }
+}
@@ -14,12 +14,17 @@
 package io.trino.tempto.ssh;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import io.trino.tempto.process.CliProcess;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Simple SSH client.
@@ -56,4 +61,33 @@ public interface SshClient
      * @param remotePath Destination path for file on remote machine.
      */
     void upload(Path file, String remotePath);
+
+    /**
+     * Uploads content of a local directory, recursively, to a remote machine.
+     * Implementations may skip files which are already present on the remote machine.
+     *
+     * @param directory Local path to directory which is to be uploaded
+     * @param remoteDirectory Destination directory on remote machine, created if it does not exist.
+     */
+    default void uploadDirectory(Path directory, String remoteDirectory)
+    {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String remotePath = remoteDirectory + "/" + directory.relativize(path).toString().replace(File.separatorChar, '/');
+                if (Files.isDirectory(path)) {
+                    execute(ImmutableList.of("mkdir", "-p", remotePath)).waitForWithTimeoutAndKill();
+                }
+                else if (Files.isRegularFile(path)) {
+                    upload(path, remotePath);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
 }
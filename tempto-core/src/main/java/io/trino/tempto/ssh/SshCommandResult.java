@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.ssh;
+
+import com.google.common.collect.ImmutableList;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Output and exit status of a command executed on a single host by {@link ParallelSshExecutor}.
+ */
+public class SshCommandResult
+{
+    private final String host;
+    private final List<String> outputLines;
+    private final List<String> errorLines;
+    private final Optional<Integer> exitStatus;
+    private final Optional<Throwable> failure;
+    private final Duration elapsedTime;
+
+    private SshCommandResult(String host, List<String> outputLines, List<String> errorLines, Optional<Integer> exitStatus, Optional<Throwable> failure, Duration elapsedTime)
+    {
+        this.host = requireNonNull(host, "host is null");
+        this.outputLines = ImmutableList.copyOf(requireNonNull(outputLines, "outputLines is null"));
+        this.errorLines = ImmutableList.copyOf(requireNonNull(errorLines, "errorLines is null"));
+        this.exitStatus = requireNonNull(exitStatus, "exitStatus is null");
+        this.failure = requireNonNull(failure, "failure is null");
+        this.elapsedTime = requireNonNull(elapsedTime, "elapsedTime is null");
+    }
+
+    static SshCommandResult success(String host, List<String> outputLines, List<String> errorLines, Duration elapsedTime)
+    {
+        return new SshCommandResult(host, outputLines, errorLines, Optional.of(0), Optional.empty(), elapsedTime);
+    }
+
+    static SshCommandResult failure(String host, List<String> outputLines, List<String> errorLines, Optional<Integer> exitStatus, Throwable failure, Duration elapsedTime)
+    {
+        return new SshCommandResult(host, outputLines, errorLines, exitStatus, Optional.of(failure), elapsedTime);
+    }
+
+    public String getHost()
+    {
+        return host;
+    }
+
+    public List<String> getOutputLines()
+    {
+        return outputLines;
+    }
+
+    public List<String> getErrorLines()
+    {
+        return errorLines;
+    }
+
+    /**
+     * @return exit status of the command, empty if the command could not be run or did not finish
+     */
+    public Optional<Integer> getExitStatus()
+    {
+        return exitStatus;
+    }
+
+    public Optional<Throwable> getFailure()
+    {
+        return failure;
+    }
+
+    public boolean isSuccessful()
+    {
+        return !failure.isPresent();
+    }
+
+    public Duration getElapsedTime()
+    {
+        return elapsedTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("host", host)
+                .add("exitStatus", exitStatus.orElse(null))
+                .add("failure", failure.orElse(null))
+                .add("elapsedTime", elapsedTime)
+                .toString();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.threads;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SortedMap;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Distribution of latencies of runnables executed by {@link ParallelExecution}.
+ */
+public class LatencyHistogram
+{
+    private final long[] sortedNanos;
+
+    LatencyHistogram(long[] nanos)
+    {
+        this.sortedNanos = nanos.clone();
+        Arrays.sort(sortedNanos);
+    }
+
+    public int getCount()
+    {
+        return sortedNanos.length;
+    }
+
+    public Duration getMin()
+    {
+        checkNotEmpty();
+        return Duration.ofNanos(sortedNanos[0]);
+    }
+
+    public Duration getMax()
+    {
+        checkNotEmpty();
+        return Duration.ofNanos(sortedNanos[sortedNanos.length - 1]);
+    }
+
+    public Duration getMean()
+    {
+        checkNotEmpty();
+        return Duration.ofNanos((long) Arrays.stream(sortedNanos).average().getAsDouble());
+    }
+
+    /**
+     * @param percentile value between 0 and 100
+     * @return the smallest latency not exceeded by given percent of runnables
+     */
+    public Duration getPercentile(double percentile)
+    {
+        checkArgument(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100: %s", percentile);
+        checkNotEmpty();
+        int index = (int) Math.ceil(percentile / 100 * sortedNanos.length) - 1;
+        return Duration.ofNanos(sortedNanos[Math.max(index, 0)]);
+    }
+
+    /**
+     * @return number of runnables by latency bucket, buckets are identified by their upper bound
+     * which is a power of two milliseconds
+     */
+    public SortedMap<Duration, Long> getBuckets()
+    {
+        ImmutableSortedMap.Builder<Duration, Long> buckets = ImmutableSortedMap.naturalOrder();
+        long upperBoundNanos = MILLISECONDS.toNanos(1);
+        int position = 0;
+        while (position < sortedNanos.length) {
+            long count = 0;
+            while (position < sortedNanos.length && sortedNanos[position] <= upperBoundNanos) {
+                count++;
+                position++;
+            }
+            buckets.put(Duration.ofNanos(upperBoundNanos), count);
+            upperBoundNanos *= 2;
+        }
+        return buckets.build();
+    }
+
+    private void checkNotEmpty()
+    {
+        checkState(sortedNanos.length > 0, "No latencies were recorded");
+    }
+
+    @Override
+    public String toString()
+    {
+        if (sortedNanos.length == 0) {
+            return toStringHelper(this)
+                    .add("count", 0)
+                    .toString();
+        }
+        return toStringHelper(this)
+                .add("count", getCount())
+                .add("min", getMin())
+                .add("p50", getPercentile(50))
+                .add("p90", getPercentile(90))
+                .add("p99", getPercentile(99))
+                .add("max", getMax())
+                .toString();
+    }
+}
@@ -14,30 +14,107 @@
 package io.trino.tempto.threads;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.slf4j.Logger;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Lists.newArrayList;
-import static java.lang.System.currentTimeMillis;
 import static java.util.Collections.synchronizedList;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * A class implementing parallel execution of code blocks.
+ * <p>
+ * By default every runnable is run on its own platform thread. When configured with
+ * {@link ParallelExecutionBuilder#executeOnVirtualThreads(int)} or {@link ParallelExecutionBuilder#executeOn(ExecutorService)},
+ * runnables are submitted to an executor instead, which allows running thousands of them.
  */
 public class ParallelExecution
 {
-    private final List<Thread> threads;
+    private static final Logger LOGGER = getLogger(ParallelExecution.class);
+
+    private static final long NOT_RUN = -1;
+
+    private static final Optional<Method> NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findNewVirtualThreadPerTaskExecutor();
+    private static final boolean VIRTUAL_THREADS_SUPPORTED = newVirtualThreadPerTaskExecutor()
+            .map(executor -> {
+                executor.shutdown();
+                return true;
+            })
+            .orElse(false);
+
+    private final List<IndexedRunnable> runnables;
+    private final Optional<ExecutorSupplier> executorSupplier;
+    private final boolean startBarrier;
+    private final boolean cancelOnFirstFailure;
+
     private final List<Throwable> throwables = synchronizedList(newArrayList());
+    private final long[] latenciesNanos;
+    private final Thread[] runningThreads;
+    private final CountDownLatch ready;
+    private final CountDownLatch startGate = new CountDownLatch(1);
+    private final CountDownLatch finished;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
 
-    private ParallelExecution(List<IndexedRunnable> runnables)
+    private ParallelExecution(List<IndexedRunnable> runnables, Optional<ExecutorSupplier> executorSupplier, boolean startBarrier, boolean cancelOnFirstFailure)
     {
-        threads = asThreads(runnables);
+        this.runnables = ImmutableList.copyOf(runnables);
+        this.executorSupplier = requireNonNull(executorSupplier, "executorSupplier is null");
+        this.startBarrier = startBarrier;
+        this.cancelOnFirstFailure = cancelOnFirstFailure;
+        this.latenciesNanos = new long[runnables.size()];
+        Arrays.fill(latenciesNanos, NOT_RUN);
+        this.runningThreads = new Thread[runnables.size()];
+        this.ready = new CountDownLatch(runnables.size());
+        this.finished = new CountDownLatch(runnables.size());
     }
 
     public ParallelExecution start()
     {
-        threads.stream().forEach(Thread::start);
+        checkState(started.compareAndSet(false, true), "Parallel execution was already started");
+
+        boolean threadPerRunnable = true;
+        if (executorSupplier.isPresent()) {
+            ExecutorService executor = executorSupplier.get().createExecutor(runnables.size());
+            threadPerRunnable = executorSupplier.get().isThreadPerRunnable(runnables.size());
+            for (int i = 0; i < runnables.size(); ++i) {
+                executor.execute(asTask(i, threadPerRunnable));
+            }
+            if (executorSupplier.get().isOwned()) {
+                // already submitted runnables are still executed
+                executor.shutdown();
+            }
+        }
+        else {
+            for (int i = 0; i < runnables.size(); ++i) {
+                new Thread(asTask(i, true)).start();
+            }
+        }
+
+        if (startBarrier && threadPerRunnable) {
+            // waiting for all runnables is possible only when each of them has its own thread
+            Uninterruptibles.awaitUninterruptibly(ready);
+        }
+        startGate.countDown();
         return this;
     }
 
@@ -79,51 +156,113 @@ public class ParallelExecution
     public boolean join(long timeout)
             throws InterruptedException
     {
-        if (timeout == 0) {
-            timeout = Long.MAX_VALUE;
+        if (!started.get()) {
+            return true;
         }
-
-        long startTime = currentTimeMillis();
-
-        for (Thread thread : threads) {
-            long remaining = calculateRemainingTime(startTime, timeout);
-            if (remaining > 0) {
-                thread.join(remaining);
-            }
+        if (timeout == 0) {
+            finished.await();
+            return true;
         }
+        return finished.await(timeout, MILLISECONDS);
+    }
 
-        return calculateRemainingTime(startTime, timeout) > 0;
+    /**
+     * @return {@link Throwable}s that were caught in child threads during execution.
+     */
+    public List<Throwable> getThrowables()
+    {
+        return throwables;
     }
 
-    private long calculateRemainingTime(long startTime, long timeout)
+    /**
+     * @return time it took to run runnable with given index, empty if it has not finished or it was not run
+     * because execution was cancelled
+     */
+    public Optional<Duration> getLatency(int index)
     {
-        long elapsed = currentTimeMillis() - startTime;
-        return timeout - elapsed;
+        checkElementIndex(index, runnables.size());
+        synchronized (latenciesNanos) {
+            long nanos = latenciesNanos[index];
+            return nanos == NOT_RUN ? Optional.empty() : Optional.of(Duration.ofNanos(nanos));
+        }
     }
 
     /**
-     * @return {@link Throwable}s that were caught in child threads during execution.
+     * @return distribution of latencies of finished runnables
      */
-    public List<Throwable> getThrowables()
+    public LatencyHistogram getLatencyHistogram()
     {
-        return throwables;
+        synchronized (latenciesNanos) {
+            return new LatencyHistogram(Arrays.stream(latenciesNanos)
+                    .filter(nanos -> nanos != NOT_RUN)
+                    .toArray());
+        }
     }
 
-    private List<Thread> asThreads(List<IndexedRunnable> runnables)
+    private Runnable asTask(int index, boolean threadPerRunnable)
     {
-        List<Thread> threads = newArrayList();
-        for (int i = 0; i < runnables.size(); ++i) {
-            final int threadIndex = i;
-            threads.add(new Thread(() -> {
-                try {
-                    runnables.get(threadIndex).run(threadIndex);
+        return () -> {
+            try {
+                if (startBarrier && threadPerRunnable) {
+                    ready.countDown();
                 }
-                catch (Throwable throwable) {
-                    throwables.add(throwable);
+                startGate.await();
+                if (cancelled.get()) {
+                    return;
                 }
-            }));
+                run(index);
+            }
+            catch (Throwable throwable) {
+                onFailure(throwable);
+            }
+            finally {
+                finished.countDown();
+            }
+        };
+    }
+
+    private void run(int index)
+            throws Exception
+    {
+        synchronized (runningThreads) {
+            runningThreads[index] = Thread.currentThread();
+        }
+        long start = System.nanoTime();
+        try {
+            runnables.get(index).run(index);
+        }
+        finally {
+            long latencyNanos = System.nanoTime() - start;
+            synchronized (runningThreads) {
+                runningThreads[index] = null;
+            }
+            synchronized (latenciesNanos) {
+                latenciesNanos[index] = latencyNanos;
+            }
+        }
+    }
+
+    private void onFailure(Throwable throwable)
+    {
+        if (!cancelOnFirstFailure) {
+            throwables.add(throwable);
+            return;
+        }
+        if (cancelled.compareAndSet(false, true)) {
+            throwables.add(throwable);
+            LOGGER.debug("Cancelling parallel execution after failure", throwable);
+            synchronized (runningThreads) {
+                for (Thread thread : runningThreads) {
+                    if (thread != null) {
+                        thread.interrupt();
+                    }
+                }
+            }
+        }
+        else if (!(throwable instanceof InterruptedException)) {
+            // runnables interrupted by cancellation are not failures
+            throwables.add(throwable);
         }
-        return threads;
     }
 
     public static ParallelExecution parallelExecution(int nTimes, IndexedRunnable indexedRunnable)
@@ -140,6 +279,9 @@ public class ParallelExecution
     {
         private final List<IndexedRunnable> indexedRunnables = newArrayList();
         private final List<Runnable> runnables = newArrayList();
+        private Optional<ExecutorSupplier> executorSupplier = Optional.empty();
+        private boolean startBarrier;
+        private boolean cancelOnFirstFailure;
 
         public ParallelExecutionBuilder addRunnable(IndexedRunnable indexedRunnable)
         {
@@ -160,6 +302,45 @@ public class ParallelExecution
             return this;
         }
 
+        /**
+         * Runs each runnable on its own virtual thread if they are supported by the JVM. Otherwise runnables
+         * are run on a pool of at most {@code maxPlatformThreads} threads.
+         */
+        public ParallelExecutionBuilder executeOnVirtualThreads(int maxPlatformThreads)
+        {
+            checkArgument(maxPlatformThreads > 0, "maxPlatformThreads must be greater than 0: %s", maxPlatformThreads);
+            this.executorSupplier = Optional.of(ExecutorSupplier.virtualThreads(maxPlatformThreads));
+            return this;
+        }
+
+        /**
+         * Runs runnables on given executor. The executor is not shut down.
+         */
+        public ParallelExecutionBuilder executeOn(ExecutorService executor)
+        {
+            this.executorSupplier = Optional.of(ExecutorSupplier.of(executor));
+            return this;
+        }
+
+        /**
+         * Holds back runnables until all of them are started, so that they begin together. When runnables are run
+         * on a pool which has fewer threads than there are runnables, they are held back until all are submitted.
+         */
+        public ParallelExecutionBuilder withStartBarrier()
+        {
+            this.startBarrier = true;
+            return this;
+        }
+
+        /**
+         * On the first failure, interrupts runnables which are running and skips those which have not started yet.
+         */
+        public ParallelExecutionBuilder cancelOnFirstFailure()
+        {
+            this.cancelOnFirstFailure = true;
+            return this;
+        }
+
         public ParallelExecution build()
         {
             List<IndexedRunnable> allIndexedRunnables =
@@ -167,7 +348,7 @@ public class ParallelExecution
                             .addAll(indexedRunnables)
                             .addAll(asParallelRunnables(runnables))
                             .build();
-            return new ParallelExecution(allIndexedRunnables);
+            return new ParallelExecution(allIndexedRunnables, executorSupplier, startBarrier, cancelOnFirstFailure);
         }
     }
 
@@ -178,4 +359,99 @@ public class ParallelExecution
                 .map((Runnable runnable) -> (IndexedRunnable) (int threadIndex) -> runnable.run())
                 .collect(toList());
     }
+
+    private abstract static class ExecutorSupplier
+    {
+        abstract ExecutorService createExecutor(int runnablesCount);
+
+        abstract boolean isThreadPerRunnable(int runnablesCount);
+
+        abstract boolean isOwned();
+
+        static ExecutorSupplier of(ExecutorService executor)
+        {
+            requireNonNull(executor, "executor is null");
+            return new ExecutorSupplier()
+            {
+                @Override
+                ExecutorService createExecutor(int runnablesCount)
+                {
+                    return executor;
+                }
+
+                @Override
+                boolean isThreadPerRunnable(int runnablesCount)
+                {
+                    // it is not known how many threads the executor has
+                    return false;
+                }
+
+                @Override
+                boolean isOwned()
+                {
+                    return false;
+                }
+            };
+        }
+
+        static ExecutorSupplier virtualThreads(int maxPlatformThreads)
+        {
+            return new ExecutorSupplier()
+            {
+                @Override
+                ExecutorService createExecutor(int runnablesCount)
+                {
+                    return newVirtualThreadPerTaskExecutor().orElseGet(() -> newFixedThreadPool(
+                            Math.max(1, Math.min(maxPlatformThreads, runnablesCount)),
+                            new ThreadFactoryBuilder()
+                                    .setNameFormat("parallel-execution-%s")
+                                    .setDaemon(true)
+                                    .build()));
+                }
+
+                @Override
+                boolean isThreadPerRunnable(int runnablesCount)
+                {
+                    return VIRTUAL_THREADS_SUPPORTED || maxPlatformThreads >= runnablesCount;
+                }
+
+                @Override
+                boolean isOwned()
+                {
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * Tempto is built for Java 8, so virtual threads, when the JVM supports them, are created through reflection.
+     */
+    private static Optional<Method> findNewVirtualThreadPerTaskExecutor()
+    {
+        try {
+            return Optional.of(Executors.class.getMethod("newVirtualThreadPerTaskExecutor"));
+        }
+        catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<ExecutorService> newVirtualThreadPerTaskExecutor()
+    {
+        if (!NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.get().invoke(null));
+        }
+        catch (InvocationTargetException e) {
+            // virtual threads are a preview feature in some Java versions
+            LOGGER.debug("Virtual threads are not available", e.getCause());
+            return Optional.empty();
+        }
+        catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
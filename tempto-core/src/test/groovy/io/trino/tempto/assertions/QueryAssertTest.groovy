@@ -293,6 +293,19 @@ class QueryAssertTest
         noExceptionThrown()
     }
 
+    def 'hasRows with multiple possible values in many columns'()
+    {
+        when:
+        assertThat(NATION_JOIN_REGION_QUERY_RESULT)
+                .contains(
+                row(anyOf(1, 2), anyOf("ALGERIA", "ARGENTINA"), anyOf("AFRICA", "SOUTH AMERICA")),
+                row(anyOf(2L, 3L), "ARGENTINA", anyOf(null, "SOUTH AMERICA")),
+        )
+
+        then:
+        noExceptionThrown()
+    }
+
     def 'hasRows with multiple possible values - no row matching'()
     {
         when:
@@ -331,6 +344,121 @@ class QueryAssertTest
                 '[%,]'
     }
 
+    def 'containsOnly'()
+    {
+        when:
+        assertThat(NATION_JOIN_REGION_QUERY_RESULT)
+                .containsOnly(
+                row(2, "ARGENTINA", "SOUTH AMERICA"),
+                row(1, "ALGERIA", anyOf("AFRICA", "MARS")))
+
+        then:
+        noExceptionThrown()
+    }
+
+    def 'containsOnly - missing and extra rows'()
+    {
+        when:
+        assertThat(NATION_JOIN_REGION_QUERY_RESULT)
+                .containsOnly(
+                row(2, "ARGENTINA", "SOUTH AMERICA"),
+                row(3, "AUSTRIA", "EUROPE"))
+
+        then:
+        def e = thrown(AssertionError)
+        e.message == 'Actual rows do not match expected rows\n' +
+                '\n' +
+                'missing rows (1):\n' +
+                '[3, AUSTRIA, EUROPE]\n' +
+                '\n' +
+                'extra rows (1):\n' +
+                '[1, ALGERIA, AFRICA]'
+    }
+
+    def 'containsOnly - duplicated rows'()
+    {
+        when:
+        assertThat(NATION_JOIN_REGION_QUERY_RESULT)
+                .containsOnly(
+                row(2, "ARGENTINA", "SOUTH AMERICA"),
+                row(2, "ARGENTINA", "SOUTH AMERICA"))
+
+        then:
+        def e = thrown(AssertionError)
+        e.message == 'Actual rows do not match expected rows\n' +
+                '\n' +
+                'rows found fewer times than expected (1):\n' +
+                '[2, ARGENTINA, SOUTH AMERICA] - missing 1 occurrence(s)\n' +
+                '\n' +
+                'extra rows (1):\n' +
+                '[1, ALGERIA, AFRICA]'
+    }
+
+    def 'containsOnly - rows with multiple possible values matching different rows'()
+    {
+        setup:
+        def queryResult = new QueryResult([BIGINT], HashBiMap.create(["n.nationkey": 1]), [[1], [2]], Optional.of(Mock(ResultSet)))
+
+        when:
+        assertThat(queryResult)
+                .containsOnly(
+                row(anyOf(1, 2)),
+                row(anyOf(1, 3)))
+
+        then:
+        noExceptionThrown()
+    }
+
+    def 'containsOnly - identical rows with multiple possible values reassigned to other rows'()
+    {
+        setup:
+        def queryResult = new QueryResult([BIGINT], HashBiMap.create(["n.nationkey": 1]), [[1], [1], [2]], Optional.of(Mock(ResultSet)))
+
+        when:
+        assertThat(queryResult)
+                .containsOnly(
+                row(anyOf(1, 2)),
+                row(anyOf(1, 2)),
+                row(anyOf(1, 3)))
+
+        then:
+        noExceptionThrown()
+    }
+
+    def 'containsOnly - identical rows with multiple possible values found fewer times than expected'()
+    {
+        setup:
+        def queryResult = new QueryResult([BIGINT], HashBiMap.create(["n.nationkey": 1]), [[1], [2]], Optional.of(Mock(ResultSet)))
+
+        when:
+        assertThat(queryResult)
+                .containsOnly(
+                row(anyOf(1, 2)),
+                row(anyOf(1, 2)),
+                row(anyOf(1, 2)))
+
+        then:
+        def e = thrown(AssertionError)
+        e.message == 'Actual rows do not match expected rows\n' +
+                '\n' +
+                'rows found fewer times than expected (1):\n' +
+                '[anyOf(1, 2)] - missing 1 occurrence(s)'
+    }
+
+    def 'containsOnly - many identical rows with multiple possible values'()
+    {
+        setup:
+        int rowsCount = 100_000
+        def queryResult = new QueryResult([BIGINT], HashBiMap.create(["n.nationkey": 1]), [[1]] * rowsCount, Optional.of(Mock(ResultSet)))
+
+        when:
+        assertThat(queryResult)
+                .containsOnly([row(anyOf(1, 2))] * rowsCount)
+
+        then:
+        noExceptionThrown()
+    }
+
     def 'hasRowsInOrder - different number of rows'()
     {
         when:
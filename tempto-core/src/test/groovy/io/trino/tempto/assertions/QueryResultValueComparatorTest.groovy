@@ -54,9 +54,12 @@ class QueryResultValueComparatorTest
         setup:
         Configuration configuration = Mock(Configuration)
         configuration.getDouble(_) >> Optional.empty()
+        QueryResultValueComparator comparator = QueryResultValueComparator.comparatorForType(type, configuration)
 
         expect:
-        QueryResultValueComparator.comparatorForType(type, configuration).test(actual, expected) == result
+        comparator.test(actual, expected) == result
+        comparator.isHashable()
+        comparator.hashKey(actual).equals(comparator.hashKey(expected)) == result
 
         where:
         type                    | actual                                   | expected                                 | result
@@ -165,6 +168,17 @@ class QueryResultValueComparatorTest
         FLOAT  | Double.valueOf(-1010.001) | Double.valueOf(-1000.0) | false
     }
 
+    def 'floating point values are not hashable with tolerance'()
+    {
+        setup:
+        Configuration configuration = Mock(Configuration)
+        configuration.getDouble(_) >> Optional.of(Double.valueOf(0.01))
+
+        expect:
+        !QueryResultValueComparator.comparatorForType(DOUBLE, configuration).isHashable()
+        QueryResultValueComparator.comparatorForType(BIGINT, configuration).isHashable()
+    }
+
     private byte[] byteArray(int value)
     {
         return [value];
@@ -16,8 +16,20 @@ package io.trino.tempto.fulfillment.table.hive.tpcds;
 
 import io.trino.tempto.fulfillment.table.hive.statistics.ColumnStatistics;
 import io.trino.tempto.fulfillment.table.hive.statistics.TableStatistics;
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.trino.tempto.fulfillment.table.hive.tpcds.TpcdsTableDefinitions.withPartCount;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.io.IOUtils.toByteArray;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -39,4 +51,66 @@ public class TpcdsDataSourceTest
         assertEquals(nameStatistics.getMin().get(), "Mid Atlantic");
         assertEquals(nameStatistics.getMax().get(), "North Midwest");
     }
+
+    @Test
+    public void testData()
+            throws IOException
+    {
+        TpcdsDataSource callCenterDataSource = new TpcdsDataSource(TpcdsTable.CALL_CENTER, 1);
+
+        String data;
+        try (InputStream inputStream = getOnlyElement(callCenterDataSource.data()).getInputStream()) {
+            data = new String(toByteArray(inputStream), UTF_8);
+        }
+        String[] lines = data.split("\n", -1);
+        assertEquals(lines.length, 7);
+        assertEquals(lines[6], "");
+        for (int i = 0; i < 6; i++) {
+            assertEquals(lines[i].split("\\|", -1).length, 32);
+        }
+        assertEquals(lines[0].substring(0, lines[0].indexOf("|", 2) + 1), "1|AAAAAAAABAAAAAAA|");
+    }
+
+    @Test
+    public void testParts()
+            throws IOException
+    {
+        String singlePart = readAll(new TpcdsDataSource(TpcdsTable.CUSTOMER_ADDRESS, 1).data());
+        String threeParts = readAll(new TpcdsDataSource(TpcdsTable.CUSTOMER_ADDRESS, 1, 3).data());
+        assertEquals(new TpcdsDataSource(TpcdsTable.CUSTOMER_ADDRESS, 1, 3).data().size(), 3);
+        assertEquals(sortedLines(threeParts), sortedLines(singlePart));
+    }
+
+    @Test
+    public void testPathSuffix()
+    {
+        assertEquals(new TpcdsDataSource(TpcdsTable.CUSTOMER_ADDRESS, 1).getPathSuffix(), "tpcds/sf-1/CUSTOMER_ADDRESS");
+        assertEquals(new TpcdsDataSource(TpcdsTable.CUSTOMER_ADDRESS, 1, 3).getPathSuffix(), "tpcds/sf-1/CUSTOMER_ADDRESS-3parts");
+    }
+
+    @Test
+    public void testTableDefinitionWithPartCount()
+    {
+        assertEquals(withPartCount(TpcdsTableDefinitions.STORE_SALES, 3).getDataSource(), new TpcdsDataSource(TpcdsTable.STORE_SALES, 1, 3));
+        assertEquals(withPartCount(TpcdsTableDefinitions.STORE_SALES, 3).getName(), "store_sales");
+    }
+
+    private static String readAll(Collection<RepeatableContentProducer> parts)
+            throws IOException
+    {
+        StringBuilder data = new StringBuilder();
+        for (RepeatableContentProducer part : parts) {
+            try (InputStream inputStream = part.getInputStream()) {
+                data.append(new String(toByteArray(inputStream), UTF_8));
+            }
+        }
+        return data.toString();
+    }
+
+    private static List<String> sortedLines(String data)
+    {
+        return Stream.of(data.split("\n"))
+                .sorted()
+                .collect(toList());
+    }
 }
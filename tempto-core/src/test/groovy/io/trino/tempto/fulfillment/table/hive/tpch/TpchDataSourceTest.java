@@ -15,8 +15,23 @@ package io.trino.tempto.fulfillment.table.hive.tpch;
 
 import io.trino.tempto.fulfillment.table.hive.statistics.ColumnStatistics;
 import io.trino.tempto.fulfillment.table.hive.statistics.TableStatistics;
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.trino.tempto.fulfillment.table.hive.tpch.TpchTableDefinitions.DEFAULT_SCALE_FACTOR;
+import static io.trino.tempto.fulfillment.table.hive.tpch.TpchTableDefinitions.withPartCount;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -38,4 +53,84 @@ public class TpchDataSourceTest
         assertEquals(nationkeyStatistics.getMin().get(), 0);
         assertEquals(nationkeyStatistics.getMax().get(), 24);
     }
+
+    @Test
+    public void testData()
+            throws IOException
+    {
+        TpchDataSource nationDataSource = new TpchDataSource(TpchTable.NATION, 1);
+
+        String data;
+        try (InputStream inputStream = getOnlyElement(nationDataSource.data()).getInputStream()) {
+            data = new String(toByteArray(inputStream), UTF_8);
+        }
+        String[] lines = data.split("\n", -1);
+        assertEquals(lines.length, 25);
+        assertEquals(lines[0], "0|ALGERIA|0| haggle. carefully final deposits detect slyly agai|");
+        assertEquals(lines[24], "24|UNITED STATES|1|y final packages. slow foxes cajole quickly. quickly silent platelets breach ironic accounts. unusual pinto be|");
+    }
+
+    @Test
+    public void testBulkReadMatchesSingleByteRead()
+            throws IOException
+    {
+        RepeatableContentProducer lineItemData = getOnlyElement(new TpchDataSource(TpchTable.LINE_ITEM, 0.01).data());
+
+        byte[] bulkRead;
+        try (InputStream inputStream = lineItemData.getInputStream()) {
+            bulkRead = toByteArray(inputStream);
+        }
+
+        ByteArrayOutputStream singleByteRead = new ByteArrayOutputStream();
+        try (InputStream inputStream = lineItemData.getInputStream()) {
+            for (int value = inputStream.read(); value != -1; value = inputStream.read()) {
+                singleByteRead.write(value);
+            }
+        }
+        assertArrayEquals(bulkRead, singleByteRead.toByteArray());
+    }
+
+    @Test
+    public void testParts()
+            throws IOException
+    {
+        String singlePart = readAll(new TpchDataSource(TpchTable.ORDERS, 0.01).data());
+        String threeParts = readAll(new TpchDataSource(TpchTable.ORDERS, 0.01, 3).data());
+        assertEquals(new TpchDataSource(TpchTable.ORDERS, 0.01, 3).data().size(), 3);
+        assertEquals(sortedLines(threeParts), sortedLines(singlePart));
+    }
+
+    @Test
+    public void testPathSuffix()
+    {
+        assertEquals(new TpchDataSource(TpchTable.ORDERS, 0.01).getPathSuffix(), "tpch/sf-0_01/ORDERS");
+        assertEquals(new TpchDataSource(TpchTable.ORDERS, 0.01, 3).getPathSuffix(), "tpch/sf-0_01/ORDERS-3parts");
+    }
+
+    @Test
+    public void testTableDefinitionWithPartCount()
+    {
+        assertEquals(withPartCount(TpchTableDefinitions.ORDERS, 3).getDataSource(), new TpchDataSource(TpchTable.ORDERS, DEFAULT_SCALE_FACTOR, 3));
+        assertEquals(withPartCount(TpchTableDefinitions.ORDERS, 3).getName(), "orders");
+    }
+
+    private static String readAll(Collection<RepeatableContentProducer> parts)
+            throws IOException
+    {
+        StringBuilder data = new StringBuilder();
+        for (RepeatableContentProducer part : parts) {
+            try (InputStream inputStream = part.getInputStream()) {
+                data.append(new String(toByteArray(inputStream), UTF_8)).append('\n');
+            }
+        }
+        return data.toString();
+    }
+
+    private static List<String> sortedLines(String data)
+    {
+        return Stream.of(data.split("\n"))
+                .filter(line -> !line.isEmpty())
+                .sorted()
+                .collect(toList());
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.fulfillment.table.jdbc.tpch
+
+import com.google.common.base.Splitter
+import io.trino.tempto.fulfillment.table.hive.tpch.TpchTable
+import io.trino.tempto.internal.query.QueryRowMapper
+import spock.lang.Specification
+
+import java.sql.Date
+import java.sql.JDBCType
+
+import static java.sql.JDBCType.BIGINT
+import static java.sql.JDBCType.DATE
+import static java.sql.JDBCType.DECIMAL
+import static java.sql.JDBCType.DOUBLE
+import static java.sql.JDBCType.INTEGER
+import static java.sql.JDBCType.VARCHAR
+
+class JdbcTpchDataSourceTest
+        extends Specification
+{
+    private static final List<JDBCType> LINE_ITEM_TYPES = [BIGINT, BIGINT, BIGINT, INTEGER, DOUBLE, DOUBLE, DOUBLE, DOUBLE,
+                                                           VARCHAR, VARCHAR, DATE, DATE, DATE, VARCHAR, VARCHAR, VARCHAR]
+
+    def 'nation rows'()
+    {
+        when:
+        List<List<Object>> rows = new JdbcTpchDataSource(TpchTable.NATION, JdbcTpchTableDefinitions.NATION_TYPES, 0.01).getDataRows().toList()
+
+        then:
+        rows.size() == 25
+        rows[0][0..2] == [0L, 'ALGERIA', 0L]
+        rows[24][0..2] == [24L, 'UNITED STATES', 1L]
+    }
+
+    def 'typed values are the same as values parsed from rendered lines'()
+    {
+        setup:
+        QueryRowMapper rowMapper = new QueryRowMapper(LINE_ITEM_TYPES)
+        Iterator<List<Object>> rows = new JdbcTpchDataSource(TpchTable.LINE_ITEM, LINE_ITEM_TYPES, 0.01).getDataRows()
+        Iterator<?> entities = TpchTable.LINE_ITEM.entity().createGenerator(0.01, 1, 1).iterator()
+
+        expect:
+        (1..1000).each {
+            List<String> line = Splitter.on('|').splitToList(entities.next().toLine())
+            assert rows.next() == rowMapper.mapToRow(line.subList(0, line.size() - 1)).getValues()
+        }
+    }
+
+    def 'decimal and date values'()
+    {
+        when:
+        List<Object> row = new JdbcTpchDataSource(TpchTable.LINE_ITEM, LINE_ITEM_TYPES.withIndex().collect { type, i -> i == 5 ? DECIMAL : type }, 0.01)
+                .getDataRows().next()
+
+        then:
+        row[5] instanceof BigDecimal
+        row[10] instanceof Date
+    }
+
+    def 'fall back to parsing rendered lines for unsupported column types'()
+    {
+        when:
+        List<Object> row = new JdbcTpchDataSource(TpchTable.NATION, [VARCHAR, VARCHAR, INTEGER, VARCHAR], 0.01).getDataRows().next()
+
+        then:
+        row[0..2] == ['0', 'ALGERIA', 0]
+    }
+}
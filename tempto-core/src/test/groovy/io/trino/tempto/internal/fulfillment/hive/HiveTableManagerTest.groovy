@@ -21,6 +21,7 @@ import io.trino.tempto.internal.fulfillment.table.TableNameGenerator
 import io.trino.tempto.internal.fulfillment.table.hive.HiveTableManager
 import io.trino.tempto.internal.fulfillment.table.hive.HiveThriftClient
 import io.trino.tempto.internal.hadoop.hdfs.HdfsDataSourceWriter
+import io.trino.tempto.query.JdbcQueryExecutor
 import io.trino.tempto.query.QueryExecutor
 import io.trino.tempto.query.QueryResult
 import spock.lang.Specification
@@ -71,6 +72,37 @@ class HiveTableManagerTest
         1 * queryExecutor.executeQuery(expandDDLTemplate(NATION_DDL_TEMPLATE, expectedTableNameInDatabase, expectedTableLocation))
     }
 
+    def 'should fork with separate JDBC query executor'()
+    {
+        setup:
+        JdbcQueryExecutor jdbcQueryExecutor = Mock()
+        JdbcQueryExecutor forkedQueryExecutor = Mock()
+        HiveThriftClient forkedThriftClient = Mock()
+        jdbcQueryExecutor.fork() >> forkedQueryExecutor
+        hiveThriftClient.newClient() >> forkedThriftClient
+        def jdbcTableManager = new HiveTableManager(jdbcQueryExecutor, dataSourceWriter, tableNameGenerator, hiveThriftClient, ROOT_PATH, "database", false, false)
+
+        when:
+        def fork = jdbcTableManager.fork().get()
+        fork.createImmutable(getNationHiveTableDefinition())
+        fork.close()
+
+        then:
+        1 * dataSourceWriter.ensureDataOnHdfs('/tests-path/some/table/in/hdfs', _)
+        (1.._) * forkedQueryExecutor.executeQuery(_)
+        0 * jdbcQueryExecutor.executeQuery(_)
+        1 * forkedQueryExecutor.close()
+        0 * jdbcQueryExecutor.close()
+        1 * forkedThriftClient.close()
+        0 * hiveThriftClient.close()
+    }
+
+    def 'should not fork without JDBC query executor'()
+    {
+        expect:
+        !tableManager.fork().isPresent()
+    }
+
     def 'should create hive mutable table loaded not partitioned'()
     {
         setup:
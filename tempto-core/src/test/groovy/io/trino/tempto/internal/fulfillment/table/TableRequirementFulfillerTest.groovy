@@ -24,8 +24,11 @@ import io.trino.tempto.fulfillment.table.TableHandle
 import io.trino.tempto.fulfillment.table.TableInstance
 import io.trino.tempto.fulfillment.table.TableManager
 import io.trino.tempto.fulfillment.table.TableManagerDispatcher
+import io.trino.tempto.internal.configuration.MapConfiguration
 import spock.lang.Specification
 
+import java.util.concurrent.atomic.AtomicInteger
+
 import static com.google.common.collect.Iterables.getOnlyElement
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.CREATED
 import static io.trino.tempto.fulfillment.table.MutableTableRequirement.State.LOADED
@@ -227,6 +230,111 @@ class TableRequirementFulfillerTest
         0 * _
     }
 
+    def "test stale mutable tables are dropped once per table manager"()
+    {
+        setup:
+        def nationDefinition = getTableDefinition("nation")
+        def regionDefinition = getTableDefinition("region")
+        def nationInstance = new TableInstance(new TableName(DATABASE_NAME, Optional.empty(), "nation", "nation"), nationDefinition)
+        def regionInstance = new TableInstance(new TableName(DATABASE_NAME, Optional.empty(), "region", "region"), regionDefinition)
+
+        ImmutableTablesFulfiller fulfiller = new ImmutableTablesFulfiller(tableManagerDispatcher)
+
+        when:
+        def states = fulfiller.fulfill([new ImmutableTableRequirement(nationDefinition), new ImmutableTableRequirement(regionDefinition)] as Set)
+
+        then:
+        1 * tableManager.dropStaleMutableTables()
+        1 * tableManager.createImmutable(nationDefinition) >> nationInstance
+        1 * tableManager.createImmutable(regionDefinition) >> regionInstance
+        def state = (ImmutableTablesState) getOnlyElement(states)
+        state.get('nation') == nationInstance
+        state.get('region') == regionInstance
+    }
+
+    def "test immutable tables are prepared together before they are created"()
+    {
+        setup:
+        def nationDefinition = getTableDefinition("nation")
+        def regionDefinition = getTableDefinition("region")
+        def nationInstance = new TableInstance(new TableName(DATABASE_NAME, Optional.empty(), "nation", "nation"), nationDefinition)
+        def regionInstance = new TableInstance(new TableName(DATABASE_NAME, Optional.empty(), "region", "region"), regionDefinition)
+
+        ImmutableTablesFulfiller fulfiller = new ImmutableTablesFulfiller(tableManagerDispatcher)
+
+        when:
+        fulfiller.fulfill([new ImmutableTableRequirement(nationDefinition), new ImmutableTableRequirement(regionDefinition)] as Set)
+
+        then:
+        1 * tableManager.prepareImmutableTables({ it as Set == [nationDefinition, regionDefinition] as Set })
+
+        then:
+        1 * tableManager.createImmutable(nationDefinition) >> nationInstance
+        1 * tableManager.createImmutable(regionDefinition) >> regionInstance
+    }
+
+    def "test parallel immutable table fulfill"()
+    {
+        setup:
+        def parallelTableManager = new ParallelTestTableManager()
+        def dispatcher = new DefaultTableManagerDispatcher([(DATABASE_NAME): parallelTableManager])
+        def configuration = new MapConfiguration(['tests': ['table_managers': ['parallel_test': ['parallelism': 4]]]])
+        def tableNames = (1..8).collect { "table_${it}".toString() }
+        def requirements = tableNames.collect { new ImmutableTableRequirement(getTableDefinition(it)) }
+
+        ImmutableTablesFulfiller fulfiller = new ImmutableTablesFulfiller(dispatcher, configuration)
+
+        when:
+        def states = fulfiller.fulfill(requirements as Set)
+
+        then:
+        def state = (ImmutableTablesState) getOnlyElement(states)
+        tableNames.every { state.get(it).name == it }
+        parallelTableManager.threadNames.every { it.startsWith('table-fulfiller-database_name-') }
+        parallelTableManager.forks.get() == 4
+        parallelTableManager.closedForks.get() == 4
+    }
+
+    def "test tables are created sequentially when table manager cannot be forked"()
+    {
+        setup:
+        def parallelTableManager = new ParallelTestTableManager(false)
+        def dispatcher = new DefaultTableManagerDispatcher([(DATABASE_NAME): parallelTableManager])
+        def configuration = new MapConfiguration(['tests': ['table_managers': ['parallel_test': ['parallelism': 4]]]])
+        def tableNames = (1..4).collect { "table_${it}".toString() }
+        def requirements = tableNames.collect { new ImmutableTableRequirement(getTableDefinition(it)) }
+
+        ImmutableTablesFulfiller fulfiller = new ImmutableTablesFulfiller(dispatcher, configuration)
+
+        when:
+        def states = fulfiller.fulfill(requirements as Set)
+
+        then:
+        def state = (ImmutableTablesState) getOnlyElement(states)
+        tableNames.every { state.get(it).name == it }
+        parallelTableManager.threadNames.every { it == Thread.currentThread().name }
+    }
+
+    def "test parallel immutable table fulfill failure"()
+    {
+        setup:
+        def parallelTableManager = new ParallelTestTableManager()
+        def dispatcher = new DefaultTableManagerDispatcher([(DATABASE_NAME): parallelTableManager])
+        def configuration = new MapConfiguration(['tests': ['table_managers': ['parallel_test': ['parallelism': 4]]]])
+        def requirements = ['table_1', 'failing_1', 'table_2', 'failing_2'].collect { new ImmutableTableRequirement(getTableDefinition(it)) }
+
+        ImmutableTablesFulfiller fulfiller = new ImmutableTablesFulfiller(dispatcher, configuration)
+
+        when:
+        fulfiller.fulfill(requirements as Set)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.startsWith('failing_')
+        e.suppressed.length == 1
+        parallelTableManager.closedForks.get() == parallelTableManager.forks.get()
+    }
+
     def getTableDefinition(String tableName)
     {
         return new TestTableDefinition(tableHandle(tableName))
@@ -246,6 +354,79 @@ class TableRequirementFulfillerTest
         }
     }
 
+    @TableManager.Descriptor(tableDefinitionClass = TestTableDefinition, type = 'parallel_test')
+    static class ParallelTestTableManager
+            implements TableManager<TestTableDefinition>
+    {
+        final List<String> threadNames
+        final AtomicInteger forks
+        final AtomicInteger closedForks
+        final boolean forkable
+
+        ParallelTestTableManager(boolean forkable = true)
+        {
+            this(Collections.synchronizedList([]), new AtomicInteger(), new AtomicInteger(), forkable)
+        }
+
+        ParallelTestTableManager(List<String> threadNames, AtomicInteger forks, AtomicInteger closedForks, boolean forkable)
+        {
+            this.threadNames = threadNames
+            this.forks = forks
+            this.closedForks = closedForks
+            this.forkable = forkable
+        }
+
+        @Override
+        Optional<TableManager<TestTableDefinition>> fork()
+        {
+            if (!forkable) {
+                return Optional.empty()
+            }
+            forks.incrementAndGet()
+            return Optional.of(new ParallelTestTableManager(threadNames, forks, closedForks, forkable) {
+                @Override
+                void close()
+                {
+                    closedForks.incrementAndGet()
+                }
+            })
+        }
+
+        @Override
+        TableInstance<TestTableDefinition> createImmutable(TestTableDefinition tableDefinition, TableHandle tableHandle)
+        {
+            threadNames.add(Thread.currentThread().name)
+            if (tableHandle.name.startsWith('failing')) {
+                throw new IllegalStateException(tableHandle.name)
+            }
+            return new TableInstance(new TableName(DATABASE_NAME, Optional.empty(), tableHandle.name, tableHandle.name), tableDefinition)
+        }
+
+        @Override
+        TableInstance<TestTableDefinition> createMutable(TestTableDefinition tableDefinition, MutableTableRequirement.State state, TableHandle tableHandle)
+        {
+            throw new UnsupportedOperationException()
+        }
+
+        @Override
+        void dropTable(TableName tableName) {}
+
+        @Override
+        void dropStaleMutableTables() {}
+
+        @Override
+        String getDatabaseName()
+        {
+            return DATABASE_NAME
+        }
+
+        @Override
+        Class<? extends TableDefinition> getTableDefinitionClass()
+        {
+            return TestTableDefinition
+        }
+    }
+
     static class OtherTestTableDefinition
             extends TableDefinition
     {
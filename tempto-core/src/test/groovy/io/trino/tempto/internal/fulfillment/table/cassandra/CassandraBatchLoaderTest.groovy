@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table.cassandra
+
+import com.datastax.driver.core.BatchStatement
+import com.datastax.driver.core.BoundStatement
+import com.datastax.driver.core.Cluster
+import com.datastax.driver.core.CodecRegistry
+import com.datastax.driver.core.Configuration
+import com.datastax.driver.core.Host
+import com.datastax.driver.core.Metadata
+import com.datastax.driver.core.PreparedStatement
+import com.datastax.driver.core.ProtocolOptions
+import com.datastax.driver.core.ProtocolVersion
+import com.datastax.driver.core.ResultSet
+import com.datastax.driver.core.ResultSetFuture
+import com.datastax.driver.core.Session
+import com.datastax.driver.core.Statement
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.util.concurrent.Executor
+
+class CassandraBatchLoaderTest
+        extends Specification
+{
+    Metadata metadata = Mock()
+    Session session = Mock()
+    PreparedStatement statement = Mock()
+    Map<Integer, BoundStatement> boundStatements = [:]
+    List<Statement> executedStatements = []
+
+    void setup()
+    {
+        ProtocolOptions protocolOptions = Mock()
+        protocolOptions.getProtocolVersion() >> ProtocolVersion.V4
+        Configuration configuration = Mock()
+        configuration.getProtocolOptions() >> protocolOptions
+        configuration.getCodecRegistry() >> CodecRegistry.DEFAULT_INSTANCE
+        Cluster cluster = Mock()
+        cluster.getMetadata() >> metadata
+        cluster.getConfiguration() >> configuration
+        session.getCluster() >> cluster
+        session.executeAsync(_ as Statement) >> { Statement request ->
+            executedStatements.add(request)
+            return completedFuture()
+        }
+        statement.bind(_) >> { arguments -> boundStatements[arguments[0][0] as Integer] }
+    }
+
+    def 'rows are batched by replicas of their partition key'()
+    {
+        setup:
+        Host firstHost = Mock()
+        Host secondHost = Mock()
+        (1..4).each { key -> boundStatements[key] = boundStatement(key, 'test_keyspace') }
+        metadata.getReplicas(Metadata.quote('test_keyspace'), _) >> { String keyspace, ByteBuffer routingKey ->
+            routingKey.getInt(0) % 2 == 1 ? [firstHost] as Set : [secondHost] as Set
+        }
+        def loader = new CassandraBatchLoader(session, statement, 1, 2, 1)
+
+        when:
+        loader.load([[1], [2], [3], [4]].iterator())
+
+        then:
+        executedStatements.size() == 2
+        executedStatements.every { it instanceof BatchStatement }
+        executedStatements.collect { (it as BatchStatement).statements as List } as Set == [
+                [boundStatements[1], boundStatements[3]],
+                [boundStatements[2], boundStatements[4]]] as Set
+    }
+
+    def 'rows without keyspace are batched together'()
+    {
+        setup:
+        (1..2).each { key -> boundStatements[key] = boundStatement(key, null) }
+        def loader = new CassandraBatchLoader(session, statement, 1, 2, 1)
+
+        when:
+        loader.load([[1], [2]].iterator())
+
+        then:
+        0 * metadata.getReplicas(_, _)
+        executedStatements.size() == 1
+        (executedStatements[0] as BatchStatement).statements as List == [boundStatements[1], boundStatements[2]]
+    }
+
+    private BoundStatement boundStatement(int key, String keyspace)
+    {
+        BoundStatement boundStatement = Mock()
+        boundStatement.getKeyspace() >> keyspace
+        boundStatement.getRoutingKey(_, _) >> ByteBuffer.allocate(4).putInt(0, key)
+        return boundStatement
+    }
+
+    private ResultSetFuture completedFuture()
+    {
+        ResultSet resultSet = Mock()
+        ResultSetFuture future = Mock()
+        future.isDone() >> true
+        future.get() >> resultSet
+        future.addListener(_, _) >> { Runnable listener, Executor executor -> executor.execute(listener) }
+        return future
+    }
+}
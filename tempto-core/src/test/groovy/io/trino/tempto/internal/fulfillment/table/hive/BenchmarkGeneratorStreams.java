@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.internal.fulfillment.table.hive;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Stopwatch;
+import io.trino.tempto.fulfillment.table.hive.tpcds.TpcdsDataSource;
+import io.trino.tempto.fulfillment.table.hive.tpcds.TpcdsTable;
+import io.trino.tempto.fulfillment.table.hive.tpch.TpchDataSource;
+import io.trino.tempto.fulfillment.table.hive.tpch.TpchTable;
+import io.trino.tempto.hadoop.hdfs.HdfsClient.RepeatableContentProducer;
+import io.trino.tpcds.Results;
+import io.trino.tpcds.Session;
+import io.trino.tpch.TpchEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.trino.tpcds.Results.constructResults;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.io.IOUtils.copyLarge;
+import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
+
+/**
+ * Compares throughput of streams used for uploading TPC-H and TPC-DS data with the
+ * single-byte streams they replaced, draining them the same way as {@code WebHdfsClient} does.
+ * <p>
+ * Usage: {@code BenchmarkGeneratorStreams [scaleFactor...]}, scale factors default to 1 and 10.
+ */
+public final class BenchmarkGeneratorStreams
+{
+    private BenchmarkGeneratorStreams() {}
+
+    public static void main(String[] args)
+            throws IOException
+    {
+        int[] scaleFactors = args.length == 0 ? new int[] {1, 10} : Stream.of(args).mapToInt(Integer::parseInt).toArray();
+        for (int scaleFactor : scaleFactors) {
+            TpchTable tpchTable = TpchTable.LINE_ITEM;
+            Iterable<? extends TpchEntity> tpchRows = tpchTable.entity().createGenerator(scaleFactor, 1, 1);
+            benchmark(format("tpch sf%d %s single-byte", scaleFactor, tpchTable), () -> new LegacyTpchInputStream<>(tpchRows));
+            benchmark(format("tpch sf%d %s bulk", scaleFactor, tpchTable), getOnlyElement(new TpchDataSource(tpchTable, scaleFactor).data()));
+
+            TpcdsTable tpcdsTable = TpcdsTable.STORE_SALES;
+            benchmark(format("tpcds sf%d %s single-byte", scaleFactor, tpcdsTable), () -> new LegacyTpcdsInputStream(generateTpcds(tpcdsTable, scaleFactor)));
+            benchmark(format("tpcds sf%d %s bulk", scaleFactor, tpcdsTable), getOnlyElement(new TpcdsDataSource(tpcdsTable, scaleFactor).data()));
+        }
+    }
+
+    private static void benchmark(String name, RepeatableContentProducer contentProducer)
+            throws IOException
+    {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        long bytes;
+        try (InputStream inputStream = contentProducer.getInputStream()) {
+            bytes = copyLarge(inputStream, NULL_OUTPUT_STREAM);
+        }
+        long nanos = stopwatch.elapsed(NANOSECONDS);
+        double megabytesPerSecond = bytes / 1024.0 / 1024.0 / (nanos / 1_000_000_000.0);
+        System.out.println(format("%-40s %,16d bytes %10.2f s %10.2f MB/s", name, bytes, nanos / 1_000_000_000.0, megabytesPerSecond));
+    }
+
+    private static Iterator<String> generateTpcds(TpcdsTable table, int scaleFactor)
+    {
+        Session session = Session.getDefaultSession()
+                .withScale(scaleFactor)
+                .withParallelism(1)
+                .withTable(table.getTable())
+                .withNoSexism(false);
+        Results results = constructResults(table.getTable(), session);
+
+        return StreamSupport.stream(results.spliterator(), false)
+                .flatMap(rowBatch -> rowBatch.stream())
+                .map(BenchmarkGeneratorStreams::formatTpcdsRow)
+                .flatMap(row -> Stream.of(row, "\n"))
+                .iterator();
+    }
+
+    private static String formatTpcdsRow(List<String> row)
+    {
+        return row.stream()
+                .map(column -> column == null ? "\\N" : column)
+                .collect(Collectors.joining("|")) + "|";
+    }
+
+    private static class LegacyTpchInputStream<T extends TpchEntity>
+            extends InputStream
+    {
+        private final Iterator<T> rowIterator;
+        private CharSequence currentLine;
+        private int currentReadLineIndex;
+        private boolean newLinePrinted = true;
+
+        public LegacyTpchInputStream(Iterable<T> iterable)
+        {
+            this.rowIterator = iterable.iterator();
+        }
+
+        @Override
+        public int read()
+        {
+            if (currentLine == null || currentReadLineIndex >= currentLine.length()) {
+                if (rowIterator.hasNext()) {
+                    newLinePrinted = currentLine == null;
+                    currentReadLineIndex = 0;
+                    currentLine = rowIterator.next().toLine();
+                }
+                else {
+                    return -1;
+                }
+            }
+            if (!newLinePrinted) {
+                newLinePrinted = true;
+                return '\n';
+            }
+            return currentLine.charAt(currentReadLineIndex++);
+        }
+    }
+
+    private static class LegacyTpcdsInputStream
+            extends InputStream
+    {
+        private final Iterator<String> data;
+        private int position;
+        private byte[] value;
+
+        public LegacyTpcdsInputStream(Iterator<String> data)
+        {
+            this.data = data;
+        }
+
+        @Override
+        public int read()
+        {
+            if (value == null) {
+                if (data.hasNext()) {
+                    position = 0;
+                    value = data.next().getBytes(Charsets.UTF_8);
+                }
+                else {
+                    return -1;
+                }
+            }
+
+            if (position < value.length) {
+                return value[position++];
+            }
+            else {
+                value = null;
+                return read();
+            }
+        }
+    }
+}
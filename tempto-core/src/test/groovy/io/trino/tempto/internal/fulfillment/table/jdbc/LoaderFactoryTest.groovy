@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.fulfillment.table.jdbc
+
+import io.trino.tempto.context.TestContext
+import io.trino.tempto.internal.context.GuiceTestContext
+import io.trino.tempto.query.JdbcConnectionsPool
+import io.trino.tempto.query.JdbcConnectivityParamsState
+import io.trino.tempto.query.JdbcQueryExecutor
+import io.trino.tempto.query.QueryExecutor
+import spock.lang.Specification
+
+import java.sql.Connection
+import java.sql.DatabaseMetaData
+
+import static io.trino.tempto.assertions.QueryAssert.Row.row
+import static io.trino.tempto.assertions.QueryAssert.assertThat
+import static io.trino.tempto.internal.configuration.TestConfigurationFactory.TEST_CONFIGURATION_URIS_KEY
+import static io.trino.tempto.internal.query.JdbcUtils.registerDriver
+import static java.sql.JDBCType.INTEGER
+import static java.sql.JDBCType.VARCHAR
+
+class LoaderFactoryTest
+        extends Specification
+{
+    private static final JdbcConnectivityParamsState JDBC_STATE =
+            JdbcConnectivityParamsState.builder()
+                    .setName('loader_connection')
+                    .setDriverClass('org.hsqldb.jdbc.JDBCDriver')
+                    .setUrl('jdbc:hsqldb:mem:loaderdb')
+                    .setUser('sa')
+                    .setPooling(true)
+                    .build();
+
+    private static TestContext testContext = new GuiceTestContext();
+    private JdbcQueryExecutor queryExecutor = new JdbcQueryExecutor(JDBC_STATE, new JdbcConnectionsPool(), testContext);
+
+    def setupSpec()
+    {
+        System.setProperty(TEST_CONFIGURATION_URIS_KEY, "/configuration/global-configuration-tempto.yaml");
+        registerDriver(JDBC_STATE)
+    }
+
+    def cleanupSpec()
+    {
+        testContext.close();
+    }
+
+    void setup()
+    {
+        queryExecutor.executeQuery('DROP SCHEMA PUBLIC CASCADE')
+        queryExecutor.executeQuery('CREATE TABLE nation (n_id int, n_name varchar(100))')
+    }
+
+    void cleanup()
+    {
+        queryExecutor.close()
+    }
+
+    def 'auto loader uses batch loader'()
+    {
+        when:
+        Loader loader = new LoaderFactory().create(queryExecutor, 'nation')
+
+        then:
+        loader instanceof BatchLoader
+
+        cleanup:
+        loader?.close()
+    }
+
+    def 'multi-row insert loads full statements and remaining rows'()
+    {
+        setup:
+        Loader loader = new MultiRowInsertLoader(queryExecutor.getConnection(), 'nation', [INTEGER, VARCHAR], 3)
+
+        when:
+        loader.load((1..7).collect { [it, "name's ${it}".toString()] })
+        loader.load([[8, null], [null, 'unknown']])
+        loader.close()
+
+        then:
+        assertThat(queryExecutor.executeQuery('SELECT n_id, n_name FROM nation'))
+                .hasColumns(INTEGER, VARCHAR)
+                .containsOnly(
+                row(1, "name's 1"),
+                row(2, "name's 2"),
+                row(3, "name's 3"),
+                row(4, "name's 4"),
+                row(5, "name's 5"),
+                row(6, "name's 6"),
+                row(7, "name's 7"),
+                row(8, null),
+                row(null, 'unknown'))
+    }
+
+    def 'explicitly configured loader is used'()
+    {
+        setup:
+        Loader loader = new LoaderFactory(loaderName).create(queryExecutor, 'nation')
+
+        when:
+        loader.load([[1, "it's"], [2, null]])
+        loader.close()
+
+        then:
+        loaderClass.isInstance(loader)
+        assertThat(queryExecutor.executeQuery('SELECT n_id, n_name FROM nation'))
+                .containsOnly(row(1, "it's"), row(2, null))
+
+        where:
+        loaderName         | loaderClass
+        'multi_row_insert' | MultiRowInsertLoader
+        'batch'            | BatchLoader
+        'insert'           | InsertLoader
+    }
+
+    def 'unsupported loader fails'()
+    {
+        when:
+        new LoaderFactory('copy').create(queryExecutor, 'nation')
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == 'Table loader copy is not supported by HSQL Database Engine'
+    }
+
+    def 'load data requires local infile to be allowed explicitly'()
+    {
+        setup:
+        DatabaseMetaData metaData = Mock(DatabaseMetaData)
+        metaData.getDatabaseProductName() >> productName
+        metaData.getURL() >> url
+        Connection connection = Mock(Connection)
+        connection.getMetaData() >> metaData
+        QueryExecutor mockedQueryExecutor = Mock(QueryExecutor)
+        mockedQueryExecutor.getConnection() >> connection
+
+        expect:
+        LoadDataLoader.create(mockedQueryExecutor, 'nation', [INTEGER, VARCHAR]).isPresent() == supported
+
+        where:
+        productName | url                                                     | supported
+        'MySQL'     | 'jdbc:mysql://localhost/test'                           | false
+        'MySQL'     | 'jdbc:mysql://localhost/test?allowLoadLocalInfile=true' | true
+        'MariaDB'   | 'jdbc:mariadb://localhost/test'                         | false
+        'MariaDB'   | 'jdbc:mariadb://localhost/test?allowLocalInfile=false'  | false
+        'MariaDB'   | 'jdbc:mariadb://localhost/test?allowLocalInfile=true'   | true
+    }
+
+    def 'unknown loader fails'()
+    {
+        when:
+        new LoaderFactory('unknown')
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def 'encode delimited text rows'()
+    {
+        expect:
+        DelimitedTextRows.encode([[1, 'a\tb\\c'], [null, 'line\nbreak\r']], 2, { it.toString() }) ==
+                '1\ta\\tb\\\\c\n\\N\tline\\nbreak\\r\n'
+    }
+}
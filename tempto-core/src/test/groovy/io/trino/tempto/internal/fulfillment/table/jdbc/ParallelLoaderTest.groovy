@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.fulfillment.table.jdbc
+
+import io.trino.tempto.context.TestContext
+import io.trino.tempto.internal.context.GuiceTestContext
+import io.trino.tempto.query.JdbcConnectionsPool
+import io.trino.tempto.query.JdbcConnectivityParamsState
+import io.trino.tempto.query.JdbcQueryExecutor
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import static io.trino.tempto.assertions.QueryAssert.Row.row
+import static io.trino.tempto.assertions.QueryAssert.assertThat
+import static io.trino.tempto.internal.configuration.TestConfigurationFactory.TEST_CONFIGURATION_URIS_KEY
+import static io.trino.tempto.internal.query.JdbcUtils.registerDriver
+
+class ParallelLoaderTest
+        extends Specification
+{
+    private static final JdbcConnectivityParamsState JDBC_STATE =
+            JdbcConnectivityParamsState.builder()
+                    .setName('parallel_loader_connection')
+                    .setDriverClass('org.hsqldb.jdbc.JDBCDriver')
+                    .setUrl('jdbc:hsqldb:mem:parallelloaderdb')
+                    .setUser('sa')
+                    .setPooling(true)
+                    .build();
+
+    private static TestContext testContext = new GuiceTestContext();
+    private JdbcQueryExecutor queryExecutor = new JdbcQueryExecutor(JDBC_STATE, new JdbcConnectionsPool(), testContext);
+
+    def setupSpec()
+    {
+        System.setProperty(TEST_CONFIGURATION_URIS_KEY, "/configuration/global-configuration-tempto.yaml");
+        registerDriver(JDBC_STATE)
+    }
+
+    def cleanupSpec()
+    {
+        testContext.close();
+    }
+
+    void setup()
+    {
+        queryExecutor.executeQuery('DROP SCHEMA PUBLIC CASCADE')
+        queryExecutor.executeQuery('CREATE TABLE numbers (n int PRIMARY KEY, name varchar(20))')
+    }
+
+    void cleanup()
+    {
+        queryExecutor.close()
+    }
+
+    def 'load rows with several workers'()
+    {
+        setup:
+        ParallelLoader loader = new ParallelLoader(queryExecutor, new LoaderFactory(), 'numbers', 4, 100)
+
+        when:
+        loader.load((1..10_000).collect { [it, "number ${it}".toString()] }.iterator())
+
+        then:
+        assertThat(queryExecutor.executeQuery('SELECT count(*), count(DISTINCT n), min(n), max(n) FROM numbers'))
+                .containsExactly(row(10_000, 10_000, 1, 10_000))
+    }
+
+    def 'stop loading when any worker fails'()
+    {
+        setup:
+        ParallelLoader loader = new ParallelLoader(queryExecutor, new LoaderFactory('batch'), 'numbers', 4, 10)
+        AtomicInteger readRows = new AtomicInteger()
+        Iterator<List<Object>> rows = new Iterator<List<Object>>() {
+            boolean hasNext()
+            {
+                return readRows.get() < 1_000_000
+            }
+
+            List<Object> next()
+            {
+                int n = readRows.incrementAndGet()
+                // duplicated primary key
+                return [n == 50 ? 1 : n, 'name']
+            }
+        }
+
+        when:
+        loader.load(rows)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.message == 'Loading data into numbers failed'
+        readRows.get() < 1_000_000
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.hadoop.hdfs
+
+import io.trino.tempto.fulfillment.table.hive.HiveDataSource
+import io.trino.tempto.hadoop.hdfs.HdfsClient
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+
+import static io.trino.tempto.fulfillment.table.hive.InlineDataSource.createSameRowDataSource
+import static java.util.concurrent.TimeUnit.SECONDS
+
+class ConcurrentHdfsDataSourceWriterTest
+        extends Specification
+{
+    private static final String PATH = '/tests-path/inline-tables/table'
+
+    def 'should upload files in parallel'()
+    {
+        setup:
+        def allUploadsStarted = new CountDownLatch(4)
+        def savedFiles = ConcurrentHashMap.newKeySet()
+        HdfsClient hdfsClient = stubHdfsClient { String path ->
+            allUploadsStarted.countDown()
+            assert allUploadsStarted.await(10, SECONDS)
+            savedFiles.add(path)
+        }
+        def writer = new ConcurrentHdfsDataSourceWriter(hdfsClient, 4, 0, Duration.ZERO)
+
+        when:
+        writer.ensureDataOnHdfs(PATH, createSameRowDataSource('table', 8, 10, 'a|b'))
+
+        then:
+        savedFiles == (0..7).collect { PATH + '/data_' + it } as Set
+    }
+
+    def 'should limit number of in flight uploads'()
+    {
+        setup:
+        def inFlight = new AtomicInteger()
+        def maxInFlight = new AtomicInteger()
+        HdfsClient hdfsClient = stubHdfsClient { String path ->
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math.&max)
+            Thread.sleep(20)
+            inFlight.decrementAndGet()
+        }
+        def writer = new ConcurrentHdfsDataSourceWriter(hdfsClient, 3, 0, Duration.ZERO)
+
+        when:
+        writer.ensureDataOnHdfs(PATH, createSameRowDataSource('table', 20, 1, 'a|b'))
+
+        then:
+        maxInFlight.get() <= 3
+        inFlight.get() == 0
+    }
+
+    def 'should upload single file in calling thread'()
+    {
+        setup:
+        def uploadThreads = []
+        HdfsClient hdfsClient = stubHdfsClient { String path ->
+            uploadThreads.add(Thread.currentThread())
+        }
+        def writer = new ConcurrentHdfsDataSourceWriter(hdfsClient, 4, 0, Duration.ZERO)
+
+        when:
+        writer.ensureDataOnHdfs(PATH, createSameRowDataSource('table', 1, 10, 'a|b'))
+
+        then:
+        uploadThreads == [Thread.currentThread()]
+    }
+
+    def 'should retry failed file'()
+    {
+        setup:
+        def attempts = new ConcurrentHashMap<String, AtomicInteger>()
+        HdfsClient hdfsClient = stubHdfsClient { String path ->
+            int attempt = attempts.computeIfAbsent(path, { new AtomicInteger() }).incrementAndGet()
+            if (path.endsWith('/data_2') && attempt < 3) {
+                throw new RuntimeException('connection reset')
+            }
+        }
+        def writer = new ConcurrentHdfsDataSourceWriter(hdfsClient, 2, 2, Duration.ZERO)
+
+        when:
+        writer.ensureDataOnHdfs(PATH, createSameRowDataSource('table', 4, 1, 'a|b'))
+
+        then:
+        attempts.collectEntries { key, value -> [key, value.get()] } == [
+                (PATH + '/data_0'): 1,
+                (PATH + '/data_1'): 1,
+                (PATH + '/data_2'): 3,
+                (PATH + '/data_3'): 1]
+    }
+
+    def 'should fail when file cannot be uploaded'()
+    {
+        setup:
+        def attempts = new AtomicInteger()
+        HdfsClient hdfsClient = stubHdfsClient { String path ->
+            if (path.endsWith('/data_1')) {
+                attempts.incrementAndGet()
+                throw new IllegalStateException('upload failed')
+            }
+        }
+        def writer = new ConcurrentHdfsDataSourceWriter(hdfsClient, 2, 1, Duration.ZERO)
+
+        when:
+        writer.ensureDataOnHdfs(PATH, createSameRowDataSource('table', 8, 1, 'a|b'))
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == 'upload failed'
+        attempts.get() == 2
+    }
+
+    private static HdfsClient stubHdfsClient(Closure saveFile)
+    {
+        // Spock mocks handle invocations one at a time, so concurrent uploads need a plain stub
+        return [
+                saveFile: { String path, HdfsClient.RepeatableContentProducer content -> saveFile(path) },
+                delete: { String path -> },
+                createDirectory: { String path -> },
+                setXAttr: { String path, String key, String value -> }
+        ] as HdfsClient
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.hadoop.hdfs
+
+import io.trino.tempto.fulfillment.table.hive.HiveDataSource
+import io.trino.tempto.hadoop.hdfs.HdfsClient
+import spock.lang.Specification
+
+import static io.trino.tempto.fulfillment.table.hive.InlineDataSource.createStringDataSource
+import static io.trino.tempto.internal.hadoop.hdfs.DefaultHdfsDataSourceWriter.REVISION_MARKER_XATTR
+
+class DefaultHdfsDataSourceWriterTest
+        extends Specification
+{
+    private static final String PATH = '/tests-path/inline-tables/table'
+
+    HdfsClient hdfsClient = Mock()
+    DefaultHdfsDataSourceWriter writer = new DefaultHdfsDataSourceWriter(hdfsClient)
+
+    def 'should skip upload when revision marker matches'()
+    {
+        setup:
+        HiveDataSource dataSource = createStringDataSource('table', 'a|b\n')
+        hdfsClient.getXAttr(PATH, REVISION_MARKER_XATTR) >> Optional.of('"' + dataSource.getRevisionMarker().get() + '"')
+
+        when:
+        writer.ensureDataOnHdfs(PATH, dataSource)
+
+        then:
+        0 * hdfsClient.delete(_)
+        0 * hdfsClient.saveFile(_, _)
+        0 * hdfsClient.setXAttr(_, _, _)
+    }
+
+    def 'should upload data and store revision marker when revision marker differs'()
+    {
+        setup:
+        HiveDataSource dataSource = createStringDataSource('table', 'a|b\n')
+        hdfsClient.getXAttr(PATH, REVISION_MARKER_XATTR) >> Optional.of('"sha256-outdated"')
+
+        when:
+        writer.ensureDataOnHdfs(PATH, dataSource)
+
+        then:
+        1 * hdfsClient.delete(PATH)
+        1 * hdfsClient.createDirectory(PATH)
+
+        then:
+        1 * hdfsClient.saveFile(PATH + '/data_0', _)
+
+        then:
+        1 * hdfsClient.setXAttr(PATH, REVISION_MARKER_XATTR, dataSource.getRevisionMarker().get())
+    }
+
+    def 'should always upload data without revision marker'()
+    {
+        setup:
+        HiveDataSource dataSource = Mock()
+        dataSource.getRevisionMarker() >> Optional.empty()
+        dataSource.data() >> [Mock(HdfsClient.RepeatableContentProducer)]
+
+        when:
+        writer.ensureDataOnHdfs(PATH, dataSource)
+
+        then:
+        0 * hdfsClient.getXAttr(_, _)
+        1 * hdfsClient.delete(PATH)
+        1 * hdfsClient.saveFile(PATH + '/data_0', _)
+        0 * hdfsClient.setXAttr(_, _, _)
+    }
+
+    def 'should upload data when revision marker cannot be read'()
+    {
+        setup:
+        HiveDataSource dataSource = createStringDataSource('table', 'a|b\n')
+        hdfsClient.getXAttr(PATH, REVISION_MARKER_XATTR) >> { throw new RuntimeException('xattrs not supported') }
+        hdfsClient.setXAttr(_, _, _) >> { throw new RuntimeException('xattrs not supported') }
+
+        when:
+        writer.ensureDataOnHdfs(PATH, dataSource)
+
+        then:
+        1 * hdfsClient.saveFile(PATH + '/data_0', _)
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.internal.hadoop.hdfs
+
+import com.google.inject.Guice
+import com.sun.net.httpserver.HttpServer
+import io.trino.tempto.hadoop.hdfs.HdfsClient
+import io.trino.tempto.internal.configuration.MapConfiguration
+import io.trino.tempto.internal.configuration.TestConfigurationModuleProvider
+import spock.lang.Specification
+
+import static java.nio.charset.StandardCharsets.UTF_8
+
+class HdfsModuleProviderTest
+        extends Specification
+{
+    HttpServer server
+
+    void setup()
+    {
+        server = HttpServer.create(new InetSocketAddress('localhost', 0), 0)
+        server.createContext('/webhdfs/v1/') { exchange ->
+            byte[] body = '{"FileStatus": {"length": 42, "owner": "hdfs"}}'.getBytes(UTF_8)
+            exchange.responseHeaders.add('Content-Type', 'application/json')
+            exchange.sendResponseHeaders(200, body.length)
+            exchange.responseBody.withCloseable { it.write(body) }
+        }
+        server.start()
+    }
+
+    void cleanup()
+    {
+        server.stop(0)
+    }
+
+    def 'should reuse connections and record request metrics'()
+    {
+        setup:
+        def configuration = new MapConfiguration([
+                'hdfs': [
+                        'username': 'hdfs',
+                        'webhdfs': ['uri': "http://localhost:${server.address.port}".toString()]],
+                'tests': ['hdfs': ['path': '/tests']]])
+        def injector = Guice.createInjector(
+                new TestConfigurationModuleProvider().getModule(configuration),
+                new HdfsModuleProvider().getModule(configuration))
+        HdfsClient hdfsClient = injector.getInstance(HdfsClient)
+        HttpRequestsMetrics metrics = injector.getInstance(HttpRequestsMetrics)
+
+        when:
+        10.times {
+            assert hdfsClient.getLength('/tests/file') == 42
+        }
+        hdfsClient.getOwner('/tests/file')
+
+        then:
+        metrics.requestCount == 11
+        metrics.openedConnectionCount == 1
+        metrics.connectionReuseRatio > 0.9
+        metrics.operations.keySet() == ['GETFILESTATUS'] as Set
+        metrics.operations['GETFILESTATUS'].count == 11
+        metrics.operations['GETFILESTATUS'].failureCount == 0
+    }
+}
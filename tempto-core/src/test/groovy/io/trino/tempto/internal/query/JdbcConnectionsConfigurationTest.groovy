@@ -40,6 +40,8 @@ databases:
     prepare_statement: USE schema
     kerberos_principal: HIVE@EXAMPLE.COM
     kerberos_keytab: example.keytab
+    jdbc_pool_max_size: 4
+    jdbc_prepared_statement_cache_size: 0
 
   b_alias:
     alias: b
@@ -83,6 +85,8 @@ databases:
                     .setPrepareStatements(ImmutableList.of('USE schema'))
                     .setKerberosPrincipal(Optional.of('HIVE@EXAMPLE.COM'))
                     .setKerberosKeytab(Optional.of('example.keytab'))
+                    .setPoolMaxSize(4)
+                    .setPreparedStatementCacheSize(0)
                     .build();
 
     private static final def EXPECTED_B_ALIAS_JDBC_CONNECTIVITY_PARAMS =
@@ -96,6 +100,8 @@ databases:
                     .setPrepareStatements(ImmutableList.of('USE schema'))
                     .setKerberosPrincipal(Optional.of('HIVE@EXAMPLE.COM'))
                     .setKerberosKeytab(Optional.of('example.keytab'))
+                    .setPoolMaxSize(4)
+                    .setPreparedStatementCacheSize(0)
                     .build();
 
     def jdbcConnectionConfiguration = new JdbcConnectionsConfiguration(CONFIGURATION)
@@ -19,11 +19,25 @@ import io.trino.tempto.internal.context.GuiceTestContext
 import io.trino.tempto.query.JdbcConnectionsPool
 import io.trino.tempto.query.JdbcConnectivityParamsState
 import io.trino.tempto.query.JdbcQueryExecutor
+import io.trino.tempto.query.QueryExecutionException
+import io.trino.tempto.query.QueryExecutor
 import io.trino.tempto.query.QueryResult
+import io.trino.tempto.query.metrics.InMemoryQueryMetricsSink
+import io.trino.tempto.query.metrics.QueryMetrics
 import org.apache.commons.dbutils.QueryRunner
+import org.slf4j.MDC
 import spock.lang.Specification
 
 import java.sql.Connection
+import java.sql.JDBCType
+import java.sql.SQLException
+import java.sql.SQLTimeoutException
+import java.sql.Statement
+import java.time.Duration
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
 
 import static JdbcUtils.connection
 import static JdbcUtils.registerDriver
@@ -32,6 +46,7 @@ import static io.trino.tempto.assertions.QueryAssert.assertThat
 import static io.trino.tempto.internal.configuration.TestConfigurationFactory.TEST_CONFIGURATION_URIS_KEY
 import static java.sql.JDBCType.INTEGER
 import static java.sql.JDBCType.VARCHAR
+import static java.util.concurrent.TimeUnit.SECONDS
 
 class JdbcQueryExecutorTest
         extends Specification
@@ -122,4 +137,238 @@ class JdbcQueryExecutorTest
                 row(2, 'Oracle'),
                 row(3, 'Starburst Data'))
     }
+
+    def 'test streaming select'()
+    {
+        setup:
+        List<List<?>> rows = []
+
+        when:
+        long rowsCount = queryExecutor.executeQueryStreaming('SELECT comp_id, comp_name FROM company ORDER BY comp_id', { row -> rows.add(new ArrayList<>(row)) })
+
+        then:
+        rowsCount == 3
+        rows == [[1, 'Teradata'], [2, 'Oracle'], [3, 'Starburst']]
+    }
+
+    def 'test streaming update fails'()
+    {
+        when:
+        queryExecutor.executeQueryStreaming('UPDATE company SET comp_name=\'Starburst Data\' WHERE comp_id=-1', { row -> })
+
+        then:
+        thrown(QueryExecutionException)
+    }
+
+    def 'test prepared statements are cached'()
+    {
+        when:
+        List<QueryResult> results = (1..3).collect {
+            queryExecutor.executeQuery('SELECT comp_name FROM company WHERE comp_id = ?', param(INTEGER, it))
+        }
+
+        then:
+        results.collect { it.row(0) } == [['Teradata'], ['Oracle'], ['Starburst']]
+        queryExecutor.preparedStatementCacheStats.hits == 2
+        queryExecutor.preparedStatementCacheStats.misses == 1
+    }
+
+    def 'test least recently used prepared statement is evicted'()
+    {
+        setup:
+        JdbcQueryExecutor smallCacheExecutor = new JdbcQueryExecutor(
+                JdbcConnectivityParamsState.builder()
+                        .setName('small_cache')
+                        .setDriverClass(JDBC_STATE.driverClass)
+                        .setUrl(JDBC_STATE.url)
+                        .setUser(JDBC_STATE.user)
+                        .setPreparedStatementCacheSize(1)
+                        .build(),
+                new JdbcConnectionsPool(),
+                testContext)
+
+        when:
+        smallCacheExecutor.executeQuery('SELECT comp_name FROM company WHERE comp_id = ?', param(INTEGER, 1))
+        smallCacheExecutor.executeQuery('SELECT comp_id FROM company WHERE comp_name = ?', param(VARCHAR, 'Oracle'))
+        smallCacheExecutor.executeQuery('SELECT comp_name FROM company WHERE comp_id = ?', param(INTEGER, 1))
+
+        then:
+        smallCacheExecutor.preparedStatementCacheStats.hits == 0
+        smallCacheExecutor.preparedStatementCacheStats.misses == 3
+        smallCacheExecutor.preparedStatementCacheStats.evictions == 2
+
+        cleanup:
+        smallCacheExecutor.close()
+    }
+
+    def 'test cached prepared statement survives table recreation'()
+    {
+        setup:
+        String sql = 'SELECT comp_name FROM company WHERE comp_id = ?'
+        queryExecutor.executeQuery(sql, param(INTEGER, 1))
+
+        when:
+        Connection c = connection(JDBC_STATE)
+        try {
+            new QueryRunner().update(c, 'DROP TABLE company')
+            new QueryRunner().update(c, 'CREATE TABLE company (comp_id int, comp_name varchar(100))')
+            new QueryRunner().update(c, 'INSERT INTO company(comp_id, comp_name) values (1, \'Trino\')')
+        }
+        finally {
+            c.close()
+        }
+        QueryResult result = queryExecutor.executeQuery(sql, param(INTEGER, 1))
+
+        then:
+        assertThat(result).containsExactly(row('Trino'))
+    }
+
+    def 'test failed prepared statement is prepared again'()
+    {
+        setup:
+        String sql = 'SELECT comp_name FROM company WHERE comp_id = ?'
+        queryExecutor.executeQuery(sql, param(INTEGER, 1))
+
+        when:
+        queryExecutor.executeQuery(sql, param(VARCHAR, 'not a number'))
+
+        then:
+        thrown(QueryExecutionException)
+
+        when:
+        QueryResult result = queryExecutor.executeQuery(sql, param(INTEGER, 1))
+
+        then:
+        assertThat(result).containsExactly(row('Teradata'))
+        queryExecutor.preparedStatementCacheStats.hits == 1
+        queryExecutor.preparedStatementCacheStats.misses == 2
+    }
+
+    def 'test execute all'()
+    {
+        when:
+        List<QueryResult> results = queryExecutor.executeAll([
+                'SELECT comp_name FROM company WHERE comp_id = 1',
+                'SELECT comp_name FROM company WHERE comp_id = 2',
+                'SELECT count(*) FROM company;'])
+
+        then:
+        results.collect { it.row(0) } == [['Teradata'], ['Oracle'], [3L]]
+    }
+
+    def 'test execute all fails when any query fails'()
+    {
+        when:
+        queryExecutor.executeAll(['SELECT * FROM company', 'SELECT * FROM no_such_table'])
+
+        then:
+        thrown(QueryExecutionException)
+    }
+
+    def 'test async query with params'()
+    {
+        when:
+        QueryResult result = queryExecutor.executeQueryAsync('SELECT comp_name FROM company WHERE comp_id = ?', param(INTEGER, 3)).get(30, SECONDS)
+
+        then:
+        assertThat(result).containsExactly(row('Starburst'))
+    }
+
+    def 'test async query timeout cancels statement'()
+    {
+        setup:
+        CountDownLatch cancelled = new CountDownLatch(1)
+        JdbcQueryExecutor blockingExecutor = blockingQueryExecutor(new CountDownLatch(1), cancelled)
+
+        when:
+        blockingExecutor.executeQueryAsync('SELECT 1', Duration.ofMillis(100)).get(30, SECONDS)
+
+        then:
+        ExecutionException e = thrown()
+        e.cause instanceof QueryExecutionException
+        e.cause.cause instanceof SQLTimeoutException
+        cancelled.await(30, SECONDS)
+
+        cleanup:
+        blockingExecutor.close()
+    }
+
+    def 'test async query cancellation cancels statement'()
+    {
+        setup:
+        CountDownLatch started = new CountDownLatch(1)
+        CountDownLatch cancelled = new CountDownLatch(1)
+        JdbcQueryExecutor blockingExecutor = blockingQueryExecutor(started, cancelled)
+        CompletableFuture<QueryResult> future = blockingExecutor.executeQueryAsync('SELECT 1')
+        started.await(30, SECONDS)
+
+        when:
+        future.cancel(true)
+        future.get(30, SECONDS)
+
+        then:
+        thrown(CancellationException)
+        cancelled.await(30, SECONDS)
+
+        cleanup:
+        blockingExecutor.close()
+    }
+
+    def 'test query metrics'()
+    {
+        setup:
+        InMemoryQueryMetricsSink metricsSink = new InMemoryQueryMetricsSink()
+        JdbcQueryExecutor metricsExecutor = new JdbcQueryExecutor(JDBC_STATE, new JdbcConnectionsPool(), metricsSink, testContext)
+        MDC.put('test_id', 'metrics_test')
+
+        when:
+        metricsExecutor.executeQuery('SELECT comp_id, comp_name FROM company')
+        metricsExecutor.executeQueryStreaming('SELECT comp_name FROM company WHERE comp_id = ?', { row -> }, param(INTEGER, 1))
+        metricsExecutor.executeQueryAsync('SELECT comp_id FROM company WHERE comp_id = 4').get(30, SECONDS)
+        try {
+            metricsExecutor.executeQuery('SELECT * FROM no_such_table')
+        }
+        catch (QueryExecutionException ignored) {
+        }
+
+        then:
+        List<QueryMetrics> metrics = metricsSink.getMetrics('metrics_test')
+        metrics.collect { it.sql } == [
+                'SELECT comp_id, comp_name FROM company',
+                'SELECT comp_name FROM company WHERE comp_id = ?',
+                'SELECT comp_id FROM company WHERE comp_id = 4',
+                'SELECT * FROM no_such_table']
+        metrics.collect { it.rowCount } == [3L, 1L, 0L, 0L]
+        metrics.collect { it.succeeded } == [true, true, true, false]
+        metrics.collect { it.timeToFirstRowNanos.present } == [true, true, false, false]
+        metrics.every { it.database == 'connection_name' && it.executeNanos > 0 }
+        // 3 integers and 'Teradata', 'Oracle', 'Starburst'
+        metrics[0].bytes == 3 * 4 + 23
+        metrics[1].bytes == 'Teradata'.length()
+
+        cleanup:
+        MDC.remove('test_id')
+        metricsExecutor.close()
+    }
+
+    private static JdbcQueryExecutor blockingQueryExecutor(CountDownLatch started, CountDownLatch cancelled)
+    {
+        Statement statement = [
+                execute: { String sql ->
+                    started.countDown()
+                    cancelled.await()
+                    throw new SQLException('Query was cancelled')
+                },
+                cancel: { cancelled.countDown() },
+                close: {}] as Statement
+        Connection connection = [createStatement: { statement }, close: {}] as Connection
+        JdbcConnectionsPool connectionsPool = [connectionFor: { state -> connection }] as JdbcConnectionsPool
+        return new JdbcQueryExecutor(JDBC_STATE, connectionsPool, testContext)
+    }
+
+    private static QueryExecutor.QueryParam param(JDBCType type, Object value)
+    {
+        // groovy does not support calling static interface methods directly
+        return (QueryExecutor.QueryParam) QueryExecutor.getMethod('param', JDBCType, Object).invoke(null, type, value)
+    }
 }
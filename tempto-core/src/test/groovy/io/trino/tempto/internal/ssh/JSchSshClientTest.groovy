@@ -16,6 +16,8 @@ package io.trino.tempto.internal.ssh
 import com.google.common.io.Files
 import io.trino.tempto.process.CliProcess
 import org.apache.sshd.SshServer
+import org.apache.sshd.common.compression.CompressionNone
+import org.apache.sshd.common.compression.CompressionZlib
 import org.apache.sshd.server.Command
 import org.apache.sshd.server.CommandFactory
 import org.apache.sshd.server.PasswordAuthenticator
@@ -25,6 +27,7 @@ import org.apache.sshd.server.auth.UserAuthPublicKey
 import org.apache.sshd.server.command.ScpCommandFactory
 import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider
 import org.apache.sshd.server.session.ServerSession
+import org.apache.sshd.server.sftp.SftpSubsystem
 import spock.lang.Shared
 import spock.lang.Specification
 
@@ -104,6 +107,138 @@ class JSchSshClientTest
         content == 'hello world'
     }
 
+    def 'should reuse connected session for subsequent commands'()
+    {
+        setup:
+        JSchSshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))
+
+        when:
+        List<String> lines = (1..3).collect {
+            CliProcess process = client.execute(['echo', 'hello world'])
+            String line = process.nextOutputLine()
+            process.waitForWithTimeoutAndKill()
+            line
+        }
+        SshSessionPool.Stats stats = client.stats
+        client.close()
+
+        then:
+        lines == ['hello world'] * 3
+        stats.sessionsConnected == 1
+        stats.channelsOpened == 3
+        client.stats.sessionsClosed == 1
+    }
+
+    def 'should evict idle sessions of client which is not closed'()
+    {
+        setup:
+        JSchSshClient client = new JschSshClientFactory(8, Duration.ofSeconds(1), false).create(HOST, PORT, USER, Optional.of(PASSWORD))
+        SshSessionPool sessionPool = client.@sessionPool
+
+        expect:
+        !sessionPool.idleSessionsEvictionScheduled
+
+        when:
+        CliProcess process = client.execute(['echo', 'hello world'])
+        process.waitForWithTimeoutAndKill()
+
+        then:
+        sessionPool.idleSessionsEvictionScheduled
+
+        when:
+        long deadline = System.currentTimeMillis() + 10_000
+        while (sessionPool.idleSessionsEvictionScheduled && System.currentTimeMillis() < deadline) {
+            sleep(100)
+        }
+
+        then:
+        !sessionPool.idleSessionsEvictionScheduled
+        client.stats.sessionsConnected == 1
+        client.stats.sessionsClosed == 1
+    }
+
+    def 'should upload directory and skip unchanged files'()
+    {
+        setup:
+        JSchSshClient client = new JschSshClientFactory(8, Duration.ofSeconds(60), true).create(HOST, PORT, USER, Optional.of(PASSWORD))
+        def directory = java.nio.file.Files.createTempDirectory('directory')
+        def nested = directory.resolve('nested').toFile()
+        nested.mkdir()
+        Files.write('hello world', directory.resolve('a.txt').toFile(), UTF_8)
+        Files.write('nested', new File(nested, 'b.txt'), UTF_8)
+        def remoteDirectory = "/tmp/test_directory_${UUID.randomUUID()}"
+
+        when:
+        client.uploadDirectory(directory, remoteDirectory)
+
+        then:
+        Files.toString(new File("${remoteDirectory}/a.txt"), UTF_8) == 'hello world'
+        Files.toString(new File("${remoteDirectory}/nested/b.txt"), UTF_8) == 'nested'
+
+        when:
+        def remoteFile = new File("${remoteDirectory}/a.txt")
+        long modificationTime = remoteFile.lastModified()
+        Files.write('HELLO WORLD', remoteFile, UTF_8)
+        remoteFile.setLastModified(modificationTime)
+        Files.write('nested changed', new File(nested, 'b.txt'), UTF_8)
+        client.uploadDirectory(directory, remoteDirectory)
+
+        then:
+        Files.toString(remoteFile, UTF_8) == 'HELLO WORLD'
+        Files.toString(new File("${remoteDirectory}/nested/b.txt"), UTF_8) == 'nested changed'
+
+        cleanup:
+        client.close()
+    }
+
+    def 'should resume interrupted directory upload'()
+    {
+        setup:
+        JSchSshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))
+        def directory = java.nio.file.Files.createTempDirectory('directory')
+        def file = directory.resolve('a.txt').toFile()
+        Files.write('hello world', file, UTF_8)
+        def remoteDirectory = new File("/tmp/test_directory_${UUID.randomUUID()}")
+        remoteDirectory.mkdir()
+        def partialFile = new File(remoteDirectory, SftpDirectoryUploader.partialUploadName('a.txt', file.length(), (int) (file.lastModified() / 1000)))
+        Files.write('HELLO', partialFile, UTF_8)
+
+        when:
+        client.uploadDirectory(directory, remoteDirectory.path)
+
+        then:
+        // already uploaded bytes are kept
+        Files.toString(new File(remoteDirectory, 'a.txt'), UTF_8) == 'HELLO world'
+        !partialFile.exists()
+
+        cleanup:
+        client.close()
+    }
+
+    def 'should not resume upload of another version of a file'()
+    {
+        setup:
+        JSchSshClient client = factory.create(HOST, PORT, USER, Optional.of(PASSWORD))
+        def directory = java.nio.file.Files.createTempDirectory('directory')
+        def file = directory.resolve('a.txt').toFile()
+        Files.write('hello world', file, UTF_8)
+        def remoteDirectory = new File("/tmp/test_directory_${UUID.randomUUID()}")
+        remoteDirectory.mkdir()
+        def stalePartialFile = new File(remoteDirectory, SftpDirectoryUploader.partialUploadName('a.txt', file.length(), (int) (file.lastModified() / 1000) - 60))
+        Files.write('HELLO', stalePartialFile, UTF_8)
+
+        when:
+        client.uploadDirectory(directory, remoteDirectory.path)
+
+        then:
+        Files.toString(new File(remoteDirectory, 'a.txt'), UTF_8) == 'hello world'
+        !stalePartialFile.exists()
+        remoteDirectory.list() as List == ['a.txt']
+
+        cleanup:
+        client.close()
+    }
+
     def 'should connect with just a private key'()
     {
         setup:
@@ -135,6 +270,8 @@ class JSchSshClientTest
 
         setupAuthentication()
         setupCommandFactories()
+        sshd.setSubsystemFactories([new SftpSubsystem.Factory()])
+        sshd.setCompressionFactories([new CompressionZlib.Factory(), new CompressionNone.Factory()])
 
         sshd.start()
     }
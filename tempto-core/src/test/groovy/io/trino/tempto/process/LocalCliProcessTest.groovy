@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.process
+
+import spock.lang.Specification
+
+import java.time.Duration
+
+class LocalCliProcessTest
+        extends Specification
+{
+    def 'should not block process writing a lot to error stream while output is read'()
+    {
+        setup:
+        LocalCliProcess process = new LocalCliProcess(shell('head -c 1000000 /dev/zero | tr "\\\\0" x >&2; echo done'), 1024, true)
+
+        expect:
+        process.nextOutputLine(Duration.ofSeconds(10)) == 'done'
+        process.readRemainingErrorLines() == ['x' * 1000000]
+        process.waitForWithTimeoutAndKill()
+
+        cleanup:
+        process.close()
+    }
+
+    def 'should wait for output line with timeout'()
+    {
+        setup:
+        LocalCliProcess process = new LocalCliProcess(shell('echo starting; echo started on port 8080; sleep 10'))
+
+        when:
+        String line = process.nextOutputLine(~/port \d+/, Duration.ofSeconds(10))
+
+        then:
+        line == 'started on port 8080'
+
+        when:
+        process.nextOutputLine(Duration.ofMillis(100))
+
+        then:
+        thrown(TimeoutRuntimeException)
+
+        cleanup:
+        process.close()
+    }
+
+    def 'should read output tokens and lines'()
+    {
+        setup:
+        LocalCliProcess process = new LocalCliProcess(shell('printf "a  b\\r\\nc\\rd\\n e"'))
+
+        expect:
+        process.nextOutputToken() == 'a'
+        process.hasNextOutput(~/b/)
+        process.nextOutputLine() == '  b'
+        process.readRemainingOutputLines() == ['c', 'd', ' e']
+        !process.hasNextOutputToken()
+        process.waitForWithTimeoutAndKill()
+
+        cleanup:
+        process.close()
+    }
+
+    private static Process shell(String command)
+    {
+        return new ProcessBuilder('sh', '-c', command).start()
+    }
+}
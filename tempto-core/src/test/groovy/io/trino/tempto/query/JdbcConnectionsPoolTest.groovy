@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.query
+
+import io.trino.tempto.internal.query.JdbcUtils
+import org.apache.commons.dbutils.QueryRunner
+import org.apache.commons.dbutils.handlers.ScalarHandler
+import spock.lang.Specification
+
+import java.sql.Connection
+import java.sql.SQLException
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+import static io.trino.tempto.internal.query.JdbcUtils.registerDriver
+import static java.util.concurrent.TimeUnit.SECONDS
+
+class JdbcConnectionsPoolTest
+        extends Specification
+{
+    def 'prepare statements are executed once per physical connection'()
+    {
+        setup:
+        JdbcConnectivityParamsState state = hsqldb('prepared', true)
+                .setPrepareStatements(['INSERT INTO connections_log VALUES (1)'])
+                .build()
+        JdbcConnectionsPool pool = new JdbcConnectionsPool()
+        update(JdbcUtils.connection(state), 'CREATE TABLE connections_log (id INT)')
+
+        when:
+        3.times {
+            pool.connectionFor(state).close()
+        }
+        JdbcConnectionsPool.PoolStats stats = pool.stats['prepared']
+
+        then:
+        execute(JdbcUtils.connection(state), 'SELECT count(*) FROM connections_log') == 1
+        stats.createdConnections == 1
+        stats.borrowCount == 3
+        stats.activeConnections == 0
+        stats.idleConnections == 1
+    }
+
+    def 'physical connections are closed when pooling is disabled'()
+    {
+        setup:
+        JdbcConnectivityParamsState state = hsqldb('not_pooled', false).build()
+        JdbcConnectionsPool pool = new JdbcConnectionsPool()
+
+        when:
+        2.times {
+            pool.connectionFor(state).close()
+        }
+        JdbcConnectionsPool.PoolStats stats = pool.stats['not_pooled']
+
+        then:
+        stats.createdConnections == 2
+        stats.idleConnections == 0
+    }
+
+    def 'pool is bounded'()
+    {
+        setup:
+        JdbcConnectivityParamsState state = hsqldb('bounded', true)
+                .setPoolMaxSize(2)
+                .setPoolMaxWaitSeconds(1)
+                .build()
+        JdbcConnectionsPool pool = new JdbcConnectionsPool()
+        Connection first = pool.connectionFor(state)
+        Connection second = pool.connectionFor(state)
+
+        when:
+        pool.connectionFor(state)
+
+        then:
+        thrown(SQLException)
+        pool.stats['bounded'].activeConnections == 2
+
+        cleanup:
+        first.close()
+        second.close()
+    }
+
+    def 'connections are not limited when pooling is disabled'()
+    {
+        setup:
+        JdbcConnectivityParamsState state = hsqldb('not_pooled_unbounded', false)
+                .setPoolMaxSize(2)
+                .setPoolMaxWaitSeconds(1)
+                .build()
+        JdbcConnectionsPool pool = new JdbcConnectionsPool()
+
+        when:
+        List<Connection> connections = (1..3).collect { pool.connectionFor(state) }
+
+        then:
+        pool.stats['not_pooled_unbounded'].activeConnections == 3
+
+        cleanup:
+        connections*.close()
+    }
+
+    def 'connections are borrowed concurrently'()
+    {
+        setup:
+        int threads = 8
+        JdbcConnectivityParamsState state = hsqldb('concurrent', true)
+                .setPoolMaxSize(4)
+                .build()
+        JdbcConnectionsPool pool = new JdbcConnectionsPool()
+        ExecutorService executor = Executors.newFixedThreadPool(threads)
+        CountDownLatch start = new CountDownLatch(1)
+
+        when:
+        def futures = (1..threads).collect {
+            executor.submit({
+                start.await()
+                20.times {
+                    execute(pool.connectionFor(state), 'SELECT count(*) FROM information_schema.system_sessions')
+                }
+                return null
+            } as Callable)
+        }
+        start.countDown()
+        futures.each { it.get(30, SECONDS) }
+        JdbcConnectionsPool.PoolStats stats = pool.stats['concurrent']
+
+        then:
+        stats.borrowCount == threads * 20
+        stats.createdConnections <= 4
+        stats.activeConnections == 0
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    private static void update(Connection connection, String sql)
+    {
+        try {
+            new QueryRunner().update(connection, sql)
+        }
+        finally {
+            connection.close()
+        }
+    }
+
+    private static Object execute(Connection connection, String sql)
+    {
+        try {
+            return new QueryRunner().query(connection, sql, new ScalarHandler<Object>())
+        }
+        finally {
+            connection.close()
+        }
+    }
+
+    private static JdbcConnectivityParamsState.Builder hsqldb(String name, boolean pooling)
+    {
+        JdbcConnectivityParamsState.Builder builder = JdbcConnectivityParamsState.builder()
+                .setName(name)
+                .setDriverClass('org.hsqldb.jdbc.JDBCDriver')
+                .setUrl('jdbc:hsqldb:mem:pool_' + name)
+                .setUser('sa')
+                .setPooling(pooling)
+        registerDriver(builder.build())
+        return builder
+    }
+}
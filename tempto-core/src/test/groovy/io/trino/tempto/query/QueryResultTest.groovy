@@ -42,4 +42,42 @@ class QueryResultTest
         projection.column(2) == [1, 2]
         projection.getJdbcResultSet().get() == jdbcResultSet
     }
+
+    def "test QueryResult typed columns"()
+    {
+        setup:
+        def columnTypes = [JDBCType.BIGINT, JDBCType.INTEGER, JDBCType.DOUBLE, JDBCType.BOOLEAN, JDBCType.VARCHAR, JDBCType.DATE]
+        def columnNames = ['bigint', 'integer', 'double', 'boolean', 'varchar', 'date']
+        def builder = new QueryResult.QueryResultBuilder(columnTypes, columnNames)
+        def date = java.sql.Date.valueOf('2015-01-01')
+        builder.addRow(1L, 1, 1.5d, true, 'aaa', date)
+        builder.addRow(null, null, null, null, null, null)
+        builder.addRow(3L, 3, Double.NaN, false, 'aaa', date)
+        def queryResult = builder.build()
+
+        expect:
+        queryResult.rowsCount == 3
+        queryResult.rows() == [
+                [1L, 1, 1.5d, true, 'aaa', date],
+                [null, null, null, null, null, null],
+                [3L, 3, Double.NaN, false, 'aaa', date]]
+        queryResult.row(0).get(0) instanceof Long
+        queryResult.row(0).get(1) instanceof Integer
+        queryResult.column(5) == ['aaa', null, 'aaa']
+        queryResult.tryFindColumnIndex('varchar') == Optional.of(5)
+    }
+
+    def "test QueryResult falls back to objects for values of unexpected type"()
+    {
+        setup:
+        def builder = new QueryResult.QueryResultBuilder([JDBCType.BIGINT, JDBCType.VARCHAR], ['bigint', 'varchar'])
+        builder.addRow(1L, 'aaa')
+        builder.addRow(null, null)
+        builder.addRow(new BigDecimal('2.5'), 1)
+        def queryResult = builder.build()
+
+        expect:
+        queryResult.rows() == [[1L, 'aaa'], [null, null], [new BigDecimal('2.5'), 1]]
+        queryResult.column(1) == [1L, null, new BigDecimal('2.5')]
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.trino.tempto.query.metrics
+
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class JsonQueryMetricsSinkTest
+        extends Specification
+{
+    def 'metrics are written when sink is closed'()
+    {
+        setup:
+        Path outputFile = Files.createTempFile('query-metrics', '.json')
+        JsonQueryMetricsSink sink = new JsonQueryMetricsSink(outputFile)
+
+        when:
+        sink.record(new QueryMetrics(Optional.of('test_a'), 'trino', 'SELECT 1', true, 5_000_000, OptionalLong.of(6_000_000), 2_000_000, 1, 4))
+        sink.record(new QueryMetrics(Optional.empty(), 'trino', 'SELECT x', false, 1_000_000, OptionalLong.empty(), 0, 0, 0))
+        sink.close()
+        def json = new JsonSlurper().parse(outputFile.toFile())
+
+        then:
+        sink.getMetrics('test_a').size() == 1
+        json.queries.size() == 2
+        json.queries[0].testName == 'test_a'
+        json.queries[0].sql == 'SELECT 1'
+        json.queries[0].executeNanos == 5_000_000
+        json.queries[0].timeToFirstRowNanos == 6_000_000
+        json.queries[0].rowCount == 1
+        json.queries[0].bytes == 4
+        json.queries[1].testName == null
+        !json.queries[1].succeeded
+
+        cleanup:
+        Files.deleteIfExists(outputFile)
+    }
+}
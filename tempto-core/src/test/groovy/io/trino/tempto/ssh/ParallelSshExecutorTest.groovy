@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.trino.tempto.ssh
+
+import io.trino.tempto.process.CommandExecutionException
+import io.trino.tempto.process.LocalCliProcess
+import io.trino.tempto.process.TimeoutRuntimeException
+import io.trino.tempto.threads.ParallelExecutionException
+import spock.lang.Specification
+
+import java.time.Duration
+
+class ParallelSshExecutorTest
+        extends Specification
+{
+    def 'should execute command on all hosts concurrently'()
+    {
+        setup:
+        def clients = ['host1', 'host2', 'host3', 'host4'].collectEntries { [(it): client("sleep 0.5; echo ${it}")] }
+        def executor = new ParallelSshExecutor(clients, 4)
+
+        when:
+        long start = System.currentTimeMillis()
+        def results = executor.executeAndRethrow('hostname')
+        long elapsed = System.currentTimeMillis() - start
+
+        then:
+        results.keySet() as List == ['host1', 'host2', 'host3', 'host4']
+        results.values()*.outputLines == [['host1'], ['host2'], ['host3'], ['host4']]
+        results.values()*.exitStatus == [Optional.of(0)] * 4
+        elapsed < 1500
+    }
+
+    def 'should aggregate failures of all hosts'()
+    {
+        setup:
+        def executor = new ParallelSshExecutor([
+                host1: client('echo host1'),
+                host2: failingClient(new CommandExecutionException('exit 3', 3)),
+                host3: failingClient(new RuntimeException('connection refused'))], 2)
+
+        when:
+        def results = executor.execute('hostname')
+
+        then:
+        results.host1.successful
+        results.host2.exitStatus == Optional.of(3)
+        !results.host3.exitStatus.present
+        !results.host3.successful
+
+        when:
+        executor.executeAndRethrow('hostname')
+
+        then:
+        def e = thrown(ParallelExecutionException)
+        e.throwables.size() == 2
+        e.throwables*.message.every { it.startsWith("Command 'hostname' failed on host") }
+    }
+
+    def 'should kill command which does not finish within timeout'()
+    {
+        setup:
+        def executor = new ParallelSshExecutor([
+                host1: client('echo host1'),
+                host2: client('echo started; echo failing >&2; sleep 60')], 2)
+
+        when:
+        long start = System.currentTimeMillis()
+        def results = executor.execute('hostname', Duration.ofMillis(500))
+        long elapsed = System.currentTimeMillis() - start
+
+        then:
+        results.host1.successful
+        results.host1.outputLines == ['host1']
+        !results.host2.successful
+        results.host2.outputLines == ['started']
+        results.host2.errorLines == ['failing']
+        results.host2.failure.get().cause instanceof TimeoutRuntimeException
+        elapsed < 10_000
+    }
+
+    // runs given shell command locally instead of the command passed to the client
+    private SshClient client(String shellCommand)
+    {
+        return [execute: { String command -> new LocalCliProcess(new ProcessBuilder('sh', '-c', shellCommand).start()) }] as SshClient
+    }
+
+    private SshClient failingClient(Exception failure)
+    {
+        return [execute: { String command -> throw failure }] as SshClient
+    }
+}
@@ -100,4 +100,49 @@ class ParallelExecutionTest
         then:
         !parallelExecution.join(100)
     }
+
+    def 'should execute runnables on executor'()
+    {
+        setup:
+        def executionCount = new AtomicInteger()
+        def parallelExecution = ParallelExecution.builder()
+                .addRunnable(2000, { int threadIndex -> executionCount.incrementAndGet() } as IndexedRunnable)
+                .executeOnVirtualThreads(16)
+                .build()
+
+        when:
+        parallelExecution.start()
+        parallelExecution.joinAndRethrow()
+
+        then:
+        executionCount.get() == 2000
+        parallelExecution.latencyHistogram.count == 2000
+        parallelExecution.getLatency(1999).present
+        parallelExecution.latencyHistogram.buckets.values().sum() == 2000
+    }
+
+    def 'should cancel runnables on first failure'()
+    {
+        setup:
+        def parallelExecution = ParallelExecution.builder()
+                .addRunnable(100, { int threadIndex ->
+                    if (threadIndex == 0) {
+                        throw new RuntimeException('failure')
+                    }
+                    Thread.sleep(10_000)
+                } as IndexedRunnable)
+                .executeOnVirtualThreads(2)
+                .withStartBarrier()
+                .cancelOnFirstFailure()
+                .build()
+
+        when:
+        parallelExecution.start()
+        boolean joined = parallelExecution.join(5_000)
+
+        then:
+        joined
+        parallelExecution.throwables*.message == ['failure']
+        parallelExecution.latencyHistogram.count < 100
+    }
 }
@@ -14,6 +14,8 @@
 package io.trino.tempto.fulfillment.table.kafka;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
 import com.google.inject.Injector;
 import io.trino.tempto.configuration.Configuration;
 import io.trino.tempto.fulfillment.table.MutableTableRequirement;
@@ -22,23 +24,38 @@ import io.trino.tempto.fulfillment.table.TableHandle;
 import io.trino.tempto.fulfillment.table.TableInstance;
 import io.trino.tempto.fulfillment.table.TableManager;
 import io.trino.tempto.internal.fulfillment.table.TableName;
+import io.trino.tempto.util.Lazy;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.KafkaAdminClient;
-import org.apache.kafka.clients.admin.ListTopicsResult;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.primitives.Shorts.checkedCast;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 @TableManager.Descriptor(tableDefinitionClass = KafkaTableDefinition.class, type = "KAFKA")
@@ -46,8 +63,21 @@ import static java.util.Objects.requireNonNull;
 public class KafkaTableManager
         implements TableManager<KafkaTableDefinition>
 {
+    private static final Duration METADATA_PROPAGATION_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration METADATA_POLL_INTERVAL = Duration.ofMillis(100);
+
+    private static final Map<String, Object> DEFAULT_PRODUCER_PROPERTIES = ImmutableMap.<String, Object>builder()
+            .put("linger.ms", 5)
+            .put("batch.size", 256 * 1024)
+            .put("compression.type", "none")
+            .put("max.in.flight.requests.per.connection", 5)
+            .build();
+
     private final String databaseName;
     private final Configuration brokerConfiguration;
+    private final Configuration producerConfiguration;
+    private final Lazy<AdminClient> adminClient = new Lazy<>(() -> KafkaAdminClient.create(getKafkaProperties()));
+    private final Set<String> preparedTopics = ConcurrentHashMap.newKeySet();
 
     @Inject
     public KafkaTableManager(
@@ -58,13 +88,27 @@ public class KafkaTableManager
         this.databaseName = requireNonNull(databaseName, "databaseName is null");
         this.brokerConfiguration = requireNonNull(brokerConfiguration, "brokerConfiguration is null");
         requireNonNull(injector, "injector is null");
+        this.producerConfiguration = injector.getInstance(Configuration.class).getSubconfiguration("databases." + databaseName + ".producer");
+    }
+
+    @Override
+    public void prepareImmutableTables(List<KafkaTableDefinition> tableDefinitions)
+    {
+        Map<String, KafkaTableDefinition> definitionsByTopic = new LinkedHashMap<>();
+        tableDefinitions.forEach(definition -> definitionsByTopic.putIfAbsent(definition.getTopic(), definition));
+        if (definitionsByTopic.isEmpty()) {
+            return;
+        }
+        recreateTopics(definitionsByTopic.values());
+        preparedTopics.addAll(definitionsByTopic.keySet());
     }
 
     @Override
     public TableInstance<KafkaTableDefinition> createImmutable(KafkaTableDefinition tableDefinition, TableHandle tableHandle)
     {
-        deleteTopic(tableDefinition.getTopic());
-        createTopic(tableDefinition.getTopic(), tableDefinition.getPartitionsCount(), tableDefinition.getReplicationLevel());
+        if (!preparedTopics.remove(tableDefinition.getTopic())) {
+            recreateTopics(ImmutableList.of(tableDefinition));
+        }
         insertDataIntoTopic(tableDefinition.getTopic(), tableDefinition.getDataSource());
         TableName createdTableName = new TableName(
                 tableHandle.getDatabase().orElse(getDatabaseName()),
@@ -74,49 +118,138 @@ public class KafkaTableManager
         return new KafkaTableInstance(createdTableName, tableDefinition);
     }
 
-    private void deleteTopic(String topic)
+    private void recreateTopics(Collection<KafkaTableDefinition> tableDefinitions)
     {
-        try (AdminClient kafkaAdminClient = getAdminClient()) {
-            ListTopicsResult topics = kafkaAdminClient.listTopics();
-            Set<String> names = topics.names().get();
+        Set<String> topics = tableDefinitions.stream()
+                .map(KafkaTableDefinition::getTopic)
+                .collect(toImmutableSet());
+        deleteTopics(topics);
+        createTopics(tableDefinitions);
+    }
 
-            if (names.contains(topic)) {
-                kafkaAdminClient.deleteTopics(ImmutableList.of(topic)).all().get();
+    private void deleteTopics(Set<String> topics)
+    {
+        AdminClient kafkaAdminClient = adminClient.get();
+        try {
+            for (Map.Entry<String, KafkaFuture<Void>> deletion : kafkaAdminClient.deleteTopics(topics).values().entrySet()) {
+                try {
+                    deletion.getValue().get();
+                }
+                catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof UnknownTopicOrPartitionException)) {
+                        throw new RuntimeException("Could not delete topic " + deletion.getKey(), e.getCause());
+                    }
+                }
             }
+            // deletion is asynchronous, wait until the brokers do not report deleted topics any more
+            waitForTopicsMetadata(() -> Sets.intersection(kafkaAdminClient.listTopics().names().get(), topics).isEmpty(), topics, "deleted");
         }
-        catch (Exception e) {
-            throw new RuntimeException("Could not delete topic " + topic, e);
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while deleting topics " + topics, e);
         }
     }
 
-    private void createTopic(String topic, int partitionsCount, int replicationLevel)
+    private void createTopics(Collection<KafkaTableDefinition> tableDefinitions)
     {
-        try (AdminClient kafkaAdminClient = getAdminClient()) {
-            kafkaAdminClient.createTopics(ImmutableList.of(new NewTopic(topic, partitionsCount, checkedCast(replicationLevel)))).all().get();
+        List<NewTopic> newTopics = tableDefinitions.stream()
+                .map(definition -> new NewTopic(definition.getTopic(), definition.getPartitionsCount(), checkedCast(definition.getReplicationLevel())))
+                .collect(toImmutableList());
+        Set<String> topics = newTopics.stream()
+                .map(NewTopic::name)
+                .collect(toImmutableSet());
+        AdminClient kafkaAdminClient = adminClient.get();
+        try {
+            kafkaAdminClient.createTopics(newTopics).all().get();
+            // topic metadata is propagated asynchronously, wait until all partitions have a leader
+            waitForTopicsMetadata(() -> allPartitionsHaveLeaders(kafkaAdminClient, topics), topics, "created");
         }
-        catch (Exception e) {
-            throw new RuntimeException(e);
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while creating topics " + topics, e);
+        }
+        catch (ExecutionException e) {
+            throw new RuntimeException("Could not create topics " + topics, e.getCause());
         }
     }
 
-    private void insertDataIntoTopic(String topic, KafkaDataSource dataSource)
+    private static boolean allPartitionsHaveLeaders(AdminClient kafkaAdminClient, Set<String> topics)
+            throws InterruptedException
     {
-        Producer<byte[], byte[]> producer = new KafkaProducer<>(getKafkaProperties());
+        try {
+            return kafkaAdminClient.describeTopics(topics).all().get().values().stream()
+                    .flatMap(description -> description.partitions().stream())
+                    .allMatch(partition -> partition.leader() != null && !partition.leader().isEmpty());
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof UnknownTopicOrPartitionException) {
+                return false;
+            }
+            throw new RuntimeException("Could not describe topics " + topics, e.getCause());
+        }
+    }
 
-        Iterator<KafkaMessage> messages = dataSource.getMessages();
-        while (messages.hasNext()) {
-            KafkaMessage message = messages.next();
+    private static void waitForTopicsMetadata(MetadataCondition condition, Set<String> topics, String operation)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + METADATA_PROPAGATION_TIMEOUT.toNanos();
+        while (true) {
             try {
-                producer.send(new ProducerRecord<>(
-                        topic,
-                        message.getPartition().isPresent() ? message.getPartition().getAsInt() : null,
-                        message.getKey().orElse(null),
-                        message.getValue())).get();
+                if (condition.isMet()) {
+                    return;
+                }
+            }
+            catch (ExecutionException e) {
+                throw new RuntimeException("Could not get metadata of topics " + topics, e.getCause());
+            }
+            if (System.nanoTime() > deadline) {
+                throw new RuntimeException(format("Topics %s were not %s within %s", topics, operation, METADATA_PROPAGATION_TIMEOUT));
             }
-            catch (Exception e) {
-                throw new RuntimeException("could not send message to topic " + topic);
+            Thread.sleep(METADATA_POLL_INTERVAL.toMillis());
+        }
+    }
+
+    private void insertDataIntoTopic(String topic, KafkaDataSource dataSource)
+    {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicLong failedMessages = new AtomicLong();
+        Callback callback = (metadata, exception) -> {
+            if (exception != null) {
+                failedMessages.incrementAndGet();
+                failure.compareAndSet(null, exception);
             }
+        };
+
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(getProducerProperties())) {
+            Iterator<KafkaMessage> messages = dataSource.getMessages();
+            while (messages.hasNext() && failure.get() == null) {
+                KafkaMessage message = messages.next();
+                producer.send(new ProducerRecord<>(
+                                topic,
+                                message.getPartition().isPresent() ? message.getPartition().getAsInt() : null,
+                                message.getKey().orElse(null),
+                                message.getValue()),
+                        callback);
+            }
+            producer.flush();
+        }
+        catch (RuntimeException e) {
+            throw new RuntimeException("could not send messages to topic " + topic, e);
+        }
+
+        if (failure.get() != null) {
+            throw new RuntimeException(format("could not send %s messages to topic %s", failedMessages.get(), topic), failure.get());
+        }
+    }
+
+    private Properties getProducerProperties()
+    {
+        Properties props = getKafkaProperties();
+        props.putAll(DEFAULT_PRODUCER_PROPERTIES);
+        for (String key : producerConfiguration.listKeys()) {
+            props.put(key, producerConfiguration.getStringMandatory(key));
         }
+        return props;
     }
 
     private Properties getKafkaProperties()
@@ -167,8 +300,15 @@ public class KafkaTableManager
         return KafkaTableDefinition.class;
     }
 
-    private AdminClient getAdminClient()
+    @Override
+    public void close()
+    {
+        adminClient.lazyGet().ifPresent(AdminClient::close);
+    }
+
+    private interface MetadataCondition
     {
-        return KafkaAdminClient.create(getKafkaProperties());
+        boolean isMet()
+                throws InterruptedException, ExecutionException;
     }
 }